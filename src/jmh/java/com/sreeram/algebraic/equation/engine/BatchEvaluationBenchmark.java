@@ -0,0 +1,74 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchEvaluationBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int rows;
+
+    private EquationProgram program;
+    private double[][] columns;
+    private final BatchEvaluator scalar = new ScalarBatchEvaluator();
+    private final BatchEvaluator vector = new VectorBatchEvaluator();
+
+    @Setup
+    public void setUp() {
+        // (3x + 2y - z) * (x - y) / 4
+        ExpressionTreeNode tree = node("/",
+                node("*",
+                        node("-", node("+", node("*", leaf("3"), leaf("x")), node("*", leaf("2"), leaf("y"))), leaf("z")),
+                        node("-", leaf("x"), leaf("y"))),
+                leaf("4"));
+        program = EquationCompiler.compile(tree);
+
+        Random random = new Random(42);
+        columns = new double[program.variableCount()][rows];
+        for (double[] column : columns) {
+            for (int i = 0; i < rows; i++) {
+                column[i] = random.nextDouble() * 100;
+            }
+        }
+    }
+
+    @Benchmark
+    public double[] scalar() {
+        return scalar.evaluate(program, columns, rows);
+    }
+
+    @Benchmark
+    public double[] vector() {
+        return vector.evaluate(program, columns, rows);
+    }
+
+    private static ExpressionTreeNode node(String value, ExpressionTreeNode left, ExpressionTreeNode right) {
+        ExpressionTreeNode node = new ExpressionTreeNode(value);
+        node.setLeft(left);
+        node.setRight(right);
+        return node;
+    }
+
+    private static ExpressionTreeNode leaf(String value) {
+        return new ExpressionTreeNode(value);
+    }
+}
@@ -0,0 +1,66 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.expression.ExpressionParser;
+import com.sreeram.algebraic.equation.expression.InfixRenderer;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Getting a runnable equation back from its text (parse and compile) versus from its binary form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"3x^3 + 2x^2 - 5x + 7", "(x + y)^2 - 4xy/(z + 1)"})
+    private String equation;
+
+    private ByteBuffer encoded;
+    private EquationProgram program;
+    private String canonical;
+
+    @Setup
+    public void setUp() {
+        ExpressionTreeNode tree = ExpressionParser.parse(equation);
+        program = EquationCompiler.compileOptimized(tree);
+        canonical = InfixRenderer.render(tree);
+        encoded = ByteBuffer.wrap(EquationCodec.encode(program, canonical));
+    }
+
+    @Benchmark
+    public EquationProgram parseAndCompile() {
+        return EquationCompiler.compileOptimized(ExpressionParser.parse(equation));
+    }
+
+    @Benchmark
+    public EquationProgram decode() {
+        return EquationCodec.view(encoded).toProgram();
+    }
+
+    @Benchmark
+    public EncodedEquation view() {
+        return EquationCodec.view(encoded);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return EquationCodec.encode(program, canonical);
+    }
+}
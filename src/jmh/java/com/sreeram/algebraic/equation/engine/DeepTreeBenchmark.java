@@ -0,0 +1,113 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.config.EquationProperties;
+import com.sreeram.algebraic.equation.expression.CompactTree;
+import com.sreeram.algebraic.equation.expression.ExpressionParser;
+import com.sreeram.algebraic.equation.expression.InfixRenderer;
+import com.sreeram.algebraic.equation.model.EquationResponse;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import com.sreeram.algebraic.equation.service.impl.EquationServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Machine-generated equations with long operator chains, which used to overflow the thread stack
+ * in the recursive parser, compiler and renderer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xss256k")
+public class DeepTreeBenchmark {
+
+    @Param({"100001", "200001"})
+    private int nodes;
+
+    @Param({"chain", "power"})
+    private String shape;
+
+    private String equation;
+    private ExpressionTreeNode tree;
+    private EquationProgram program;
+    private final double[] values = {1.0000001, 0.9999999};
+    private EquationServiceImpl service;
+    private EquationServiceImpl lazyService;
+
+    @Setup
+    public void setUp() {
+        int operators = nodes / 2;
+        StringBuilder builder = new StringBuilder("x");
+        for (int i = 0; i < operators; i++) {
+            if (shape.equals("power")) {
+                builder.append('^').append(i % 2 == 0 ? 'y' : 'x');
+            } else {
+                builder.append("+-*".charAt(i % 3)).append(i % 2 == 0 ? 'y' : 'x');
+            }
+        }
+        equation = builder.toString();
+        tree = ExpressionParser.parse(equation);
+        program = EquationCompiler.compileOptimized(tree);
+
+        EquationProperties properties = new EquationProperties();
+        properties.getParseCache().setMaxEntries(0);
+        properties.getEvaluation().setMode("interpreter");
+        service = new EquationServiceImpl(properties);
+        properties.getIngestion().setMode("lazy");
+        lazyService = new EquationServiceImpl(properties);
+    }
+
+    @Benchmark
+    public ExpressionTreeNode parse() {
+        return ExpressionParser.parse(equation);
+    }
+
+    @Benchmark
+    public void validate() {
+        ExpressionParser.validate(equation);
+    }
+
+    @Benchmark
+    public CompactTree compact() {
+        return CompactTree.of(tree);
+    }
+
+    @Benchmark
+    public EquationProgram compile() {
+        return EquationCompiler.compileOptimized(tree);
+    }
+
+    @Benchmark
+    public String render() {
+        return InfixRenderer.render(tree);
+    }
+
+    @Benchmark
+    public double evaluate() {
+        return program.evaluate(values);
+    }
+
+    @Benchmark
+    public EquationResponse store() {
+        service.clearAll();
+        return service.storeEquation(equation);
+    }
+
+    @Benchmark
+    public EquationResponse storeLazy() {
+        lazyService.clearAll();
+        return lazyService.storeEquation(equation);
+    }
+}
@@ -0,0 +1,71 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.expression.ExpressionParser;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolynomialBenchmark {
+
+    @Param({"3x^3 + 2x^2 - 5x + 7", "x^8y^2 + 4x^4 + y/2"})
+    private String equation;
+
+    private final double[] values = {1.25, 0.75};
+    private EquationProgram plain;
+    private EquationProgram lowered;
+    private EquationProgram fused;
+    private EquationFunction plainCompiled;
+    private EquationFunction fusedCompiled;
+
+    @Setup
+    public void setUp() {
+        ExpressionTreeNode tree = ExpressionParser.parse(equation);
+        plain = EquationCompiler.compile(tree);
+        lowered = EquationCompiler.compileOptimized(tree);
+        fused = EquationCompiler.compileOptimized(tree, true);
+        plainCompiled = BytecodeCompiler.compile(plain);
+        fusedCompiled = BytecodeCompiler.compile(fused);
+    }
+
+    @Benchmark
+    public double interpretPlain() {
+        return plain.evaluate(values);
+    }
+
+    @Benchmark
+    public double interpretLowered() {
+        return lowered.evaluate(values);
+    }
+
+    @Benchmark
+    public double interpretFused() {
+        return fused.evaluate(values);
+    }
+
+    @Benchmark
+    public double bytecodePlain() {
+        return plainCompiled.evaluate(values);
+    }
+
+    @Benchmark
+    public double bytecodeFused() {
+        return fusedCompiled.evaluate(values);
+    }
+}
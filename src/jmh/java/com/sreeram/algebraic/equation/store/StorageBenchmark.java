@@ -0,0 +1,117 @@
+package com.sreeram.algebraic.equation.store;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Durable append throughput with one and eight writers (group commit shares fsyncs between
+ * concurrent writers), and startup recovery of a store of a million equations.
+ */
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Log {
+
+        @Param({"true", "false"})
+        private boolean fsync;
+
+        private Path directory;
+        private EquationStorage storage;
+        private final AtomicLong ids = new AtomicLong();
+
+        @Setup
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("equation-wal");
+            storage = new EquationStorage(directory, fsync, 100_000);
+            storage.recover();
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            storage.close();
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Store {
+
+        @Param({"1000000"})
+        private int equations;
+
+        private Path directory;
+
+        @Setup
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("equation-store");
+            try (EquationStorage storage = new EquationStorage(directory, false, 100_000)) {
+                storage.recover();
+                for (long id = 1; id <= equations; id++) {
+                    storage.append(id, id % 3 + "x^2 + " + id + "y - z");
+                }
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void appendOneWriter(Log log) {
+        long id = log.ids.incrementAndGet();
+        log.storage.append(id, "3x + 2y - " + id);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void appendEightWriters(Log log) {
+        long id = log.ids.incrementAndGet();
+        log.storage.append(id, "3x + 2y - " + id);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public EquationStorage.Recovery recover(Store store) {
+        try (EquationStorage storage = new EquationStorage(store.directory, false, 100_000)) {
+            return storage.recover();
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
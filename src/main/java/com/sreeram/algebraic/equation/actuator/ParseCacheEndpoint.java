@@ -0,0 +1,22 @@
+package com.sreeram.algebraic.equation.actuator;
+
+import com.sreeram.algebraic.equation.expression.ParseCache;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "parsecache")
+public class ParseCacheEndpoint {
+
+    private final ParseCache parseCache;
+
+    public ParseCacheEndpoint(ParseCache parseCache) {
+        this.parseCache = parseCache;
+    }
+
+    @ReadOperation
+    public ParseCache.Stats parseCache() {
+        return parseCache.stats();
+    }
+}
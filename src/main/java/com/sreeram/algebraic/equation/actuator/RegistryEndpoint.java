@@ -0,0 +1,22 @@
+package com.sreeram.algebraic.equation.actuator;
+
+import com.sreeram.algebraic.equation.store.EquationTable;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "registry")
+public class RegistryEndpoint {
+
+    private final EquationTable table;
+
+    public RegistryEndpoint(EquationTable table) {
+        this.table = table;
+    }
+
+    @ReadOperation
+    public EquationTable.Stats registry() {
+        return table.stats();
+    }
+}
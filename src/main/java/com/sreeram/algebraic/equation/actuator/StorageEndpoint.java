@@ -0,0 +1,22 @@
+package com.sreeram.algebraic.equation.actuator;
+
+import com.sreeram.algebraic.equation.store.EquationStorage;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "storage")
+public class StorageEndpoint {
+
+    private final EquationStorage storage;
+
+    public StorageEndpoint(EquationStorage storage) {
+        this.storage = storage;
+    }
+
+    @ReadOperation
+    public EquationStorage.Stats storage() {
+        return storage.stats();
+    }
+}
@@ -0,0 +1,26 @@
+package com.sreeram.algebraic.equation.actuator;
+
+import com.sreeram.algebraic.equation.engine.TieredCompilation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-only view of the tiering state. The threshold is configuration, not something an
+ * unauthenticated caller can change over HTTP.
+ */
+@Component
+@Endpoint(id = "tiering")
+public class TieringEndpoint {
+
+    private final TieredCompilation tieredCompilation;
+
+    public TieringEndpoint(TieredCompilation tieredCompilation) {
+        this.tieredCompilation = tieredCompilation;
+    }
+
+    @ReadOperation
+    public TieredCompilation.Snapshot tiering() {
+        return tieredCompilation.snapshot();
+    }
+}
@@ -0,0 +1,73 @@
+package com.sreeram.algebraic.equation.config;
+
+import com.sreeram.algebraic.equation.engine.TieredCompilation;
+import com.sreeram.algebraic.equation.expression.ParseCache;
+import com.sreeram.algebraic.equation.store.EquationExpiry;
+import com.sreeram.algebraic.equation.store.EquationStorage;
+import com.sreeram.algebraic.equation.store.EquationTable;
+import com.sreeram.algebraic.equation.store.HeapEquationTable;
+import com.sreeram.algebraic.equation.store.MappedEquationTable;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class EngineConfiguration {
+
+    @Bean
+    public TieredCompilation tieredCompilation(EquationProperties properties) {
+        return tieredCompilation(properties.getEvaluation());
+    }
+
+    public static TieredCompilation tieredCompilation(EquationProperties.Evaluation evaluation) {
+        return new TieredCompilation(TieredCompilation.Mode.of(evaluation.getMode()), evaluation.getTierThreshold());
+    }
+
+    @Bean
+    public ParseCache parseCache(EquationProperties properties) {
+        return parseCache(properties.getParseCache());
+    }
+
+    public static ParseCache parseCache(EquationProperties.ParseCache cache) {
+        return new ParseCache(cache.getMaxEntries(), cache.getMaxBytes());
+    }
+
+    @Bean
+    public EquationStorage equationStorage(EquationProperties properties) {
+        return equationStorage(properties.getStorage());
+    }
+
+    public static EquationStorage equationStorage(EquationProperties.Storage storage) {
+        String directory = storage.getDirectory();
+        return new EquationStorage(directory == null || directory.isBlank() ? null : Path.of(directory),
+                storage.isFsync(), storage.getSnapshotInterval());
+    }
+
+    @Bean
+    public EquationTable equationTable(EquationProperties properties, TieredCompilation tieredCompilation) {
+        return equationTable(properties.getRegistry(), tieredCompilation);
+    }
+
+    public static EquationTable equationTable(EquationProperties.Registry registry,
+                                              TieredCompilation tieredCompilation) {
+        String backend = registry.getBackend() == null ? "heap" : registry.getBackend().trim().toLowerCase();
+        String directory = registry.getDirectory();
+        return switch (backend) {
+            case "heap" -> new HeapEquationTable();
+            case "mapped" -> new MappedEquationTable(directory == null || directory.isBlank() ? null : Path.of(directory),
+                    registry.getSegmentBytes(), registry.getCacheEntries(), registry.getCacheBytes(),
+                    tieredCompilation::functionFor, tieredCompilation::release);
+            default -> throw new IllegalArgumentException("Unknown registry backend: " + registry.getBackend());
+        };
+    }
+
+    @Bean
+    public EquationExpiry equationExpiry(EquationProperties properties) {
+        return equationExpiry(properties.getRegistry());
+    }
+
+    public static EquationExpiry equationExpiry(EquationProperties.Registry registry) {
+        return new EquationExpiry(registry.getExpirySweepMillis());
+    }
+}
@@ -0,0 +1,233 @@
+package com.sreeram.algebraic.equation.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "equation")
+public class EquationProperties {
+
+    private final Evaluation evaluation = new Evaluation();
+    private final ParseCache parseCache = new ParseCache();
+    private final Listing listing = new Listing();
+    private final Storage storage = new Storage();
+    private final Registry registry = new Registry();
+    private final Ingestion ingestion = new Ingestion();
+
+    public Evaluation getEvaluation() {
+        return evaluation;
+    }
+
+    public ParseCache getParseCache() {
+        return parseCache;
+    }
+
+    public Listing getListing() {
+        return listing;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public Registry getRegistry() {
+        return registry;
+    }
+
+    public Ingestion getIngestion() {
+        return ingestion;
+    }
+
+    public static class Evaluation {
+
+        private String batchEngine = "auto";
+        private String mode = "tiered";
+        private long tierThreshold = 1000;
+        private boolean relaxedPrecision = false;
+        private int maxPreparedHandles = 10_000;
+
+        public String getBatchEngine() {
+            return batchEngine;
+        }
+
+        public void setBatchEngine(String batchEngine) {
+            this.batchEngine = batchEngine;
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+
+        public long getTierThreshold() {
+            return tierThreshold;
+        }
+
+        public void setTierThreshold(long tierThreshold) {
+            this.tierThreshold = tierThreshold;
+        }
+
+        public boolean isRelaxedPrecision() {
+            return relaxedPrecision;
+        }
+
+        public void setRelaxedPrecision(boolean relaxedPrecision) {
+            this.relaxedPrecision = relaxedPrecision;
+        }
+
+        public int getMaxPreparedHandles() {
+            return maxPreparedHandles;
+        }
+
+        public void setMaxPreparedHandles(int maxPreparedHandles) {
+            this.maxPreparedHandles = maxPreparedHandles;
+        }
+    }
+
+    public static class ParseCache {
+
+        private long maxEntries = 10_000;
+        private long maxBytes = 16L * 1024 * 1024;
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    public static class Listing {
+
+        private int maxPageSize = 1000;
+
+        public int getMaxPageSize() {
+            return maxPageSize;
+        }
+
+        public void setMaxPageSize(int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+        }
+    }
+
+    public static class Storage {
+
+        private String directory;
+        private boolean fsync = true;
+        private long snapshotInterval = 100_000;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public boolean isFsync() {
+            return fsync;
+        }
+
+        public void setFsync(boolean fsync) {
+            this.fsync = fsync;
+        }
+
+        public long getSnapshotInterval() {
+            return snapshotInterval;
+        }
+
+        public void setSnapshotInterval(long snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+    }
+
+    public static class Registry {
+
+        private String backend = "heap";
+        private String directory;
+        private int segmentBytes = 64 * 1024 * 1024;
+        private long cacheEntries = 10_000;
+        private long cacheBytes = 16L * 1024 * 1024;
+        private long historyLimit = 1_000_000;
+        private long expirySweepMillis = 1000;
+
+        public String getBackend() {
+            return backend;
+        }
+
+        public void setBackend(String backend) {
+            this.backend = backend;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentBytes() {
+            return segmentBytes;
+        }
+
+        public void setSegmentBytes(int segmentBytes) {
+            this.segmentBytes = segmentBytes;
+        }
+
+        public long getCacheEntries() {
+            return cacheEntries;
+        }
+
+        public void setCacheEntries(long cacheEntries) {
+            this.cacheEntries = cacheEntries;
+        }
+
+        public long getCacheBytes() {
+            return cacheBytes;
+        }
+
+        public void setCacheBytes(long cacheBytes) {
+            this.cacheBytes = cacheBytes;
+        }
+
+        public long getHistoryLimit() {
+            return historyLimit;
+        }
+
+        public void setHistoryLimit(long historyLimit) {
+            this.historyLimit = historyLimit;
+        }
+
+        public long getExpirySweepMillis() {
+            return expirySweepMillis;
+        }
+
+        public void setExpirySweepMillis(long expirySweepMillis) {
+            this.expirySweepMillis = expirySweepMillis;
+        }
+    }
+
+    public static class Ingestion {
+
+        private String mode = "eager";
+
+        public String getMode() {
+            return mode;
+        }
+
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+    }
+}
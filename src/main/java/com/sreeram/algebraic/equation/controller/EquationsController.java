@@ -1,12 +1,24 @@
 package com.sreeram.algebraic.equation.controller;
 
+import com.sreeram.algebraic.equation.model.BatchEvaluationRequest;
+import com.sreeram.algebraic.equation.model.BatchEvaluationResponse;
+import com.sreeram.algebraic.equation.model.EquationChanges;
+import com.sreeram.algebraic.equation.model.EquationPage;
 import com.sreeram.algebraic.equation.model.EquationRequest;
 import com.sreeram.algebraic.equation.model.EquationResponse;
 import com.sreeram.algebraic.equation.model.EvaluationRequest;
 import com.sreeram.algebraic.equation.model.EvaluationResponse;
+import com.sreeram.algebraic.equation.model.PreparedEquationRequest;
+import com.sreeram.algebraic.equation.model.PreparedEquationResponse;
+import com.sreeram.algebraic.equation.model.PreparedEvaluationRequest;
+import com.sreeram.algebraic.equation.model.PreparedEvaluationResponse;
 import com.sreeram.algebraic.equation.service.EquationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -14,6 +26,8 @@ import java.util.List;
 @RequestMapping("/equations")
 public class EquationsController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final EquationService equationService;
 
     public EquationsController(EquationService equationService) {
@@ -24,14 +38,71 @@ public class EquationsController {
     public ResponseEntity<EquationResponse> storeEquation(
             @RequestBody EquationRequest request
     ) {
-        EquationResponse response = equationService.storeEquation(request.getEquation());
+        EquationResponse response = request.getTtlSeconds() == null
+                ? equationService.storeEquation(request.getEquation())
+                : equationService.storeEquation(request.getEquation(), request.getTtlSeconds());
         return ResponseEntity.ok(response);
     }
 
+    @DeleteMapping("/{equationId}")
+    public ResponseEntity<Void> deleteEquation(
+            @PathVariable Long equationId
+    ) {
+        equationService.deleteEquation(equationId);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping
-    public ResponseEntity<List<EquationResponse>> getAllEquations() {
-        List<EquationResponse> equations = equationService.getAllEquations();
-        return ResponseEntity.ok(equations);
+    public ResponseEntity<List<EquationResponse>> getAllEquations(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String eTag = eTag(equationService.getVersion());
+        if (matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        if (cursor == null && limit == null) {
+            List<EquationResponse> equations = equationService.getAllEquations();
+            return ResponseEntity.ok().eTag(eTag).body(equations);
+        }
+
+        EquationPage page = equationService.getEquations(cursor, limit);
+        if (page.getNextCursor() == null) {
+            return ResponseEntity.ok().eTag(eTag).body(page.getEquations());
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .header(NEXT_CURSOR_HEADER, page.getNextCursor().toString())
+                .body(page.getEquations());
+    }
+
+    @GetMapping(params = "since")
+    public ResponseEntity<EquationChanges> getChangesSince(
+            @RequestParam long since,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String eTag = eTag(equationService.getVersion());
+        if (matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        EquationChanges changes = equationService.getChangesSince(since);
+        return ResponseEntity.ok()
+                .eTag(eTag(changes.getVersion()))
+                .body(changes);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEquations(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        StreamingResponseBody body = out -> equationService.streamEquations(cursor, limit, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PostMapping("/{equationId}/evaluate")
@@ -42,4 +113,62 @@ public class EquationsController {
         EvaluationResponse response = equationService.evaluateEquation(equationId, request);
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/{equationId}/evaluate/batch")
+    public ResponseEntity<BatchEvaluationResponse> evaluateBatch(
+            @PathVariable Long equationId,
+            @RequestBody BatchEvaluationRequest request
+    ) {
+        BatchEvaluationResponse response = equationService.evaluateBatch(equationId, request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{equationId}/prepare")
+    public ResponseEntity<PreparedEquationResponse> prepareEquation(
+            @PathVariable Long equationId,
+            @RequestBody PreparedEquationRequest request
+    ) {
+        PreparedEquationResponse response = equationService.prepareEquation(equationId, request.getVariables());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/prepared/{handleId}/evaluate")
+    public ResponseEntity<PreparedEvaluationResponse> evaluatePrepared(
+            @PathVariable Long handleId,
+            @RequestBody PreparedEvaluationRequest request
+    ) {
+        PreparedEvaluationResponse response = equationService.evaluatePrepared(handleId, request.getValues());
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/prepared/{handleId}")
+    public ResponseEntity<Void> releasePrepared(
+            @PathVariable Long handleId
+    ) {
+        equationService.releasePrepared(handleId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Weak comparison against an {@code If-None-Match} list, as RFC 9110 requires for GET.
+     */
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
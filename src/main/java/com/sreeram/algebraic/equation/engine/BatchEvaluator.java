@@ -0,0 +1,6 @@
+package com.sreeram.algebraic.equation.engine;
+
+public interface BatchEvaluator {
+    String name();
+    double[] evaluate(EquationProgram program, double[][] columns, int rows);
+}
@@ -0,0 +1,22 @@
+package com.sreeram.algebraic.equation.engine;
+
+public final class BatchEvaluators {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private BatchEvaluators() {
+    }
+
+    public static BatchEvaluator select(String engine) {
+        String name = engine == null ? "auto" : engine.trim().toLowerCase();
+        return switch (name) {
+            case "scalar" -> new ScalarBatchEvaluator();
+            case "vector", "auto" -> vectorAvailable() ? new VectorBatchEvaluator() : new ScalarBatchEvaluator();
+            default -> throw new IllegalArgumentException("Unknown batch engine: " + engine);
+        };
+    }
+
+    public static boolean vectorAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+}
@@ -0,0 +1,76 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.exception.DivisionByZeroException;
+
+import java.util.Arrays;
+
+/**
+ * Evaluates a program over columnar input one block of rows at a time. Every instruction is
+ * applied to a whole block before the next one runs; subclasses decide how an operator is
+ * applied across a block.
+ */
+abstract class BlockBatchEvaluator implements BatchEvaluator {
+
+    static final int BLOCK_SIZE = 1024;
+
+    @Override
+    public double[] evaluate(EquationProgram program, double[][] columns, int rows) {
+        if (program.normalForm() != null) {
+            return program.normalForm().evaluateColumns(columns, rows);
+        }
+
+        double[] results = new double[rows];
+        double[][] stack = new double[Math.max(program.maxStackDepth(), 1)][BLOCK_SIZE];
+
+        for (int start = 0; start < rows; start += BLOCK_SIZE) {
+            int length = Math.min(BLOCK_SIZE, rows - start);
+            evaluateBlock(program, columns, start, length, stack);
+            System.arraycopy(stack[0], 0, results, start, length);
+        }
+
+        return results;
+    }
+
+    private void evaluateBlock(EquationProgram program, double[][] columns, int start, int length, double[][] stack) {
+        int sp = 0;
+
+        for (int pc = 0; pc < program.size(); pc++) {
+            byte opcode = program.opcode(pc);
+            if (opcode == EquationProgram.CONST) {
+                Arrays.fill(stack[sp++], 0, length, program.constant(program.operand(pc)));
+                continue;
+            }
+            if (opcode == EquationProgram.VAR) {
+                System.arraycopy(columns[program.operand(pc)], start, stack[sp++], 0, length);
+                continue;
+            }
+
+            if (opcode == EquationProgram.POWI) {
+                applyPower(stack[sp - 1], program.operand(pc), length);
+                continue;
+            }
+            if (opcode == EquationProgram.FMA) {
+                sp -= 2;
+                applyFma(stack[sp - 1], stack[sp], stack[sp + 1], length);
+                continue;
+            }
+
+            sp--;
+            if (opcode == EquationProgram.DIV) {
+                int zero = indexOfZero(stack[sp], length);
+                if (zero >= 0) {
+                    throw new DivisionByZeroException("Division by zero is not allowed (row " + (start + zero) + ")");
+                }
+            }
+            apply(opcode, stack[sp - 1], stack[sp], length);
+        }
+    }
+
+    abstract void apply(byte opcode, double[] left, double[] right, int length);
+
+    abstract void applyPower(double[] values, int exponent, int length);
+
+    abstract void applyFma(double[] left, double[] right, double[] addend, int length);
+
+    abstract int indexOfZero(double[] values, int length);
+}
@@ -0,0 +1,132 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.exception.DivisionByZeroException;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeBuilder;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static java.lang.constant.ConstantDescs.CD_Math;
+import static java.lang.constant.ConstantDescs.CD_Object;
+import static java.lang.constant.ConstantDescs.CD_double;
+import static java.lang.constant.ConstantDescs.CD_int;
+import static java.lang.constant.ConstantDescs.INIT_NAME;
+import static java.lang.constant.ConstantDescs.MTD_void;
+
+/**
+ * Turns an {@link EquationProgram} into a hidden class implementing {@link EquationFunction}.
+ * The postfix program maps one-to-one onto the JVM operand stack. Hidden classes are defined
+ * without {@code STRONG}, so a class is unloaded once its function instance is unreachable.
+ */
+public final class BytecodeCompiler {
+
+    /**
+     * HotSpot never JIT-compiles a method longer than 8000 bytes ({@code HugeMethodLimit}), and
+     * interpreting bytecode is slower than the stack machine, so larger programs are not compiled.
+     */
+    static final int MAX_CODE_BYTES = 7900;
+
+    private static final ClassDesc CD_FUNCTION = ClassDesc.of(EquationFunction.class.getName());
+    private static final ClassDesc CD_COMPILER = ClassDesc.of(BytecodeCompiler.class.getName());
+    private static final ClassDesc CD_GENERATED = ClassDesc.of(BytecodeCompiler.class.getPackageName() + ".CompiledEquation");
+    private static final MethodTypeDesc MTD_EVALUATE = MethodTypeDesc.of(CD_double, CD_double.arrayType());
+    private static final MethodTypeDesc MTD_BINARY = MethodTypeDesc.of(CD_double, CD_double, CD_double);
+    private static final MethodTypeDesc MTD_UNARY = MethodTypeDesc.of(CD_double, CD_double);
+    private static final MethodTypeDesc MTD_TERNARY = MethodTypeDesc.of(CD_double, CD_double, CD_double, CD_double);
+    private static final MethodTypeDesc MTD_POWI = MethodTypeDesc.of(CD_double, CD_double, CD_int);
+    private static final ClassDesc CD_PROGRAM = ClassDesc.of(EquationProgram.class.getName());
+
+    private BytecodeCompiler() {
+    }
+
+    public static boolean canCompile(EquationProgram program) {
+        return codeBytes(program) <= MAX_CODE_BYTES;
+    }
+
+    /**
+     * Upper bound on the length of the {@code evaluate} method {@link #emitBody} generates.
+     */
+    static int codeBytes(EquationProgram program) {
+        int bytes = 1;
+        for (int pc = 0; pc < program.size() && bytes <= MAX_CODE_BYTES; pc++) {
+            bytes += switch (program.opcode(pc)) {
+                case EquationProgram.CONST -> 3;
+                case EquationProgram.VAR -> 2 + intConstantBytes(program.operand(pc));
+                case EquationProgram.ADD, EquationProgram.SUB, EquationProgram.MUL -> 1;
+                case EquationProgram.DIV -> 4;
+                case EquationProgram.POW, EquationProgram.FMA -> 3;
+                case EquationProgram.POWI -> program.operand(pc) == 2 ? 2 : 3 + intConstantBytes(program.operand(pc));
+                default -> throw new IllegalStateException("Unknown opcode: " + program.opcode(pc));
+            };
+        }
+        return bytes;
+    }
+
+    private static int intConstantBytes(int value) {
+        if (value >= -1 && value <= 5) {
+            return 1;
+        }
+        return value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE ? 2 : 3;
+    }
+
+    public static EquationFunction compile(EquationProgram program) {
+        if (!canCompile(program)) {
+            return program;
+        }
+
+        byte[] bytes = ClassFile.of().build(CD_GENERATED, classBuilder -> classBuilder
+                .withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SUPER)
+                .withSuperclass(CD_Object)
+                .withInterfaceSymbols(CD_FUNCTION)
+                .withMethodBody(INIT_NAME, MTD_void, ClassFile.ACC_PUBLIC, code -> code
+                        .aload(0)
+                        .invokespecial(CD_Object, INIT_NAME, MTD_void)
+                        .return_())
+                .withMethodBody("evaluate", MTD_EVALUATE, ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL,
+                        code -> emitBody(code, program)));
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (EquationFunction) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to define compiled equation", e);
+        }
+    }
+
+    public static double checkDivisor(double divisor) {
+        if (divisor == 0) {
+            throw new DivisionByZeroException();
+        }
+        return divisor;
+    }
+
+    private static void emitBody(CodeBuilder code, EquationProgram program) {
+        for (int pc = 0; pc < program.size(); pc++) {
+            switch (program.opcode(pc)) {
+                case EquationProgram.CONST -> code.loadConstant(program.constant(program.operand(pc)));
+                case EquationProgram.VAR -> code.aload(1).loadConstant(program.operand(pc)).daload();
+                case EquationProgram.ADD -> code.dadd();
+                case EquationProgram.SUB -> code.dsub();
+                case EquationProgram.MUL -> code.dmul();
+                case EquationProgram.DIV -> code.invokestatic(CD_COMPILER, "checkDivisor", MTD_UNARY).ddiv();
+                case EquationProgram.POW -> code.invokestatic(CD_Math, "pow", MTD_BINARY);
+                case EquationProgram.POWI -> emitPower(code, program.operand(pc));
+                case EquationProgram.FMA -> code.invokestatic(CD_Math, "fma", MTD_TERNARY);
+                default -> throw new IllegalStateException("Unknown opcode: " + program.opcode(pc));
+            }
+        }
+        code.dreturn();
+    }
+
+    private static void emitPower(CodeBuilder code, int exponent) {
+        if (exponent == 2) {
+            code.dup2().dmul();
+        } else {
+            code.loadConstant(exponent).invokestatic(CD_PROGRAM, "powi", MTD_POWI);
+        }
+    }
+}
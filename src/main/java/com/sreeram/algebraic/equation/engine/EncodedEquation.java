@@ -0,0 +1,228 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.exception.DivisionByZeroException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only view of an equation in {@link EquationCodec} form. Fields are read in place from the
+ * underlying buffer, and {@link #evaluate} runs straight off it, so a view costs one small object
+ * however large the equation is. {@link #toProgram} materializes the full {@link EquationProgram}.
+ */
+public final class EncodedEquation implements EquationFunction {
+
+    private final ByteBuffer buffer;
+    private final EquationCodec.Layout layout;
+    private final byte kind;
+    private final boolean hasInteger;
+    private final int size;
+    private final int maxStackDepth;
+    private final int constantCount;
+    private final int variableCount;
+    private final int terms;
+    private final int integerSize;
+    private final int integerMaxStack;
+
+    EncodedEquation(ByteBuffer source) {
+        if (source.remaining() < EquationCodec.HEADER_BYTES) {
+            throw new IllegalArgumentException("Encoded equation is truncated");
+        }
+        ByteBuffer slice = source.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (slice.getInt(0) != EquationCodec.MAGIC) {
+            throw new IllegalArgumentException("Not an encoded equation");
+        }
+        if (slice.get(4) != EquationCodec.VERSION) {
+            throw new IllegalArgumentException("Unsupported encoded equation version " + slice.get(4));
+        }
+
+        kind = slice.get(5);
+        hasInteger = slice.get(6) != 0;
+        size = slice.getInt(8);
+        maxStackDepth = slice.getInt(12);
+        constantCount = slice.getInt(16);
+        variableCount = slice.getInt(20);
+        terms = slice.getInt(24);
+        integerSize = slice.getInt(32);
+        integerMaxStack = slice.getInt(36);
+        layout = EquationCodec.Layout.of(size, constantCount, variableCount, kind, terms, integerSize,
+                slice.getInt(40), slice.getInt(44));
+        if (layout.length() > slice.remaining()) {
+            throw new IllegalArgumentException("Encoded equation is truncated");
+        }
+        buffer = slice.limit(layout.length());
+    }
+
+    public int encodedLength() {
+        return layout.length();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte opcode(int pc) {
+        return buffer.get(layout.opcodes() + pc);
+    }
+
+    public int operand(int pc) {
+        return buffer.getInt(layout.operands() + 4 * pc);
+    }
+
+    public int constantCount() {
+        return constantCount;
+    }
+
+    public double constant(int index) {
+        return buffer.getDouble(layout.constants() + 8 * index);
+    }
+
+    public int variableCount() {
+        return variableCount;
+    }
+
+    public String variableName(int slot) {
+        int start = slot == 0 ? 0 : buffer.getInt(layout.nameEnds() + 4 * (slot - 1));
+        int end = buffer.getInt(layout.nameEnds() + 4 * slot);
+        return string(layout.names() + start, end - start);
+    }
+
+    public int maxStackDepth() {
+        return maxStackDepth;
+    }
+
+    public String canonicalText() {
+        return string(layout.text(), layout.length() - layout.text());
+    }
+
+    /**
+     * {@code "linear"} or {@code null}, as {@link NormalForm#kind()}.
+     */
+    public String normalFormKind() {
+        return kind == EquationCodec.LINEAR ? "linear" : null;
+    }
+
+    /**
+     * Evaluates like the function the program compiles to: through the normal form when there is
+     * one, otherwise on the stack machine.
+     */
+    @Override
+    public double evaluate(double[] variables) {
+        return kind == EquationCodec.LINEAR ? evaluateLinear(variables) : evaluateProgram(variables);
+    }
+
+    public EquationProgram toProgram() {
+        byte[] opcodes = new byte[size];
+        int[] operands = new int[size];
+        for (int pc = 0; pc < size; pc++) {
+            opcodes[pc] = opcode(pc);
+            operands[pc] = operand(pc);
+        }
+        double[] constants = new double[constantCount];
+        for (int i = 0; i < constantCount; i++) {
+            constants[i] = constant(i);
+        }
+        String[] variableNames = new String[variableCount];
+        for (int slot = 0; slot < variableCount; slot++) {
+            variableNames[slot] = variableName(slot);
+        }
+        return new EquationProgram(opcodes, operands, constants, variableNames, maxStackDepth,
+                normalForm(), integerProgram());
+    }
+
+    private NormalForm normalForm() {
+        if (kind != EquationCodec.LINEAR) {
+            return null;
+        }
+        double[] coefficients = new double[terms];
+        int[] slots = new int[terms];
+        for (int term = 0; term < terms; term++) {
+            coefficients[term] = coefficient(term);
+            slots[term] = linearSlot(term);
+        }
+        return new LinearForm(slots, coefficients, buffer.getDouble(layout.linearConstant()));
+    }
+
+    private IntegerProgram integerProgram() {
+        if (!hasInteger) {
+            return null;
+        }
+        byte[] opcodes = new byte[integerSize];
+        long[] operands = new long[integerSize];
+        for (int pc = 0; pc < integerSize; pc++) {
+            opcodes[pc] = buffer.get(layout.integerOpcodes() + pc);
+            operands[pc] = buffer.getLong(layout.integerOperands() + 8 * pc);
+        }
+        return new IntegerProgram(opcodes, operands, integerMaxStack);
+    }
+
+    private double coefficient(int term) {
+        return buffer.getDouble(layout.coefficients() + 8 * term);
+    }
+
+    private int linearSlot(int term) {
+        return buffer.getInt(layout.linearSlots() + 4 * term);
+    }
+
+    // Same operation order as LinearForm.evaluate
+    private double evaluateLinear(double[] variables) {
+        double result = coefficient(0) * variables[linearSlot(0)];
+        for (int term = 1; term < terms; term++) {
+            result += coefficient(term) * variables[linearSlot(term)];
+        }
+        double constant = buffer.getDouble(layout.linearConstant());
+        return constant != 0 ? result + constant : result;
+    }
+
+    // Same operations as EquationProgram.evaluate, reading the program in place
+    private double evaluateProgram(double[] variables) {
+        double[] stack = EquationProgram.scratchStack(maxStackDepth);
+        int sp = 0;
+
+        for (int pc = 0; pc < size; pc++) {
+            byte opcode = opcode(pc);
+            switch (opcode) {
+                case EquationProgram.CONST -> stack[sp++] = constant(operand(pc));
+                case EquationProgram.VAR -> stack[sp++] = variables[operand(pc)];
+                case EquationProgram.ADD -> {
+                    sp--;
+                    stack[sp - 1] += stack[sp];
+                }
+                case EquationProgram.SUB -> {
+                    sp--;
+                    stack[sp - 1] -= stack[sp];
+                }
+                case EquationProgram.MUL -> {
+                    sp--;
+                    stack[sp - 1] *= stack[sp];
+                }
+                case EquationProgram.DIV -> {
+                    sp--;
+                    if (stack[sp] == 0) {
+                        throw new DivisionByZeroException();
+                    }
+                    stack[sp - 1] /= stack[sp];
+                }
+                case EquationProgram.POW -> {
+                    sp--;
+                    stack[sp - 1] = Math.pow(stack[sp - 1], stack[sp]);
+                }
+                case EquationProgram.POWI -> stack[sp - 1] = EquationProgram.powi(stack[sp - 1], operand(pc));
+                case EquationProgram.FMA -> {
+                    sp -= 2;
+                    stack[sp - 1] = Math.fma(stack[sp - 1], stack[sp], stack[sp + 1]);
+                }
+                default -> throw new IllegalStateException("Unknown opcode: " + opcode);
+            }
+        }
+
+        return stack[0];
+    }
+
+    private String string(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
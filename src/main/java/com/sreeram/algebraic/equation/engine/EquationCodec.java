@@ -0,0 +1,144 @@
+package com.sreeram.algebraic.equation.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Versioned binary form of a compiled equation: the postfix program with its constant and
+ * variable-name tables, the linear form and the integer program when there are
+ * any, and the canonical infix. Moving or persisting an equation this way needs no parsing or
+ * compiling on the other side.
+ * <p>
+ * The layout is little-endian and fixed-width, ordered by alignment: a 48-byte header of counts,
+ * then the {@code double} sections (constants, linear coefficients and constant), the
+ * {@code long} integer operands, the {@code int} sections (operands, linear slots, name end
+ * offsets) and finally the byte sections (opcodes, integer opcodes, names, text). Every offset
+ * follows from the header, so {@link #view} can read any field in place.
+ */
+public final class EquationCodec {
+
+    public static final byte VERSION = 1;
+
+    static final int MAGIC = 0x31435145;
+    static final int HEADER_BYTES = 48;
+    static final byte NO_NORMAL_FORM = 0;
+    static final byte LINEAR = 1;
+
+    private EquationCodec() {
+    }
+
+    public static byte[] encode(EquationProgram program, String canonical) {
+        byte[] text = canonical.getBytes(StandardCharsets.UTF_8);
+        byte[][] names = new byte[program.variableCount()][];
+        int namesBytes = 0;
+        for (int slot = 0; slot < names.length; slot++) {
+            names[slot] = program.variableName(slot).getBytes(StandardCharsets.UTF_8);
+            namesBytes += names[slot].length;
+        }
+
+        NormalForm normalForm = program.normalForm();
+        byte kind = normalForm instanceof LinearForm ? LINEAR : NO_NORMAL_FORM;
+        int terms = kind == LINEAR ? ((LinearForm) normalForm).terms() : 0;
+        IntegerProgram integer = program.integerProgram();
+        int integerSize = integer == null ? 0 : integer.size();
+
+        int length = Layout.length(program.size(), program.constantCount(), names.length, kind, terms,
+                integerSize, namesBytes, text.length);
+        ByteBuffer out = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+        out.putInt(MAGIC).put(VERSION).put(kind).put((byte) (integer == null ? 0 : 1)).put((byte) 0);
+        out.putInt(program.size()).putInt(program.maxStackDepth()).putInt(program.constantCount())
+                .putInt(names.length).putInt(terms)
+                // Reserved, keeping the double sections 8-byte aligned
+                .putInt(0)
+                .putInt(integerSize).putInt(integer == null ? 0 : integer.maxStackDepth())
+                .putInt(namesBytes).putInt(text.length);
+
+        for (int i = 0; i < program.constantCount(); i++) {
+            out.putDouble(program.constant(i));
+        }
+        if (kind == LINEAR) {
+            LinearForm linear = (LinearForm) normalForm;
+            for (int term = 0; term < terms; term++) {
+                out.putDouble(linear.coefficient(term));
+            }
+            out.putDouble(linear.constant());
+        }
+        for (int pc = 0; pc < integerSize; pc++) {
+            out.putLong(integer.operand(pc));
+        }
+
+        for (int pc = 0; pc < program.size(); pc++) {
+            out.putInt(program.operand(pc));
+        }
+        if (kind == LINEAR) {
+            LinearForm linear = (LinearForm) normalForm;
+            for (int term = 0; term < terms; term++) {
+                out.putInt(linear.slot(term));
+            }
+        }
+        int nameEnd = 0;
+        for (byte[] name : names) {
+            nameEnd += name.length;
+            out.putInt(nameEnd);
+        }
+
+        for (int pc = 0; pc < program.size(); pc++) {
+            out.put(program.opcode(pc));
+        }
+        for (int pc = 0; pc < integerSize; pc++) {
+            out.put(integer.opcode(pc));
+        }
+        for (byte[] name : names) {
+            out.put(name);
+        }
+        out.put(text);
+
+        return out.array();
+    }
+
+    /**
+     * Wraps an encoded equation starting at the buffer's position without copying it. The buffer
+     * must not be modified while the view is in use.
+     */
+    public static EncodedEquation view(ByteBuffer buffer) {
+        return new EncodedEquation(buffer);
+    }
+
+    /**
+     * Length in bytes of the encoded equation starting at the buffer's position.
+     */
+    public static int encodedLength(ByteBuffer buffer) {
+        return view(buffer).encodedLength();
+    }
+
+    /**
+     * Section offsets derived from the header counts.
+     */
+    record Layout(int constants, int coefficients, int linearConstant, int integerOperands, int operands,
+                  int linearSlots, int nameEnds, int opcodes, int integerOpcodes, int names, int text, int length) {
+
+        static Layout of(int size, int constantCount, int variableCount, byte kind, int terms, int integerSize,
+                         int namesBytes, int textBytes) {
+            int constants = HEADER_BYTES;
+            int coefficients = constants + 8 * constantCount;
+            int linearConstant = coefficients + 8 * terms;
+            int integerOperands = linearConstant + (kind == LINEAR ? 8 : 0);
+            int operands = integerOperands + 8 * integerSize;
+            int linearSlots = operands + 4 * size;
+            int nameEnds = linearSlots + (kind == LINEAR ? 4 * terms : 0);
+            int opcodes = nameEnds + 4 * variableCount;
+            int integerOpcodes = opcodes + size;
+            int names = integerOpcodes + integerSize;
+            int text = names + namesBytes;
+            return new Layout(constants, coefficients, linearConstant, integerOperands, operands, linearSlots,
+                    nameEnds, opcodes, integerOpcodes, names, text, text + textBytes);
+        }
+
+        static int length(int size, int constantCount, int variableCount, byte kind, int terms, int integerSize,
+                          int namesBytes, int textBytes) {
+            return of(size, constantCount, variableCount, kind, terms, integerSize, namesBytes, textBytes).length();
+        }
+    }
+}
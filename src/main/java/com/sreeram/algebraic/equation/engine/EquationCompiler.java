@@ -0,0 +1,283 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.exception.InvalidEquationException;
+import com.sreeram.algebraic.equation.expression.PostOrder;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class EquationCompiler {
+
+    static final int MAX_POWER_EXPONENT = 64;
+
+    private byte[] opcodes = new byte[16];
+    private int[] operands = new int[16];
+    private int size;
+    private int depth;
+    private int maxDepth;
+    private final List<Double> constants = new ArrayList<>();
+    private final Map<String, Integer> slots = new LinkedHashMap<>();
+    private ExpressionTreeNode[] taskNodes = new ExpressionTreeNode[16];
+    private byte[] taskOpcodes = new byte[16];
+    private int[] taskOperands = new int[16];
+    private int taskTop;
+    private final boolean lower;
+    private final boolean relaxedPrecision;
+
+    private EquationCompiler(boolean lower, boolean relaxedPrecision) {
+        this.lower = lower;
+        this.relaxedPrecision = relaxedPrecision;
+    }
+
+    public static EquationProgram compile(ExpressionTreeNode tree) {
+        if (tree == null) {
+            throw new InvalidEquationException("Null node in expression tree");
+        }
+
+        EquationCompiler compiler = new EquationCompiler(false, false);
+        compiler.emitTree(tree);
+        return compiler.program(null, null);
+    }
+
+    public static EquationProgram compileOptimized(ExpressionTreeNode tree) {
+        return compileOptimized(tree, false);
+    }
+
+    /**
+     * Compiles the optimized form of {@code tree} and lowers it. {@code x^2} becomes {@code POWI}
+     * and division by an exact power of two becomes a multiplication; both give the same bits as
+     * the unlowered program.
+     * <p>
+     * {@code relaxedPrecision} trades that agreement for speed. {@code a*b+c} then becomes a
+     * single-rounding {@code FMA}, and integer powers from 3 to 64 become {@code POWI}.
+     * <p>
+     * Without it, linear forms also get a {@link NormalForm}.
+     * Integer-only equations always get an {@link IntegerProgram}. Variable slots come from the
+     * original tree, so a variable that optimizes away must still be bound.
+     */
+    public static EquationProgram compileOptimized(ExpressionTreeNode tree, boolean relaxedPrecision) {
+        if (tree == null) {
+            throw new InvalidEquationException("Null node in expression tree");
+        }
+
+        EquationCompiler compiler = new EquationCompiler(true, relaxedPrecision);
+        compiler.declareVariables(tree);
+        ExpressionTreeNode optimized = ExpressionOptimizer.optimize(tree);
+        compiler.emitTree(optimized);
+        return compiler.program(relaxedPrecision ? null : NormalForms.detect(optimized, compiler.slots),
+                IntegerProgram.compile(tree, compiler.slots));
+    }
+
+    static Double parseConstant(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private EquationProgram program(NormalForm normalForm, IntegerProgram integerProgram) {
+        double[] constantPool = new double[constants.size()];
+        for (int i = 0; i < constantPool.length; i++) {
+            constantPool[i] = constants.get(i);
+        }
+
+        return new EquationProgram(
+                Arrays.copyOf(opcodes, size),
+                Arrays.copyOf(operands, size),
+                constantPool,
+                slots.keySet().toArray(new String[0]),
+                maxDepth,
+                normalForm,
+                integerProgram
+        );
+    }
+
+    private void declareVariables(ExpressionTreeNode tree) {
+        PostOrder.fold(tree, new PostOrder.Fold<Void>() {
+            @Override
+            public Void leaf(ExpressionTreeNode leaf) {
+                if (parseConstant(leaf.getValue()) == null) {
+                    slots.putIfAbsent(leaf.getValue(), slots.size());
+                }
+                return null;
+            }
+
+            @Override
+            public Void node(ExpressionTreeNode node, Void left, Void right) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Emits postfix code with an explicit work stack. A task is either a subtree still to expand
+     * or an instruction to emit once the operands scheduled above it have been emitted.
+     */
+    private void emitTree(ExpressionTreeNode tree) {
+        schedule(tree);
+        while (taskTop > 0) {
+            int task = --taskTop;
+            ExpressionTreeNode node = taskNodes[task];
+            if (node == null) {
+                emit(taskOpcodes[task], taskOperands[task]);
+                continue;
+            }
+            taskNodes[task] = null;
+
+            if (node.isLeaf()) {
+                emitLeaf(node.getValue());
+                continue;
+            }
+            if (lower && scheduleLowered(node)) {
+                continue;
+            }
+
+            schedule(operatorOpcode(node.getValue()), 0);
+            schedule(node.getRight());
+            schedule(node.getLeft());
+        }
+    }
+
+    private boolean scheduleLowered(ExpressionTreeNode node) {
+        Double right = ExpressionOptimizer.constantValue(node.getRight());
+        switch (node.getValue()) {
+            case "^" -> {
+                if (right != null && lowersToPowi(right, relaxedPrecision)) {
+                    schedule(EquationProgram.POWI, right.intValue());
+                    schedule(node.getLeft());
+                    return true;
+                }
+            }
+            case "/" -> {
+                double reciprocal = right == null ? Double.NaN : 1.0 / right;
+                if (isPowerOfTwo(right) && Double.isFinite(reciprocal)) {
+                    schedule(EquationProgram.MUL, 0);
+                    schedule(new ExpressionTreeNode(Double.toString(reciprocal)));
+                    schedule(node.getLeft());
+                    return true;
+                }
+            }
+            case "+" -> {
+                if (relaxedPrecision && isProduct(node.getLeft())) {
+                    scheduleFma(node.getLeft(), node.getRight());
+                    return true;
+                }
+                if (relaxedPrecision && isProduct(node.getRight())) {
+                    scheduleFma(node.getRight(), node.getLeft());
+                    return true;
+                }
+            }
+            default -> {
+            }
+        }
+        return false;
+    }
+
+    private void scheduleFma(ExpressionTreeNode product, ExpressionTreeNode addend) {
+        schedule(EquationProgram.FMA, 0);
+        schedule(addend);
+        schedule(product.getRight());
+        schedule(product.getLeft());
+    }
+
+    private void schedule(ExpressionTreeNode node) {
+        if (node == null) {
+            throw new InvalidEquationException("Null node in expression tree");
+        }
+        growTasks();
+        taskNodes[taskTop++] = node;
+    }
+
+    private void schedule(byte opcode, int operand) {
+        growTasks();
+        taskOpcodes[taskTop] = opcode;
+        taskOperands[taskTop] = operand;
+        taskNodes[taskTop++] = null;
+    }
+
+    private void growTasks() {
+        if (taskTop == taskNodes.length) {
+            taskNodes = Arrays.copyOf(taskNodes, taskTop * 2);
+            taskOpcodes = Arrays.copyOf(taskOpcodes, taskTop * 2);
+            taskOperands = Arrays.copyOf(taskOperands, taskTop * 2);
+        }
+    }
+
+    /**
+     * Repeated multiplication matches {@code Math.pow} exactly only for squares; higher powers can
+     * differ in the last bits, so they are only lowered when that is allowed.
+     */
+    private static boolean lowersToPowi(double exponent, boolean relaxed) {
+        if (exponent == 2) {
+            return true;
+        }
+        return relaxed && exponent > 2 && exponent <= MAX_POWER_EXPONENT && exponent == Math.rint(exponent);
+    }
+
+    private static boolean isProduct(ExpressionTreeNode node) {
+        return node != null && !node.isLeaf() && node.getValue().equals("*");
+    }
+
+    static boolean isPowerOfTwo(Double value) {
+        if (value == null || value == 0 || !Double.isFinite(value)) {
+            return false;
+        }
+        double magnitude = Math.abs(value);
+        return magnitude == Math.scalb(1.0, Math.getExponent(magnitude));
+    }
+
+    private void emitLeaf(String value) {
+        Double constant = parseConstant(value);
+        if (constant != null) {
+            emitConstant(constant);
+            return;
+        }
+
+        Integer slot = slots.get(value);
+        if (slot == null) {
+            slot = slots.size();
+            slots.put(value, slot);
+        }
+        emit(EquationProgram.VAR, slot);
+    }
+
+    private void emitConstant(double constant) {
+        constants.add(constant);
+        emit(EquationProgram.CONST, constants.size() - 1);
+    }
+
+    private void emit(byte opcode, int operand) {
+        if (size == opcodes.length) {
+            opcodes = Arrays.copyOf(opcodes, size * 2);
+            operands = Arrays.copyOf(operands, size * 2);
+        }
+        opcodes[size] = opcode;
+        operands[size] = operand;
+        size++;
+
+        if (opcode == EquationProgram.CONST || opcode == EquationProgram.VAR) {
+            depth++;
+            maxDepth = Math.max(maxDepth, depth);
+        } else if (opcode == EquationProgram.FMA) {
+            depth -= 2;
+        } else if (opcode != EquationProgram.POWI) {
+            depth--;
+        }
+    }
+
+    private static byte operatorOpcode(String operator) {
+        return switch (operator) {
+            case "+" -> EquationProgram.ADD;
+            case "-" -> EquationProgram.SUB;
+            case "*" -> EquationProgram.MUL;
+            case "/" -> EquationProgram.DIV;
+            case "^" -> EquationProgram.POW;
+            default -> throw new IllegalArgumentException("Unknown operator: " + operator);
+        };
+    }
+}
@@ -0,0 +1,6 @@
+package com.sreeram.algebraic.equation.engine;
+
+@FunctionalInterface
+public interface EquationFunction {
+    double evaluate(double[] variables);
+}
@@ -0,0 +1,239 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.exception.DivisionByZeroException;
+import com.sreeram.algebraic.equation.exception.InvalidVariableBindingException;
+import com.sreeram.algebraic.equation.exception.VariableNotFoundException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Postfix form of a stored expression tree. Constants are parsed once at compile time and
+ * variables are addressed by slot, so evaluation runs over primitive arrays only.
+ */
+public final class EquationProgram implements EquationFunction {
+
+    public static final byte CONST = 0;
+    public static final byte VAR = 1;
+    public static final byte ADD = 2;
+    public static final byte SUB = 3;
+    public static final byte MUL = 4;
+    public static final byte DIV = 5;
+    public static final byte POW = 6;
+    public static final byte POWI = 7;
+    public static final byte FMA = 8;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final byte[] opcodes;
+    private final int[] operands;
+    private final double[] constants;
+    private final String[] variableNames;
+    private final int maxStackDepth;
+    private final NormalForm normalForm;
+    private final IntegerProgram integerProgram;
+
+    EquationProgram(byte[] opcodes, int[] operands, double[] constants, String[] variableNames, int maxStackDepth,
+                    NormalForm normalForm, IntegerProgram integerProgram) {
+        this.opcodes = opcodes;
+        this.operands = operands;
+        this.constants = constants;
+        this.variableNames = variableNames;
+        this.maxStackDepth = maxStackDepth;
+        this.normalForm = normalForm;
+        this.integerProgram = integerProgram;
+    }
+
+    public int size() {
+        return opcodes.length;
+    }
+
+    public byte opcode(int pc) {
+        return opcodes[pc];
+    }
+
+    public int operand(int pc) {
+        return operands[pc];
+    }
+
+    public double constant(int index) {
+        return constants[index];
+    }
+
+    public int constantCount() {
+        return constants.length;
+    }
+
+    public int variableCount() {
+        return variableNames.length;
+    }
+
+    public String variableName(int slot) {
+        return variableNames[slot];
+    }
+
+    public int maxStackDepth() {
+        return maxStackDepth;
+    }
+
+    /**
+     * The linear form this program was recognised as, or {@code null}.
+     */
+    public NormalForm normalForm() {
+        return normalForm;
+    }
+
+    /**
+     * The exact integer form of this program, or {@code null} if the equation is not integer-only.
+     */
+    public IntegerProgram integerProgram() {
+        return integerProgram;
+    }
+
+    public EquationProgram withVariableOrder(List<String> order) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < order.size(); i++) {
+            if (positions.put(order.get(i), i) != null) {
+                throw new InvalidVariableBindingException("Duplicate variable in binding order: " + order.get(i));
+            }
+        }
+
+        int[] slotMapping = new int[variableNames.length];
+        for (int slot = 0; slot < variableNames.length; slot++) {
+            Integer position = positions.get(variableNames[slot]);
+            if (position == null) {
+                throw new VariableNotFoundException(variableNames[slot]);
+            }
+            slotMapping[slot] = position;
+        }
+
+        int[] remapped = operands.clone();
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            if (opcodes[pc] == VAR) {
+                remapped[pc] = slotMapping[operands[pc]];
+            }
+        }
+
+        return new EquationProgram(opcodes, remapped, constants, order.toArray(new String[0]), maxStackDepth,
+                normalForm == null ? null : normalForm.withSlots(slotMapping),
+                integerProgram == null ? null : integerProgram.withSlots(slotMapping));
+    }
+
+    public double evaluate(Map<String, Double> variables) {
+        return evaluate(bind(variables));
+    }
+
+    public double[] bind(Map<String, Double> variables) {
+        double[] slots = SCRATCH.get().slots(variableNames.length);
+        for (int slot = 0; slot < variableNames.length; slot++) {
+            Double value = variables == null ? null : variables.get(variableNames[slot]);
+            if (value == null) {
+                throw new VariableNotFoundException(variableNames[slot]);
+            }
+            slots[slot] = value;
+        }
+        return slots;
+    }
+
+    public double[][] bindColumns(Map<String, double[]> columns, int rows) {
+        double[][] bound = new double[variableNames.length][];
+        for (int slot = 0; slot < variableNames.length; slot++) {
+            double[] column = columns == null ? null : columns.get(variableNames[slot]);
+            if (column == null) {
+                throw new VariableNotFoundException(variableNames[slot]);
+            }
+            if (column.length != rows) {
+                throw new InvalidVariableBindingException("Column " + variableNames[slot] + " has " + column.length
+                        + " values but expected " + rows);
+            }
+            bound[slot] = column;
+        }
+        return bound;
+    }
+
+    @Override
+    public double evaluate(double[] variables) {
+        double[] stack = SCRATCH.get().stack(maxStackDepth);
+        int sp = 0;
+
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            switch (opcodes[pc]) {
+                case CONST -> stack[sp++] = constants[operands[pc]];
+                case VAR -> stack[sp++] = variables[operands[pc]];
+                case ADD -> {
+                    sp--;
+                    stack[sp - 1] += stack[sp];
+                }
+                case SUB -> {
+                    sp--;
+                    stack[sp - 1] -= stack[sp];
+                }
+                case MUL -> {
+                    sp--;
+                    stack[sp - 1] *= stack[sp];
+                }
+                case DIV -> {
+                    sp--;
+                    if (stack[sp] == 0) {
+                        throw new DivisionByZeroException();
+                    }
+                    stack[sp - 1] /= stack[sp];
+                }
+                case POW -> {
+                    sp--;
+                    stack[sp - 1] = Math.pow(stack[sp - 1], stack[sp]);
+                }
+                case POWI -> stack[sp - 1] = powi(stack[sp - 1], operands[pc]);
+                case FMA -> {
+                    sp -= 2;
+                    stack[sp - 1] = Math.fma(stack[sp - 1], stack[sp], stack[sp + 1]);
+                }
+                default -> throw new IllegalStateException("Unknown opcode: " + opcodes[pc]);
+            }
+        }
+
+        return stack[0];
+    }
+
+    static double[] scratchStack(int depth) {
+        return SCRATCH.get().stack(depth);
+    }
+
+    /**
+     * Raises {@code base} to a positive integer power by repeated squaring. {@code x^2} is exactly
+     * {@code x*x}; higher powers can differ from {@link Math#pow} in the last bits.
+     */
+    public static double powi(double base, int exponent) {
+        double result = 1.0;
+        while (true) {
+            if ((exponent & 1) != 0) {
+                result *= base;
+            }
+            exponent >>>= 1;
+            if (exponent == 0) {
+                return result;
+            }
+            base *= base;
+        }
+    }
+
+    private static final class Scratch {
+        private double[] stack = new double[16];
+        private double[] slots = new double[16];
+
+        double[] stack(int depth) {
+            if (stack.length < depth) {
+                stack = new double[Math.max(depth, stack.length * 2)];
+            }
+            return stack;
+        }
+
+        double[] slots(int count) {
+            if (slots.length < count) {
+                slots = new double[Math.max(count, slots.length * 2)];
+            }
+            return slots;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.expression.PostOrder;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+
+/**
+ * Rewrites an expression tree into a cheaper one that evaluates to bit-identical results under
+ * IEEE-754, including signed zeros, NaN and infinities. Only rewrites that are exact for every input
+ * are applied, and anything that could throw {@code DivisionByZeroException} is kept. The input tree
+ * is never modified.
+ */
+final class ExpressionOptimizer {
+
+    private static final long NEGATIVE_ZERO_BITS = Double.doubleToRawLongBits(-0.0);
+    private static final long POSITIVE_ZERO_BITS = Double.doubleToRawLongBits(0.0);
+
+    private ExpressionOptimizer() {
+    }
+
+    static ExpressionTreeNode optimize(ExpressionTreeNode tree) {
+        return PostOrder.fold(tree, new PostOrder.Fold<>() {
+            @Override
+            public ExpressionTreeNode leaf(ExpressionTreeNode leaf) {
+                return leaf;
+            }
+
+            @Override
+            public ExpressionTreeNode node(ExpressionTreeNode node, ExpressionTreeNode left, ExpressionTreeNode right) {
+                return rewrite(node, left, right);
+            }
+        });
+    }
+
+    private static ExpressionTreeNode rewrite(ExpressionTreeNode node, ExpressionTreeNode left, ExpressionTreeNode right) {
+        String operator = node.getValue();
+        Double leftValue = constantValue(left);
+        Double rightValue = constantValue(right);
+
+        if (leftValue != null && rightValue != null && !(operator.equals("/") && rightValue == 0)) {
+            return constant(apply(operator, leftValue, rightValue));
+        }
+
+        ExpressionTreeNode simplified = simplify(operator, left, right, leftValue, rightValue);
+        if (simplified != null) {
+            return simplified;
+        }
+
+        if (left == node.getLeft() && right == node.getRight()) {
+            return node;
+        }
+        return operator(operator, left, right);
+    }
+
+    private static ExpressionTreeNode simplify(String operator, ExpressionTreeNode left, ExpressionTreeNode right,
+                                               Double leftValue, Double rightValue) {
+        switch (operator) {
+            case "+" -> {
+                // x + 0 is not x when x is -0.0, but adding -0.0 never changes a value
+                if (isBits(rightValue, NEGATIVE_ZERO_BITS)) {
+                    return left;
+                }
+                if (isBits(leftValue, NEGATIVE_ZERO_BITS)) {
+                    return right;
+                }
+            }
+            case "-" -> {
+                if (isBits(rightValue, POSITIVE_ZERO_BITS)) {
+                    return left;
+                }
+            }
+            case "*" -> {
+                if (isValue(rightValue, 1)) {
+                    return left;
+                }
+                if (isValue(leftValue, 1)) {
+                    return right;
+                }
+                return reassociate(left, right, leftValue, rightValue);
+            }
+            case "/" -> {
+                if (isValue(rightValue, 1)) {
+                    return left;
+                }
+            }
+            case "^" -> {
+                if (isValue(rightValue, 1)) {
+                    return left;
+                }
+                // pow(x, ±0) is 1 even for NaN; the base is only dropped when evaluating it cannot throw
+                if (rightValue != null && rightValue == 0 && !canThrow(left)) {
+                    return constant(1.0);
+                }
+            }
+            default -> {
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Folds {@code (x * c1) * c2} into {@code x * (c1 * c2)}. That is only exact when both constants are
+     * powers of two no smaller than one: scaling up by a power of two never rounds, and an intermediate
+     * overflow happens exactly when the combined product overflows.
+     */
+    private static ExpressionTreeNode reassociate(ExpressionTreeNode left, ExpressionTreeNode right,
+                                                  Double leftValue, Double rightValue) {
+        Double outerValue = rightValue != null ? rightValue : leftValue;
+        ExpressionTreeNode inner = rightValue != null ? left : right;
+        if (!isExactScale(outerValue) || !"*".equals(inner.getValue()) || inner.isLeaf()) {
+            return null;
+        }
+
+        Double innerRight = constantValue(inner.getRight());
+        Double innerLeft = constantValue(inner.getLeft());
+        Double innerValue = innerRight != null ? innerRight : innerLeft;
+        ExpressionTreeNode operand = innerRight != null ? inner.getLeft() : inner.getRight();
+        if (!isExactScale(innerValue)) {
+            return null;
+        }
+
+        double combined = innerValue * outerValue;
+        if (Double.isInfinite(combined)) {
+            return null;
+        }
+        return operator("*", operand, constant(combined));
+    }
+
+    private static boolean canThrow(ExpressionTreeNode tree) {
+        return PostOrder.fold(tree, new PostOrder.Fold<Boolean>() {
+            @Override
+            public Boolean leaf(ExpressionTreeNode leaf) {
+                return false;
+            }
+
+            @Override
+            public Boolean node(ExpressionTreeNode node, Boolean left, Boolean right) {
+                if (node.getValue().equals("/")) {
+                    Double divisor = constantValue(node.getRight());
+                    if (divisor == null || divisor == 0) {
+                        return true;
+                    }
+                }
+                return left || right;
+            }
+        });
+    }
+
+    private static boolean isExactScale(Double value) {
+        if (value == null || Double.isInfinite(value) || Double.isNaN(value)) {
+            return false;
+        }
+        double magnitude = Math.abs(value);
+        return magnitude >= 1 && magnitude == Math.scalb(1.0, Math.getExponent(magnitude));
+    }
+
+    private static boolean isValue(Double value, double expected) {
+        return value != null && value == expected;
+    }
+
+    private static boolean isBits(Double value, long bits) {
+        return value != null && Double.doubleToRawLongBits(value) == bits;
+    }
+
+    private static double apply(String operator, double left, double right) {
+        return switch (operator) {
+            case "+" -> left + right;
+            case "-" -> left - right;
+            case "*" -> left * right;
+            case "/" -> left / right;
+            case "^" -> Math.pow(left, right);
+            default -> throw new IllegalArgumentException("Unknown operator: " + operator);
+        };
+    }
+
+    static Double constantValue(ExpressionTreeNode node) {
+        if (node == null || !node.isLeaf()) {
+            return null;
+        }
+        return EquationCompiler.parseConstant(node.getValue());
+    }
+
+    private static ExpressionTreeNode constant(double value) {
+        return new ExpressionTreeNode(Double.toString(value));
+    }
+
+    private static ExpressionTreeNode operator(String operator, ExpressionTreeNode left, ExpressionTreeNode right) {
+        ExpressionTreeNode node = new ExpressionTreeNode(operator);
+        node.setLeft(left);
+        node.setRight(right);
+        return node;
+    }
+}
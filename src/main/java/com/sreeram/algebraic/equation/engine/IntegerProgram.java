@@ -0,0 +1,271 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.expression.PostOrder;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Exact integer evaluation for equations built only from integer literals and {@code + - * ^}.
+ * Runs on {@code long} with overflow checks and, when asked, redoes an overflowing evaluation with
+ * {@link BigInteger}, refusing any product or power that could exceed {@link #MAX_BIG_BITS} bits.
+ * Uses the same variable slots as the {@link EquationProgram} it belongs to.
+ */
+public final class IntegerProgram {
+
+    static final int MAX_BIG_BITS = 1 << 17;
+
+    private static final double LONG_RANGE = 0x1p63;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final byte[] opcodes;
+    private final long[] operands;
+    private final int maxStackDepth;
+
+    IntegerProgram(byte[] opcodes, long[] operands, int maxStackDepth) {
+        this.opcodes = opcodes;
+        this.operands = operands;
+        this.maxStackDepth = maxStackDepth;
+    }
+
+    int size() {
+        return opcodes.length;
+    }
+
+    byte opcode(int pc) {
+        return opcodes[pc];
+    }
+
+    long operand(int pc) {
+        return operands[pc];
+    }
+
+    int maxStackDepth() {
+        return maxStackDepth;
+    }
+
+    /**
+     * Returns the integer program for {@code tree}, or {@code null} when the tree has a division or a
+     * literal that is not an integer in {@code long} range.
+     */
+    static IntegerProgram compile(ExpressionTreeNode tree, Map<String, Integer> slots) {
+        Builder builder = new Builder();
+        if (!builder.emit(tree, slots)) {
+            return null;
+        }
+        return new IntegerProgram(Arrays.copyOf(builder.opcodes, builder.size),
+                Arrays.copyOf(builder.operands, builder.size), builder.maxDepth);
+    }
+
+    IntegerProgram withSlots(int[] slotMapping) {
+        long[] remapped = operands.clone();
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            if (opcodes[pc] == EquationProgram.VAR) {
+                remapped[pc] = slotMapping[(int) operands[pc]];
+            }
+        }
+        return new IntegerProgram(opcodes, remapped, maxStackDepth);
+    }
+
+    /**
+     * Evaluates exactly, returning a {@link Long}, a {@link BigInteger} if the {@code long} result
+     * overflowed and {@code bigIntegerOnOverflow} is set, or {@code null} when the bindings are not
+     * integers, an exponent is negative, or the result overflowed or would exceed
+     * {@link #MAX_BIG_BITS}. {@code null} means the caller should evaluate in double precision instead.
+     */
+    public Number evaluate(double[] variables, boolean bigIntegerOnOverflow) {
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            if (opcodes[pc] == EquationProgram.VAR) {
+                double value = variables[(int) operands[pc]];
+                if (value != Math.rint(value) || Math.abs(value) >= LONG_RANGE) {
+                    return null;
+                }
+            }
+        }
+
+        try {
+            return evaluateLong(variables);
+        } catch (ArithmeticException overflow) {
+            if (!bigIntegerOnOverflow) {
+                return null;
+            }
+        }
+
+        try {
+            return evaluateBig(variables);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private long evaluateLong(double[] variables) {
+        long[] stack = SCRATCH.get().stack(maxStackDepth);
+        int sp = 0;
+
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            switch (opcodes[pc]) {
+                case EquationProgram.CONST -> stack[sp++] = operands[pc];
+                case EquationProgram.VAR -> stack[sp++] = (long) variables[(int) operands[pc]];
+                case EquationProgram.ADD -> {
+                    sp--;
+                    stack[sp - 1] = Math.addExact(stack[sp - 1], stack[sp]);
+                }
+                case EquationProgram.SUB -> {
+                    sp--;
+                    stack[sp - 1] = Math.subtractExact(stack[sp - 1], stack[sp]);
+                }
+                case EquationProgram.MUL -> {
+                    sp--;
+                    stack[sp - 1] = Math.multiplyExact(stack[sp - 1], stack[sp]);
+                }
+                case EquationProgram.POW -> {
+                    sp--;
+                    stack[sp - 1] = powExact(stack[sp - 1], stack[sp]);
+                }
+                default -> throw new IllegalStateException("Unknown opcode: " + opcodes[pc]);
+            }
+        }
+
+        return stack[0];
+    }
+
+    private BigInteger evaluateBig(double[] variables) {
+        BigInteger[] stack = new BigInteger[maxStackDepth];
+        int sp = 0;
+
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            switch (opcodes[pc]) {
+                case EquationProgram.CONST -> stack[sp++] = BigInteger.valueOf(operands[pc]);
+                case EquationProgram.VAR -> stack[sp++] = BigInteger.valueOf((long) variables[(int) operands[pc]]);
+                case EquationProgram.ADD -> {
+                    sp--;
+                    stack[sp - 1] = stack[sp - 1].add(stack[sp]);
+                }
+                case EquationProgram.SUB -> {
+                    sp--;
+                    stack[sp - 1] = stack[sp - 1].subtract(stack[sp]);
+                }
+                case EquationProgram.MUL -> {
+                    sp--;
+                    if ((long) stack[sp - 1].bitLength() + stack[sp].bitLength() > MAX_BIG_BITS) {
+                        throw new ArithmeticException("Product too large");
+                    }
+                    stack[sp - 1] = stack[sp - 1].multiply(stack[sp]);
+                }
+                case EquationProgram.POW -> {
+                    sp--;
+                    stack[sp - 1] = stack[sp - 1].pow(bigExponent(stack[sp - 1], stack[sp]));
+                }
+                default -> throw new IllegalStateException("Unknown opcode: " + opcodes[pc]);
+            }
+        }
+
+        return stack[0];
+    }
+
+    static long powExact(long base, long exponent) {
+        if (exponent < 0) {
+            throw new ArithmeticException("Negative exponent");
+        }
+        long result = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result = Math.multiplyExact(result, base);
+            }
+            exponent >>= 1;
+            if (exponent > 0) {
+                base = Math.multiplyExact(base, base);
+            }
+        }
+        return result;
+    }
+
+    private static int bigExponent(BigInteger base, BigInteger exponent) {
+        if (exponent.signum() < 0) {
+            throw new ArithmeticException("Negative exponent");
+        }
+        BigInteger magnitude = base.abs();
+        // 0, 1 and -1 only depend on whether the exponent is zero, odd or even
+        if (magnitude.compareTo(BigInteger.ONE) <= 0) {
+            return exponent.signum() == 0 ? 0 : exponent.testBit(0) ? 1 : 2;
+        }
+        // |base|^e fits in bitLength * e bits
+        if (exponent.compareTo(BigInteger.valueOf(MAX_BIG_BITS / magnitude.bitLength())) > 0) {
+            throw new ArithmeticException("Power too large");
+        }
+        return exponent.intValue();
+    }
+
+    private static final class Builder {
+        private byte[] opcodes = new byte[16];
+        private long[] operands = new long[16];
+        private int size;
+        private int depth;
+        private int maxDepth;
+
+        boolean emit(ExpressionTreeNode tree, Map<String, Integer> slots) {
+            return PostOrder.fold(tree, new PostOrder.Fold<Boolean>() {
+                @Override
+                public Boolean leaf(ExpressionTreeNode leaf) {
+                    String value = leaf.getValue();
+                    if (EquationCompiler.parseConstant(value) == null) {
+                        append(EquationProgram.VAR, slots.get(value));
+                        return true;
+                    }
+                    try {
+                        append(EquationProgram.CONST, Long.parseLong(value));
+                        return true;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+
+                @Override
+                public Boolean node(ExpressionTreeNode node, Boolean left, Boolean right) {
+                    byte opcode = switch (node.getValue()) {
+                        case "+" -> EquationProgram.ADD;
+                        case "-" -> EquationProgram.SUB;
+                        case "*" -> EquationProgram.MUL;
+                        case "^" -> EquationProgram.POW;
+                        default -> -1;
+                    };
+                    if (opcode < 0 || !left || !right) {
+                        return false;
+                    }
+                    append(opcode, 0);
+                    return true;
+                }
+            });
+        }
+
+        private void append(byte opcode, long operand) {
+            if (size == opcodes.length) {
+                opcodes = Arrays.copyOf(opcodes, size * 2);
+                operands = Arrays.copyOf(operands, size * 2);
+            }
+            opcodes[size] = opcode;
+            operands[size] = operand;
+            size++;
+
+            if (opcode == EquationProgram.CONST || opcode == EquationProgram.VAR) {
+                depth++;
+                maxDepth = Math.max(maxDepth, depth);
+            } else {
+                depth--;
+            }
+        }
+    }
+
+    private static final class Scratch {
+        private long[] stack = new long[16];
+
+        long[] stack(int depth) {
+            if (stack.length < depth) {
+                stack = new long[Math.max(depth, stack.length * 2)];
+            }
+            return stack;
+        }
+    }
+}
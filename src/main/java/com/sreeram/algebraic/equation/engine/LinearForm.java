@@ -0,0 +1,82 @@
+package com.sreeram.algebraic.equation.engine;
+
+/**
+ * Linear combination of variables plus a constant, evaluated as a dot product. Over columnar input
+ * it is a matrix-vector product, accumulated one column at a time.
+ */
+final class LinearForm implements NormalForm {
+
+    private final int[] slots;
+    private final double[] coefficients;
+    private final double constant;
+
+    LinearForm(int[] slots, double[] coefficients, double constant) {
+        this.slots = slots;
+        this.coefficients = coefficients;
+        this.constant = constant;
+    }
+
+    int terms() {
+        return slots.length;
+    }
+
+    int slot(int term) {
+        return slots[term];
+    }
+
+    double coefficient(int term) {
+        return coefficients[term];
+    }
+
+    double constant() {
+        return constant;
+    }
+
+    @Override
+    public String kind() {
+        return "linear";
+    }
+
+    @Override
+    public double evaluate(double[] variables) {
+        double result = coefficients[0] * variables[slots[0]];
+        for (int term = 1; term < slots.length; term++) {
+            result += coefficients[term] * variables[slots[term]];
+        }
+        return constant != 0 ? result + constant : result;
+    }
+
+    @Override
+    public double[] evaluateColumns(double[][] columns, int rows) {
+        double[] results = new double[rows];
+        double[] first = columns[slots[0]];
+        double leading = coefficients[0];
+        for (int row = 0; row < rows; row++) {
+            results[row] = leading * first[row];
+        }
+
+        for (int term = 1; term < slots.length; term++) {
+            double[] column = columns[slots[term]];
+            double coefficient = coefficients[term];
+            for (int row = 0; row < rows; row++) {
+                results[row] += coefficient * column[row];
+            }
+        }
+
+        if (constant != 0) {
+            for (int row = 0; row < rows; row++) {
+                results[row] += constant;
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public NormalForm withSlots(int[] slotMapping) {
+        int[] remapped = new int[slots.length];
+        for (int term = 0; term < slots.length; term++) {
+            remapped[term] = slotMapping[slots[term]];
+        }
+        return new LinearForm(remapped, coefficients, constant);
+    }
+}
@@ -0,0 +1,13 @@
+package com.sreeram.algebraic.equation.engine;
+
+/**
+ * A closed form recognised at compile time that evaluates faster than the general stack machine.
+ */
+public interface NormalForm extends EquationFunction {
+
+    String kind();
+
+    double[] evaluateColumns(double[][] columns, int rows);
+
+    NormalForm withSlots(int[] slotMapping);
+}
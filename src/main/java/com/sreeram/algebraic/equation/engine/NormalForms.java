@@ -0,0 +1,110 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recognises optimized trees that are a sum of scaled variables, and keeps them as coefficients. A
+ * form is only accepted when evaluating it performs the same operations in the same order as the
+ * program, so results are bit-identical: nothing is distributed ({@code 3(x+y)}), like terms are not
+ * merged ({@code x + 1 + x}) and a constant may only be the last term.
+ */
+final class NormalForms {
+
+    private NormalForms() {
+    }
+
+    static NormalForm detect(ExpressionTreeNode tree, Map<String, Integer> slots) {
+        List<Term> terms = terms(tree);
+        if (terms == null || terms.get(0).variable() == null) {
+            return null;
+        }
+
+        int variableTerms = terms.size();
+        double constant = 0;
+        Term last = terms.get(terms.size() - 1);
+        if (last.variable() == null) {
+            constant = last.coefficient();
+            variableTerms--;
+        }
+
+        Set<String> variables = new HashSet<>();
+        int[] termSlots = new int[variableTerms];
+        double[] coefficients = new double[variableTerms];
+        for (int term = 0; term < variableTerms; term++) {
+            String variable = terms.get(term).variable();
+            if (variable == null || !variables.add(variable)) {
+                return null;
+            }
+            termSlots[term] = slots.get(variable);
+            coefficients[term] = terms.get(term).coefficient();
+        }
+        return new LinearForm(termSlots, coefficients, constant);
+    }
+
+    /**
+     * Splits a left-leaning chain of {@code +} and {@code -} into its terms in evaluation order, or
+     * returns {@code null} when any of them is not a single scaled variable or constant.
+     */
+    private static List<Term> terms(ExpressionTreeNode tree) {
+        List<Term> terms = new ArrayList<>();
+        ExpressionTreeNode node = tree;
+        while (!node.isLeaf() && (node.getValue().equals("+") || node.getValue().equals("-"))) {
+            Term term = term(node.getRight(), node.getValue().equals("-") ? -1 : 1);
+            if (term == null) {
+                return null;
+            }
+            terms.add(term);
+            node = node.getLeft();
+        }
+        Term first = term(node, 1);
+        if (first == null) {
+            return null;
+        }
+        terms.add(first);
+        return terms.reversed();
+    }
+
+    private static Term term(ExpressionTreeNode node, int sign) {
+        Double constant = ExpressionOptimizer.constantValue(node);
+        if (constant != null) {
+            return constant != 0 && Double.isFinite(constant) ? new Term(null, sign * constant) : null;
+        }
+        if (node.isLeaf()) {
+            return new Term(node.getValue(), sign);
+        }
+
+        Double right = ExpressionOptimizer.constantValue(node.getRight());
+        Double left = ExpressionOptimizer.constantValue(node.getLeft());
+        return switch (node.getValue()) {
+            case "*" -> {
+                Double factor = right != null ? right : left;
+                ExpressionTreeNode variable = right != null ? node.getLeft() : node.getRight();
+                yield isCoefficient(factor) && isVariable(variable) ? new Term(variable.getValue(), sign * factor) : null;
+            }
+            case "/" -> {
+                // Only a power-of-two divisor, which the compiler lowers to an exact multiplication
+                double reciprocal = right == null ? Double.NaN : 1.0 / right;
+                yield EquationCompiler.isPowerOfTwo(right) && Double.isFinite(reciprocal) && isVariable(node.getLeft())
+                        ? new Term(node.getLeft().getValue(), sign * reciprocal) : null;
+            }
+            default -> null;
+        };
+    }
+
+    private static boolean isVariable(ExpressionTreeNode node) {
+        return node.isLeaf() && ExpressionOptimizer.constantValue(node) == null;
+    }
+
+    private static boolean isCoefficient(Double value) {
+        return value != null && value != 0 && Double.isFinite(value);
+    }
+
+    private record Term(String variable, double coefficient) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.sreeram.algebraic.equation.engine;
+
+public final class ScalarBatchEvaluator extends BlockBatchEvaluator {
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    void apply(byte opcode, double[] left, double[] right, int length) {
+        switch (opcode) {
+            case EquationProgram.ADD -> {
+                for (int i = 0; i < length; i++) {
+                    left[i] += right[i];
+                }
+            }
+            case EquationProgram.SUB -> {
+                for (int i = 0; i < length; i++) {
+                    left[i] -= right[i];
+                }
+            }
+            case EquationProgram.MUL -> {
+                for (int i = 0; i < length; i++) {
+                    left[i] *= right[i];
+                }
+            }
+            case EquationProgram.DIV -> {
+                for (int i = 0; i < length; i++) {
+                    left[i] /= right[i];
+                }
+            }
+            case EquationProgram.POW -> {
+                for (int i = 0; i < length; i++) {
+                    left[i] = Math.pow(left[i], right[i]);
+                }
+            }
+            default -> throw new IllegalStateException("Unknown opcode: " + opcode);
+        }
+    }
+
+    @Override
+    void applyPower(double[] values, int exponent, int length) {
+        for (int i = 0; i < length; i++) {
+            values[i] = EquationProgram.powi(values[i], exponent);
+        }
+    }
+
+    @Override
+    void applyFma(double[] left, double[] right, double[] addend, int length) {
+        for (int i = 0; i < length; i++) {
+            left[i] = Math.fma(left[i], right[i], addend[i]);
+        }
+    }
+
+    @Override
+    int indexOfZero(double[] values, int length) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,200 @@
+package com.sreeram.algebraic.equation.engine;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Hands out the {@link EquationFunction} for each program according to the evaluation mode and
+ * promotes hot tiered functions to bytecode on a single background thread, so callers never wait
+ * on compilation.
+ */
+public final class TieredCompilation implements AutoCloseable {
+
+    public enum Mode {
+        INTERPRETER, BYTECODE, TIERED;
+
+        public static Mode of(String name) {
+            try {
+                return Mode.valueOf(name.trim().toUpperCase());
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Unknown evaluation mode: " + name);
+            }
+        }
+    }
+
+    private static final int RECENT_PROMOTIONS = 32;
+
+    private final Mode mode;
+    private volatile long threshold;
+    private final ExecutorService compiler = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "equation-compiler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Every count moves under this lock, so a snapshot never sees a transition half applied
+    private final Object counts = new Object();
+    private long tracked;
+    private long queued;
+    private long compiled;
+    private long failed;
+    private long released;
+    private final Deque<Promotion> recentPromotions = new ConcurrentLinkedDeque<>();
+
+    public TieredCompilation(Mode mode, long threshold) {
+        this.mode = mode;
+        setThreshold(threshold);
+    }
+
+    public EquationFunction functionFor(Long equationId, EquationProgram program) {
+        if (program.normalForm() != null) {
+            return program.normalForm();
+        }
+        return switch (mode) {
+            case INTERPRETER -> program;
+            case BYTECODE -> BytecodeCompiler.compile(program);
+            case TIERED -> {
+                synchronized (counts) {
+                    tracked++;
+                }
+                yield new TieredFunction(equationId, program, this);
+            }
+        };
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public long threshold() {
+        return threshold;
+    }
+
+    public void setThreshold(long threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Tier threshold must be at least 1");
+        }
+        this.threshold = threshold;
+    }
+
+    public Snapshot snapshot() {
+        synchronized (counts) {
+            return new Snapshot(mode, threshold, tracked - queued - compiled - failed, queued, compiled, failed,
+                    released, new ArrayList<>(recentPromotions));
+        }
+    }
+
+    /**
+     * Stops tracking a function whose entry was evicted or deleted: it leaves the counts, and a
+     * promotion that has not run yet is dropped rather than compiled for nobody. The function
+     * keeps evaluating for callers that still hold it.
+     */
+    public void release(EquationFunction function) {
+        if (!(function instanceof TieredFunction tiered)) {
+            return;
+        }
+        synchronized (tiered) {
+            if (tiered.tier() == TieredFunction.Tier.RELEASED) {
+                return;
+            }
+            synchronized (counts) {
+                switch (tiered.tier()) {
+                    case QUEUED -> queued--;
+                    case COMPILED -> compiled--;
+                    case FAILED -> failed--;
+                    default -> {
+                    }
+                }
+                tracked--;
+                released++;
+            }
+            tiered.markReleased();
+        }
+    }
+
+    void requestPromotion(TieredFunction function) {
+        synchronized (function) {
+            if (function.tier() != TieredFunction.Tier.INTERPRETED) {
+                return;
+            }
+            synchronized (counts) {
+                queued++;
+            }
+            function.markQueued();
+        }
+        try {
+            compiler.execute(() -> promote(function));
+        } catch (RejectedExecutionException e) {
+            synchronized (function) {
+                if (function.tier() == TieredFunction.Tier.QUEUED) {
+                    synchronized (counts) {
+                        queued--;
+                        failed++;
+                    }
+                    function.markFailed();
+                }
+            }
+        }
+    }
+
+    private void promote(TieredFunction function) {
+        if (function.tier() != TieredFunction.Tier.QUEUED) {
+            return;
+        }
+        long start = System.nanoTime();
+        EquationFunction compiledFunction = null;
+        try {
+            EquationProgram program = function.program();
+            if (BytecodeCompiler.canCompile(program)) {
+                compiledFunction = BytecodeCompiler.compile(program);
+            }
+        } catch (RuntimeException e) {
+            compiledFunction = null;
+        }
+
+        synchronized (function) {
+            if (function.tier() != TieredFunction.Tier.QUEUED) {
+                // Released while compiling; release already took it out of the counts
+                return;
+            }
+            synchronized (counts) {
+                queued--;
+                if (compiledFunction == null) {
+                    failed++;
+                } else {
+                    compiled++;
+                }
+            }
+            if (compiledFunction == null) {
+                function.markFailed();
+                return;
+            }
+            recordPromotion(new Promotion(function.equationId(), function.invocations(),
+                    (System.nanoTime() - start) / 1_000, System.currentTimeMillis()));
+            function.install(compiledFunction);
+        }
+    }
+
+    private void recordPromotion(Promotion promotion) {
+        recentPromotions.addFirst(promotion);
+        while (recentPromotions.size() > RECENT_PROMOTIONS) {
+            recentPromotions.pollLast();
+        }
+    }
+
+    @Override
+    public void close() {
+        compiler.shutdownNow();
+    }
+
+    public record Promotion(Long equationId, int invocations, long compileMicros, long promotedAt) {
+    }
+
+    public record Snapshot(Mode mode, long threshold, long interpreted, long queued, long compiled, long failed,
+                           long released, List<Promotion> recentPromotions) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.sreeram.algebraic.equation.engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Starts on the interpreter and swaps itself to bytecode once the invocation count crosses the
+ * threshold. The counter is a plain field on purpose: a few lost increments only delay promotion.
+ */
+public final class TieredFunction implements EquationFunction {
+
+    public enum Tier { INTERPRETED, QUEUED, COMPILED, FAILED, RELEASED }
+
+    private final Long equationId;
+    private final EquationProgram program;
+    private final TieredCompilation tiers;
+    private final AtomicBoolean promotionRequested = new AtomicBoolean();
+    private volatile EquationFunction current;
+    private volatile Tier tier = Tier.INTERPRETED;
+    private int invocations;
+
+    TieredFunction(Long equationId, EquationProgram program, TieredCompilation tiers) {
+        this.equationId = equationId;
+        this.program = program;
+        this.tiers = tiers;
+        this.current = program;
+    }
+
+    @Override
+    public double evaluate(double[] variables) {
+        EquationFunction function = current;
+        if (tier == Tier.INTERPRETED && ++invocations >= tiers.threshold()
+                && promotionRequested.compareAndSet(false, true)) {
+            tiers.requestPromotion(this);
+        }
+        return function.evaluate(variables);
+    }
+
+    public Long equationId() {
+        return equationId;
+    }
+
+    public Tier tier() {
+        return tier;
+    }
+
+    public int invocations() {
+        return invocations;
+    }
+
+    EquationProgram program() {
+        return program;
+    }
+
+    void install(EquationFunction compiled) {
+        current = compiled;
+        tier = Tier.COMPILED;
+    }
+
+    void markQueued() {
+        tier = Tier.QUEUED;
+    }
+
+    void markFailed() {
+        tier = Tier.FAILED;
+    }
+
+    void markReleased() {
+        tier = Tier.RELEASED;
+    }
+}
@@ -0,0 +1,114 @@
+package com.sreeram.algebraic.equation.engine;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Applies each operator across a block with {@link DoubleVector} lanes, falling back to scalar
+ * code for the tail that does not fill a whole vector. {@code POW} always runs through
+ * {@link Math#pow}, since the vector form may differ in the last bits; every other operator is
+ * exactly what the scalar evaluator computes. Needs {@code --add-modules jdk.incubator.vector}.
+ */
+public final class VectorBatchEvaluator extends BlockBatchEvaluator {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public String name() {
+        return "vector";
+    }
+
+    @Override
+    void apply(byte opcode, double[] left, double[] right, int length) {
+        VectorOperators.Binary operator = switch (opcode) {
+            case EquationProgram.ADD -> VectorOperators.ADD;
+            case EquationProgram.SUB -> VectorOperators.SUB;
+            case EquationProgram.MUL -> VectorOperators.MUL;
+            case EquationProgram.DIV -> VectorOperators.DIV;
+            case EquationProgram.POW -> null;
+            default -> throw new IllegalStateException("Unknown opcode: " + opcode);
+        };
+        if (operator == null) {
+            applyTail(opcode, left, right, 0, length);
+            return;
+        }
+
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector a = DoubleVector.fromArray(SPECIES, left, i);
+            DoubleVector b = DoubleVector.fromArray(SPECIES, right, i);
+            a.lanewise(operator, b).intoArray(left, i);
+        }
+
+        if (bound < length) {
+            applyTail(opcode, left, right, bound, length);
+        }
+    }
+
+    private void applyTail(byte opcode, double[] left, double[] right, int from, int length) {
+        for (int i = from; i < length; i++) {
+            left[i] = switch (opcode) {
+                case EquationProgram.ADD -> left[i] + right[i];
+                case EquationProgram.SUB -> left[i] - right[i];
+                case EquationProgram.MUL -> left[i] * right[i];
+                case EquationProgram.DIV -> left[i] / right[i];
+                default -> Math.pow(left[i], right[i]);
+            };
+        }
+    }
+
+    @Override
+    void applyPower(double[] values, int exponent, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector base = DoubleVector.fromArray(SPECIES, values, i);
+            DoubleVector result = DoubleVector.broadcast(SPECIES, 1.0);
+            for (int remaining = exponent; ; remaining >>>= 1) {
+                if ((remaining & 1) != 0) {
+                    result = result.mul(base);
+                }
+                if (remaining == 1) {
+                    break;
+                }
+                base = base.mul(base);
+            }
+            result.intoArray(values, i);
+        }
+        for (int i = bound; i < length; i++) {
+            values[i] = EquationProgram.powi(values[i], exponent);
+        }
+    }
+
+    @Override
+    void applyFma(double[] left, double[] right, double[] addend, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector a = DoubleVector.fromArray(SPECIES, left, i);
+            DoubleVector b = DoubleVector.fromArray(SPECIES, right, i);
+            DoubleVector c = DoubleVector.fromArray(SPECIES, addend, i);
+            a.fma(b, c).intoArray(left, i);
+        }
+        for (int i = bound; i < length; i++) {
+            left[i] = Math.fma(left[i], right[i], addend[i]);
+        }
+    }
+
+    @Override
+    int indexOfZero(double[] values, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            VectorMask<Double> zeros = DoubleVector.fromArray(SPECIES, values, i).compare(VectorOperators.EQ, 0.0);
+            if (zeros.anyTrue()) {
+                return i + zeros.firstTrue();
+            }
+        }
+        for (int i = bound; i < length; i++) {
+            if (values[i] == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
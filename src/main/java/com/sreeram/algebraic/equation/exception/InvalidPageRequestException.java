@@ -0,0 +1,8 @@
+package com.sreeram.algebraic.equation.exception;
+
+public class InvalidPageRequestException extends RuntimeException {
+
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.sreeram.algebraic.equation.exception;
+
+public class InvalidVariableBindingException extends RuntimeException {
+
+    public InvalidVariableBindingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,286 @@
+package com.sreeram.algebraic.equation.expression;
+
+import com.sreeram.algebraic.equation.engine.EquationProgram;
+import com.sreeram.algebraic.equation.exception.InvalidEquationException;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A whole expression tree in parallel primitive arrays: a {@code byte} opcode (the
+ * {@link EquationProgram} ones) and two {@code int} child indices per node. Leaves are kept once
+ * per distinct text in a leaf pool, with each number's value in a {@code double} literal pool.
+ * Nodes are numbered in post-order, children before parents, so the root is the last node. A
+ * leaf's left index is its pool entry and its right index is {@code -1}. Structurally identical
+ * subtrees within the tree are stored once.
+ * <p>
+ * {@link #view()} adapts it back to read-only {@link ExpressionTreeNode}s for code that walks the
+ * pointer form, such as {@link InfixRenderer}.
+ */
+public final class CompactTree {
+
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final byte[] opcodes;
+    private final int[] left;
+    private final int[] right;
+    private final double[] literals;
+    private final String leafText;
+    private final int[] leafEnds;
+
+    private CompactTree(byte[] opcodes, int[] left, int[] right, double[] literals, String leafText, int[] leafEnds) {
+        this.opcodes = opcodes;
+        this.left = left;
+        this.right = right;
+        this.literals = literals;
+        this.leafText = leafText;
+        this.leafEnds = leafEnds;
+    }
+
+    public static CompactTree of(ExpressionTreeNode root) {
+        if (root == null) {
+            throw new InvalidEquationException("Null node in expression tree");
+        }
+        return new Builder().build(root);
+    }
+
+    public int size() {
+        return opcodes.length;
+    }
+
+    public int root() {
+        return opcodes.length - 1;
+    }
+
+    public byte opcode(int node) {
+        return opcodes[node];
+    }
+
+    public int left(int node) {
+        return left[node];
+    }
+
+    public int right(int node) {
+        return right[node];
+    }
+
+    public boolean isLeaf(int node) {
+        return right[node] < 0;
+    }
+
+    /**
+     * The value of a number leaf, or {@code NaN} for a variable.
+     */
+    public double literal(int node) {
+        return literals[left[node]];
+    }
+
+    /**
+     * The text a node was parsed from: the operator for an inner node, the token for a leaf.
+     */
+    public String text(int node) {
+        if (!isLeaf(node)) {
+            return operatorText(opcodes[node]);
+        }
+        int entry = left[node];
+        return leafText.substring(entry == 0 ? 0 : leafEnds[entry - 1], leafEnds[entry]);
+    }
+
+    public ExpressionTreeNode view() {
+        return new View(root());
+    }
+
+    public long estimatedBytes() {
+        return 48L + 5 * ARRAY_HEADER_BYTES + 9L * opcodes.length + 12L * literals.length
+                + 40 + leafText.length();
+    }
+
+    private static byte opcodeOf(String value) {
+        return switch (value) {
+            case "+" -> EquationProgram.ADD;
+            case "-" -> EquationProgram.SUB;
+            case "*" -> EquationProgram.MUL;
+            case "/" -> EquationProgram.DIV;
+            case "^" -> EquationProgram.POW;
+            default -> throw new InvalidEquationException("Unknown operator: " + value);
+        };
+    }
+
+    private static String operatorText(byte opcode) {
+        return switch (opcode) {
+            case EquationProgram.ADD -> "+";
+            case EquationProgram.SUB -> "-";
+            case EquationProgram.MUL -> "*";
+            case EquationProgram.DIV -> "/";
+            case EquationProgram.POW -> "^";
+            default -> throw new IllegalStateException("Not an operator: " + opcode);
+        };
+    }
+
+    /**
+     * Read-only node of a {@link CompactTree}. Children are created as they are asked for.
+     */
+    private final class View extends ExpressionTreeNode {
+
+        private final int node;
+
+        View(int node) {
+            super(null);
+            this.node = node;
+        }
+
+        @Override
+        public String getValue() {
+            return text(node);
+        }
+
+        @Override
+        public void setValue(String value) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setLeft(ExpressionTreeNode left) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setRight(ExpressionTreeNode right) {
+            throw readOnly();
+        }
+
+        @Override
+        public ExpressionTreeNode getLeft() {
+            return isLeaf() ? null : new View(left[node]);
+        }
+
+        @Override
+        public ExpressionTreeNode getRight() {
+            return isLeaf() ? null : new View(right[node]);
+        }
+
+        @Override
+        public boolean isOperator() {
+            return !isLeaf();
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return CompactTree.this.isLeaf(node);
+        }
+
+        private static IllegalStateException readOnly() {
+            return new IllegalStateException("Expression tree view cannot be modified");
+        }
+    }
+
+    private static final class Builder {
+        private final Map<ExpressionTreeNode, Integer> indices = new IdentityHashMap<>();
+        private final Map<Node, Integer> nodes = new HashMap<>();
+        private final Map<String, Integer> leaves = new HashMap<>();
+        private final StringBuilder leafText = new StringBuilder();
+        private byte[] opcodes = new byte[16];
+        private int[] left = new int[16];
+        private int[] right = new int[16];
+        private double[] literals = new double[8];
+        private int[] leafEnds = new int[8];
+        private int size;
+
+        CompactTree build(ExpressionTreeNode root) {
+            ExpressionTreeNode[] pending = new ExpressionTreeNode[32];
+            boolean[] expanded = new boolean[32];
+            int top = 0;
+
+            pending[top++] = root;
+            while (top > 0) {
+                ExpressionTreeNode node = pending[--top];
+                if (node == null) {
+                    throw new InvalidEquationException("Null node in expression tree");
+                }
+                if (indices.containsKey(node)) {
+                    continue;
+                }
+
+                if (node.isLeaf()) {
+                    int entry = leaf(node.getValue());
+                    indices.put(node, add(entry, -1, leafOpcode(entry, node.getValue())));
+                    continue;
+                }
+                if (expanded[top]) {
+                    indices.put(node, add(indices.get(node.getLeft()), indices.get(node.getRight()),
+                            opcodeOf(node.getValue())));
+                    continue;
+                }
+
+                if (top + 3 > pending.length) {
+                    pending = Arrays.copyOf(pending, pending.length * 2);
+                    expanded = Arrays.copyOf(expanded, expanded.length * 2);
+                }
+                expanded[top] = true;
+                pending[top++] = node;
+                expanded[top] = false;
+                pending[top++] = node.getRight();
+                expanded[top] = false;
+                pending[top++] = node.getLeft();
+            }
+
+            int entries = leaves.size();
+            return new CompactTree(Arrays.copyOf(opcodes, size), Arrays.copyOf(left, size),
+                    Arrays.copyOf(right, size), Arrays.copyOf(literals, entries), leafText.toString(),
+                    Arrays.copyOf(leafEnds, entries));
+        }
+
+        private int add(int leftIndex, int rightIndex, byte opcode) {
+            Integer existing = nodes.putIfAbsent(new Node(opcode, leftIndex, rightIndex), size);
+            if (existing != null) {
+                return existing;
+            }
+            if (size == opcodes.length) {
+                opcodes = Arrays.copyOf(opcodes, size * 2);
+                left = Arrays.copyOf(left, size * 2);
+                right = Arrays.copyOf(right, size * 2);
+            }
+            opcodes[size] = opcode;
+            left[size] = leftIndex;
+            right[size] = rightIndex;
+            return size++;
+        }
+
+        private int leaf(String value) {
+            Integer existing = leaves.get(value);
+            if (existing != null) {
+                return existing;
+            }
+
+            int entry = leaves.size();
+            if (entry == literals.length) {
+                literals = Arrays.copyOf(literals, entry * 2);
+                leafEnds = Arrays.copyOf(leafEnds, entry * 2);
+            }
+            literals[entry] = parseLiteral(value);
+            leafText.append(value);
+            leafEnds[entry] = leafText.length();
+            leaves.put(value, entry);
+            return entry;
+        }
+
+        private byte leafOpcode(int entry, String value) {
+            return Double.isNaN(literals[entry]) && !value.equals("NaN")
+                    ? EquationProgram.VAR : EquationProgram.CONST;
+        }
+
+        private static double parseLiteral(String value) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+
+        private record Node(byte opcode, int left, int right) {
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.sreeram.algebraic.equation.expression;
+
+import com.sreeram.algebraic.equation.exception.InvalidEquationException;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+
+import java.util.Arrays;
+
+/**
+ * Operator-precedence parser that builds the expression tree straight from the input characters.
+ * Operands and pending operators live on explicit array stacks, so arbitrarily long operator chains
+ * and deeply nested parentheses parse without recursion. Implicit multiplication is part of the
+ * grammar: a letter, digit or {@code (} written directly after an operand, with no whitespace in
+ * between, multiplies it ({@code 2x}, {@code xy}, {@code 3(x+y)}, {@code (x+1)(y+1)}, {@code x2}).
+ * Errors report the 0-based position they occur at.
+ * <p>
+ * {@link #validate} walks the same grammar without building anything: only open parentheses
+ * are tracked, so it reports exactly the errors {@link #parse} would at a fraction of the cost.
+ */
+public final class ExpressionParser {
+
+    private static final int ADDITIVE = 1;
+    private static final int MULTIPLICATIVE = 2;
+    private static final int POWER = 3;
+
+    private static final char OPEN = '(';
+    private static final char IMPLICIT = '*';
+
+    private final String input;
+    private final boolean building;
+    private int position;
+    private int operandEnd = -1;
+
+    private ExpressionTreeNode[] operands = new ExpressionTreeNode[16];
+    private int operandCount;
+    private char[] operators = new char[16];
+    private int[] openPositions = new int[16];
+    private int operatorCount;
+
+    private ExpressionParser(String input, boolean building) {
+        this.input = input;
+        this.building = building;
+    }
+
+    public static ExpressionTreeNode parse(String equation) {
+        return new ExpressionParser(equation, true).parseEquation();
+    }
+
+    /**
+     * Checks that {@code equation} parses, throwing the {@link InvalidEquationException} that
+     * {@link #parse} would, without building the tree.
+     */
+    public static void validate(String equation) {
+        new ExpressionParser(equation, false).parseEquation();
+    }
+
+    private ExpressionTreeNode parseEquation() {
+        while (true) {
+            parseOperand();
+
+            if (!parseOperatorsAfterOperand()) {
+                break;
+            }
+        }
+
+        int unclosed = innermostOpen();
+        if (unclosed >= 0) {
+            throw new InvalidEquationException("Unclosed '(' at position " + unclosed);
+        }
+        if (building) {
+            reduceWhile(ADDITIVE, false);
+        }
+        return building ? operands[0] : null;
+    }
+
+    /**
+     * Reads opening parentheses and then one number or variable.
+     */
+    private void parseOperand() {
+        while (true) {
+            skipWhitespace();
+            if (position >= input.length()) {
+                throw new InvalidEquationException("Unexpected end of equation at position " + position);
+            }
+
+            char current = input.charAt(position);
+            if (current == '(') {
+                pushOperator(OPEN, position++);
+                continue;
+            }
+
+            if (Character.isDigit(current) || current == '.') {
+                int start = position;
+                while (position < input.length()
+                        && (Character.isDigit(input.charAt(position)) || input.charAt(position) == '.')) {
+                    position++;
+                }
+                String number = input.substring(start, position);
+                try {
+                    Double.parseDouble(number);
+                } catch (NumberFormatException e) {
+                    throw new InvalidEquationException("Invalid number '" + number + "' at position " + start);
+                }
+                operandEnd = position;
+                if (building) {
+                    pushOperand(new ExpressionTreeNode(number));
+                }
+                return;
+            }
+
+            if (Character.isAlphabetic(current)) {
+                operandEnd = ++position;
+                if (building) {
+                    pushOperand(new ExpressionTreeNode(String.valueOf(current)));
+                }
+                return;
+            }
+
+            throw unexpected();
+        }
+    }
+
+    /**
+     * Reads closing parentheses and then the next binary operator, explicit or implicit. Returns
+     * {@code false} once the input ends.
+     */
+    private boolean parseOperatorsAfterOperand() {
+        while (true) {
+            skipWhitespace();
+            if (position >= input.length()) {
+                return false;
+            }
+            boolean adjacent = position == operandEnd;
+            char current = input.charAt(position);
+
+            if (current == ')' && innermostOpen() >= 0) {
+                if (building) {
+                    reduceWhile(ADDITIVE, false);
+                }
+                operatorCount--;
+                operandEnd = ++position;
+                continue;
+            }
+
+            boolean implicit = !isOperator(current);
+            if (implicit && !(adjacent && startsOperand(current))) {
+                int unclosed = innermostOpen();
+                if (unclosed >= 0) {
+                    throw new InvalidEquationException("Unclosed '(' at position " + unclosed);
+                }
+                throw unexpected();
+            }
+
+            int precedence = implicit ? MULTIPLICATIVE : precedence(current);
+            if (building) {
+                reduceWhile(precedence, precedence == POWER);
+            }
+            if (!implicit) {
+                position++;
+            }
+            if (building) {
+                pushOperator(implicit ? IMPLICIT : current, -1);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Pops operators down to the innermost open parenthesis while they bind at least as tightly as
+     * {@code precedence}, or strictly tighter for the right-associative {@code ^}.
+     */
+    private void reduceWhile(int precedence, boolean rightAssociative) {
+        while (operatorCount > 0 && operators[operatorCount - 1] != OPEN) {
+            int top = precedence(operators[operatorCount - 1]);
+            if (top < precedence || rightAssociative && top == precedence) {
+                return;
+            }
+            ExpressionTreeNode node = new ExpressionTreeNode(operatorText(operators[--operatorCount]));
+            node.setRight(operands[--operandCount]);
+            node.setLeft(operands[operandCount - 1]);
+            operands[operandCount - 1] = node;
+        }
+    }
+
+    private int innermostOpen() {
+        for (int i = operatorCount - 1; i >= 0; i--) {
+            if (operators[i] == OPEN) {
+                return openPositions[i];
+            }
+        }
+        return -1;
+    }
+
+    private void pushOperand(ExpressionTreeNode operand) {
+        if (operandCount == operands.length) {
+            operands = Arrays.copyOf(operands, operandCount * 2);
+        }
+        operands[operandCount++] = operand;
+    }
+
+    private void pushOperator(char operator, int openPosition) {
+        if (operatorCount == operators.length) {
+            operators = Arrays.copyOf(operators, operatorCount * 2);
+            openPositions = Arrays.copyOf(openPositions, operatorCount * 2);
+        }
+        operators[operatorCount] = operator;
+        openPositions[operatorCount++] = openPosition;
+    }
+
+    private void skipWhitespace() {
+        while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+    }
+
+    private InvalidEquationException unexpected() {
+        return new InvalidEquationException("Unexpected '" + input.charAt(position) + "' at position " + position);
+    }
+
+    private static boolean startsOperand(char c) {
+        return Character.isAlphabetic(c) || Character.isDigit(c) || c == '(';
+    }
+
+    private static String operatorText(char c) {
+        return switch (c) {
+            case '+' -> "+";
+            case '-' -> "-";
+            case '*' -> "*";
+            case '/' -> "/";
+            default -> "^";
+        };
+    }
+
+    static boolean isOperator(char c) {
+        return c == '+' || c == '-' || c == '*' || c == '/' || c == '^';
+    }
+
+    static int precedence(char c) {
+        return switch (c) {
+            case '^' -> POWER;
+            case '*', '/' -> MULTIPLICATIVE;
+            case '+', '-' -> ADDITIVE;
+            default -> -1;
+        };
+    }
+}
@@ -0,0 +1,185 @@
+package com.sreeram.algebraic.equation.expression;
+
+import com.sreeram.algebraic.equation.exception.InvalidEquationException;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Writes an expression tree as infix text in a single in-order pass, appending each token straight
+ * to the output instead of concatenating subexpression strings. Parentheses are only added where
+ * precedence or associativity needs them, and {@code *} is written implicitly ({@code 2x},
+ * {@code (x+y)z}) when the text on either side allows it.
+ */
+public final class InfixRenderer {
+
+    private static final byte RENDER = 0;
+    private static final byte OPEN = 1;
+    private static final byte CLOSE = 2;
+    private static final byte OPERATOR = 3;
+
+    private final Appendable out;
+    private char last;
+    private ExpressionTreeNode[] nodes = new ExpressionTreeNode[32];
+    private byte[] kinds = new byte[32];
+    private int top;
+
+    private InfixRenderer(Appendable out) {
+        this.out = out;
+    }
+
+    public static String render(ExpressionTreeNode tree) {
+        if (tree == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder();
+        try {
+            renderTo(tree, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    public static void renderTo(ExpressionTreeNode tree, Appendable out) throws IOException {
+        if (tree != null) {
+            new InfixRenderer(out).write(tree);
+        }
+    }
+
+    private void write(ExpressionTreeNode tree) throws IOException {
+        push(RENDER, tree);
+        while (top > 0) {
+            top--;
+            ExpressionTreeNode node = nodes[top];
+            nodes[top] = null;
+
+            switch (kinds[top]) {
+                case OPEN -> append("(");
+                case CLOSE -> append(")");
+                case OPERATOR -> writeOperator(node);
+                default -> expand(node);
+            }
+        }
+    }
+
+    private void expand(ExpressionTreeNode node) throws IOException {
+        if (node == null) {
+            throw new InvalidEquationException("Null node in expression tree");
+        }
+        if (node.isLeaf()) {
+            append(node.getValue());
+            return;
+        }
+
+        boolean leftParens = shouldAddParentheses(node.getLeft(), node, true);
+        boolean rightParens = shouldAddParentheses(node.getRight(), node, false);
+
+        if (rightParens) {
+            push(CLOSE, null);
+        }
+        push(RENDER, node.getRight());
+        if (rightParens) {
+            push(OPEN, null);
+        }
+        push(OPERATOR, node);
+        if (leftParens) {
+            push(CLOSE, null);
+        }
+        push(RENDER, node.getLeft());
+        if (leftParens) {
+            push(OPEN, null);
+        }
+    }
+
+    private void writeOperator(ExpressionTreeNode node) throws IOException {
+        if (node.getValue().equals("*") && canUseImplicitMultiplication(last, firstChar(node.getRight(), node))) {
+            return;
+        }
+        append(node.getValue());
+    }
+
+    /**
+     * The first character {@code child} renders as under {@code parent}. A subexpression starts with
+     * its left operand, so this follows the left spine until it reaches a leaf or an opening parenthesis.
+     * Each node sits on the left spine of at most one right operand, so the walks are linear overall.
+     */
+    private static char firstChar(ExpressionTreeNode child, ExpressionTreeNode parent) {
+        ExpressionTreeNode node = child;
+        ExpressionTreeNode above = parent;
+        boolean isLeft = false;
+        while (true) {
+            if (node == null) {
+                throw new InvalidEquationException("Null node in expression tree");
+            }
+            if (shouldAddParentheses(node, above, isLeft)) {
+                return '(';
+            }
+            if (node.isLeaf()) {
+                String value = node.getValue();
+                return value.isEmpty() ? 0 : value.charAt(0);
+            }
+            above = node;
+            node = node.getLeft();
+            isLeft = true;
+        }
+    }
+
+    private static boolean canUseImplicitMultiplication(char lastOfLeft, char firstOfRight) {
+        if (lastOfLeft == 0 || firstOfRight == 0) {
+            return false;
+        }
+
+        boolean leftEndsWithDigit = Character.isDigit(lastOfLeft);
+        boolean leftEndsWithLetter = Character.isAlphabetic(lastOfLeft);
+        boolean leftEndsWithParen = lastOfLeft == ')';
+
+        boolean rightStartsWithLetter = Character.isAlphabetic(firstOfRight);
+        boolean rightStartsWithParen = firstOfRight == '(';
+
+        return (leftEndsWithDigit || leftEndsWithLetter || leftEndsWithParen)
+                && (rightStartsWithLetter || rightStartsWithParen);
+    }
+
+    private static boolean shouldAddParentheses(ExpressionTreeNode child, ExpressionTreeNode parent, boolean isLeft) {
+        if (child == null || child.isLeaf()) {
+            return false;
+        }
+
+        if (!child.isOperator() || !parent.isOperator()) {
+            return false;
+        }
+
+        int childPrecedence = ExpressionParser.precedence(child.getValue().charAt(0));
+        int parentPrecedence = ExpressionParser.precedence(parent.getValue().charAt(0));
+
+        if (childPrecedence < parentPrecedence) {
+            return true;
+        }
+
+        if (childPrecedence == parentPrecedence && !isLeft) {
+            String operator = parent.getValue();
+            return operator.equals("-") || operator.equals("/") || operator.equals("^");
+        }
+
+        return false;
+    }
+
+    private void append(String text) throws IOException {
+        if (!text.isEmpty()) {
+            out.append(text);
+            last = text.charAt(text.length() - 1);
+        }
+    }
+
+    private void push(byte kind, ExpressionTreeNode node) {
+        if (top == nodes.length) {
+            nodes = Arrays.copyOf(nodes, top * 2);
+            kinds = Arrays.copyOf(kinds, top * 2);
+        }
+        kinds[top] = kind;
+        nodes[top++] = node;
+    }
+}
@@ -0,0 +1,125 @@
+package com.sreeram.algebraic.equation.expression;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache from equation text to its {@link ParsedEquation}. The cache is split into
+ * segments with their own lock and LRU order so concurrent stores rarely contend; each segment
+ * gets an equal share of the entry and memory budgets. Parsing happens outside the lock.
+ */
+public final class ParseCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final boolean enabled;
+    private final long maxEntries;
+    private final long maxBytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ParseCache(long maxEntries, long maxBytes) {
+        this.enabled = maxEntries > 0 && maxBytes > 0;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(Math.max(1, maxEntries / SEGMENTS), Math.max(1, maxBytes / SEGMENTS));
+        }
+    }
+
+    public ParsedEquation get(String key, Function<String, ParsedEquation> loader) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+
+        Segment segment = segmentFor(key);
+        ParsedEquation cached = segment.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        ParsedEquation parsed = loader.apply(key);
+        segment.put(key, parsed);
+        return parsed;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public Stats stats() {
+        long entries = 0;
+        long bytes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                entries += segment.entries.size();
+                bytes += segment.bytes;
+            }
+        }
+        return new Stats(enabled, entries, bytes, maxEntries, maxBytes, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private final class Segment {
+        private final LinkedHashMap<String, ParsedEquation> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final long maxEntries;
+        private final long maxBytes;
+        private long bytes;
+
+        Segment(long maxEntries, long maxBytes) {
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized ParsedEquation get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, ParsedEquation parsed) {
+            long weight = weigh(key, parsed);
+            if (weight > maxBytes) {
+                return;
+            }
+
+            ParsedEquation previous = entries.put(key, parsed);
+            if (previous != null) {
+                bytes -= weigh(key, previous);
+            }
+            bytes += weight;
+
+            Iterator<Map.Entry<String, ParsedEquation>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+                Map.Entry<String, ParsedEquation> entry = eldest.next();
+                bytes -= weigh(entry.getKey(), entry.getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            bytes = 0;
+        }
+
+        private long weigh(String key, ParsedEquation parsed) {
+            return 2L * key.length() + parsed.estimatedBytes();
+        }
+    }
+
+    public record Stats(boolean enabled, long entries, long estimatedBytes, long maxEntries, long maxBytes,
+                        long hits, long misses, long evictions) {
+    }
+}
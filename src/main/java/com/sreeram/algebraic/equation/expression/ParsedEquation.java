@@ -0,0 +1,43 @@
+package com.sreeram.algebraic.equation.expression;
+
+import com.sreeram.algebraic.equation.engine.EquationProgram;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+
+/**
+ * Everything derived from an equation's text alone. Instances are shared between every stored
+ * equation with the same text, so only the read-only {@link CompactTree} form of the tree is kept
+ * and handed out.
+ */
+public final class ParsedEquation {
+
+    private static final int NODE_BYTES = 48;
+    private static final int INSTRUCTION_BYTES = 5;
+
+    private final CompactTree compactTree;
+    private final String infix;
+    private final EquationProgram program;
+
+    public ParsedEquation(ExpressionTreeNode tree, String infix, EquationProgram program) {
+        this.compactTree = CompactTree.of(tree);
+        this.infix = infix;
+        this.program = program;
+    }
+
+    public CompactTree getCompactTree() {
+        return compactTree;
+    }
+
+    public String getInfix() {
+        return infix;
+    }
+
+    public EquationProgram getProgram() {
+        return program;
+    }
+
+    long estimatedBytes() {
+        return 72L + 2L * infix.length() + compactTree.estimatedBytes()
+                + (long) program.size() * (NODE_BYTES + INSTRUCTION_BYTES)
+                + 8L * program.constantCount();
+    }
+}
@@ -0,0 +1,70 @@
+package com.sreeram.algebraic.equation.expression;
+
+import com.sreeram.algebraic.equation.exception.InvalidEquationException;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+
+import java.util.Arrays;
+
+/**
+ * Post-order fold over an expression tree driven by explicit array stacks instead of recursion,
+ * so machine-generated equations with tens of thousands of chained operators cannot overflow the
+ * thread stack. Callbacks run in postfix order: a node's whole left subtree, then its right one.
+ */
+public final class PostOrder {
+
+    public interface Fold<T> {
+
+        T leaf(ExpressionTreeNode leaf);
+
+        T node(ExpressionTreeNode node, T left, T right);
+    }
+
+    private PostOrder() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T fold(ExpressionTreeNode root, Fold<T> fold) {
+        ExpressionTreeNode[] pending = new ExpressionTreeNode[32];
+        boolean[] expanded = new boolean[32];
+        Object[] results = new Object[16];
+        int top = 0;
+        int resultTop = 0;
+
+        pending[top++] = root;
+        while (top > 0) {
+            ExpressionTreeNode node = pending[--top];
+            if (node == null) {
+                throw new InvalidEquationException("Null node in expression tree");
+            }
+
+            if (node.isLeaf() || expanded[top]) {
+                Object result;
+                if (node.isLeaf()) {
+                    result = fold.leaf(node);
+                } else {
+                    T right = (T) results[--resultTop];
+                    T left = (T) results[--resultTop];
+                    result = fold.node(node, left, right);
+                }
+                if (resultTop == results.length) {
+                    results = Arrays.copyOf(results, resultTop * 2);
+                }
+                results[resultTop++] = result;
+                continue;
+            }
+
+            if (top + 3 > pending.length) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+                expanded = Arrays.copyOf(expanded, expanded.length * 2);
+            }
+            expanded[top] = true;
+            pending[top++] = node;
+            expanded[top] = false;
+            pending[top++] = node.getRight();
+            expanded[top] = false;
+            pending[top++] = node.getLeft();
+        }
+
+        return (T) results[0];
+    }
+}
@@ -0,0 +1,23 @@
+package com.sreeram.algebraic.equation.model;
+
+import java.util.Map;
+
+public class BatchEvaluationRequest {
+
+    private Map<String, double[]> variables;
+
+    public BatchEvaluationRequest() {
+    }
+
+    public BatchEvaluationRequest(Map<String, double[]> variables) {
+        this.variables = variables;
+    }
+
+    public Map<String, double[]> getVariables() {
+        return variables;
+    }
+
+    public void setVariables(Map<String, double[]> variables) {
+        this.variables = variables;
+    }
+}
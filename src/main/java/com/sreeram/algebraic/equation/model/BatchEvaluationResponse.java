@@ -0,0 +1,44 @@
+package com.sreeram.algebraic.equation.model;
+
+public class BatchEvaluationResponse {
+
+    private Long equationId;
+    private String equation;
+    private int rowCount;
+    private double[] results;
+
+    public BatchEvaluationResponse() {
+    }
+
+    public Long getEquationId() {
+        return equationId;
+    }
+
+    public void setEquationId(Long equationId) {
+        this.equationId = equationId;
+    }
+
+    public String getEquation() {
+        return equation;
+    }
+
+    public void setEquation(String equation) {
+        this.equation = equation;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public double[] getResults() {
+        return results;
+    }
+
+    public void setResults(double[] results) {
+        this.results = results;
+    }
+}
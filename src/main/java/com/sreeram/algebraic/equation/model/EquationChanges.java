@@ -0,0 +1,57 @@
+package com.sreeram.algebraic.equation.model;
+
+import java.util.List;
+
+/**
+ * Equations added and IDs removed since a registry version. When {@code reset} is {@code true}
+ * the requested version is no longer known and {@code added} holds the whole store instead.
+ */
+public class EquationChanges {
+
+    private long version;
+    private boolean reset;
+    private List<EquationResponse> added;
+    private List<Long> removed;
+
+    public EquationChanges() {
+    }
+
+    public EquationChanges(long version, boolean reset, List<EquationResponse> added, List<Long> removed) {
+        this.version = version;
+        this.reset = reset;
+        this.added = added;
+        this.removed = removed;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+
+    public List<EquationResponse> getAdded() {
+        return added;
+    }
+
+    public void setAdded(List<EquationResponse> added) {
+        this.added = added;
+    }
+
+    public List<Long> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<Long> removed) {
+        this.removed = removed;
+    }
+}
@@ -0,0 +1,37 @@
+package com.sreeram.algebraic.equation.model;
+
+import java.util.List;
+
+/**
+ * One page of stored equations in ID order. {@code nextCursor} is the ID to pass as the next
+ * {@code cursor}, or {@code null} on the last page.
+ */
+public class EquationPage {
+
+    private List<EquationResponse> equations;
+    private Long nextCursor;
+
+    public EquationPage() {
+    }
+
+    public EquationPage(List<EquationResponse> equations, Long nextCursor) {
+        this.equations = equations;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<EquationResponse> getEquations() {
+        return equations;
+    }
+
+    public void setEquations(List<EquationResponse> equations) {
+        this.equations = equations;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -3,6 +3,7 @@ package com.sreeram.algebraic.equation.model;
 public class EquationRequest {
 
     private String equation;
+    private Long ttlSeconds;
 
     public EquationRequest() {
     }
@@ -18,4 +19,12 @@ public class EquationRequest {
     public void setEquation(String equation) {
         this.equation = equation;
     }
+
+    public Long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
 }
@@ -12,6 +12,7 @@ public class EquationResponse {
     private String equation;
     @JsonIgnore
     private ExpressionTreeNode expressionTree;
+    private Long expiresAt;
     private String message;
 
     public EquationResponse() {
@@ -46,6 +47,14 @@ public class EquationResponse {
         this.expressionTree = expressionTree;
     }
 
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
     public String getMessage() {
         return message;
     }
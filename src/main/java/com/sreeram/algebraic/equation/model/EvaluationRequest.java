@@ -5,6 +5,7 @@ import java.util.Map;
 public class EvaluationRequest {
 
     private Map<String, Double> variables;
+    private String overflow;
 
     public EvaluationRequest() {
     }
@@ -20,5 +21,12 @@ public class EvaluationRequest {
     public void setVariables(Map<String, Double> variables) {
         this.variables = variables;
     }
-}
 
+    public String getOverflow() {
+        return overflow;
+    }
+
+    public void setOverflow(String overflow) {
+        this.overflow = overflow;
+    }
+}
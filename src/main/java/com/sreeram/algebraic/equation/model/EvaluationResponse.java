@@ -1,5 +1,8 @@
 package com.sreeram.algebraic.equation.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigInteger;
 import java.util.Map;
 
 public class EvaluationResponse {
@@ -8,6 +11,9 @@ public class EvaluationResponse {
     private String equation;
     private Map<String, Double> variable;
     private Double result;
+    private String arithmetic;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigInteger exactResult;
 
     public EvaluationResponse() {
     }
@@ -43,5 +49,20 @@ public class EvaluationResponse {
     public void setResult(Double result) {
         this.result = result;
     }
-}
 
+    public String getArithmetic() {
+        return arithmetic;
+    }
+
+    public void setArithmetic(String arithmetic) {
+        this.arithmetic = arithmetic;
+    }
+
+    public BigInteger getExactResult() {
+        return exactResult;
+    }
+
+    public void setExactResult(BigInteger exactResult) {
+        this.exactResult = exactResult;
+    }
+}
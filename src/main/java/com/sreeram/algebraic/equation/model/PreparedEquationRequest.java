@@ -0,0 +1,23 @@
+package com.sreeram.algebraic.equation.model;
+
+import java.util.List;
+
+public class PreparedEquationRequest {
+
+    private List<String> variables;
+
+    public PreparedEquationRequest() {
+    }
+
+    public PreparedEquationRequest(List<String> variables) {
+        this.variables = variables;
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    public void setVariables(List<String> variables) {
+        this.variables = variables;
+    }
+}
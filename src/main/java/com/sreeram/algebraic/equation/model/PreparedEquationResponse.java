@@ -0,0 +1,46 @@
+package com.sreeram.algebraic.equation.model;
+
+import java.util.List;
+
+public class PreparedEquationResponse {
+
+    private Long handleId;
+    private Long equationId;
+    private String equation;
+    private List<String> variables;
+
+    public PreparedEquationResponse() {
+    }
+
+    public Long getHandleId() {
+        return handleId;
+    }
+
+    public void setHandleId(Long handleId) {
+        this.handleId = handleId;
+    }
+
+    public Long getEquationId() {
+        return equationId;
+    }
+
+    public void setEquationId(Long equationId) {
+        this.equationId = equationId;
+    }
+
+    public String getEquation() {
+        return equation;
+    }
+
+    public void setEquation(String equation) {
+        this.equation = equation;
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    public void setVariables(List<String> variables) {
+        this.variables = variables;
+    }
+}
@@ -0,0 +1,21 @@
+package com.sreeram.algebraic.equation.model;
+
+public class PreparedEvaluationRequest {
+
+    private double[] values;
+
+    public PreparedEvaluationRequest() {
+    }
+
+    public PreparedEvaluationRequest(double[] values) {
+        this.values = values;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    public void setValues(double[] values) {
+        this.values = values;
+    }
+}
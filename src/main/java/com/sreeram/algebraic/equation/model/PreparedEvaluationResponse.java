@@ -0,0 +1,31 @@
+package com.sreeram.algebraic.equation.model;
+
+public class PreparedEvaluationResponse {
+
+    private Long handleId;
+    private Double result;
+
+    public PreparedEvaluationResponse() {
+    }
+
+    public PreparedEvaluationResponse(Long handleId, Double result) {
+        this.handleId = handleId;
+        this.result = result;
+    }
+
+    public Long getHandleId() {
+        return handleId;
+    }
+
+    public void setHandleId(Long handleId) {
+        this.handleId = handleId;
+    }
+
+    public Double getResult() {
+        return result;
+    }
+
+    public void setResult(Double result) {
+        this.result = result;
+    }
+}
@@ -1,16 +1,34 @@
 package com.sreeram.algebraic.equation.service;
 
+import com.sreeram.algebraic.equation.model.BatchEvaluationRequest;
+import com.sreeram.algebraic.equation.model.BatchEvaluationResponse;
+import com.sreeram.algebraic.equation.model.EquationChanges;
+import com.sreeram.algebraic.equation.model.EquationPage;
 import com.sreeram.algebraic.equation.model.EquationResponse;
 import com.sreeram.algebraic.equation.model.EvaluationRequest;
 import com.sreeram.algebraic.equation.model.EvaluationResponse;
+import com.sreeram.algebraic.equation.model.PreparedEquationResponse;
+import com.sreeram.algebraic.equation.model.PreparedEvaluationResponse;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 @Service
 public interface EquationService {
     EquationResponse storeEquation(String equation);
+    EquationResponse storeEquation(String equation, Long ttlSeconds);
+    void deleteEquation(Long equationId);
     List<EquationResponse> getAllEquations();
+    EquationPage getEquations(Long cursor, Integer limit);
+    void streamEquations(Long cursor, Integer limit, OutputStream out) throws IOException;
+    long getVersion();
+    EquationChanges getChangesSince(long since);
     EvaluationResponse evaluateEquation(Long equationId, EvaluationRequest request);
+    BatchEvaluationResponse evaluateBatch(Long equationId, BatchEvaluationRequest request);
+    PreparedEquationResponse prepareEquation(Long equationId, List<String> variables);
+    PreparedEvaluationResponse evaluatePrepared(Long handleId, double[] values);
+    void releasePrepared(Long handleId);
 }
 
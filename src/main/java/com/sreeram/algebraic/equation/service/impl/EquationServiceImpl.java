@@ -1,397 +1,507 @@
 package com.sreeram.algebraic.equation.service.impl;
 
-import com.sreeram.algebraic.equation.exception.DivisionByZeroException;
+import com.sreeram.algebraic.equation.config.EngineConfiguration;
+import com.sreeram.algebraic.equation.config.EquationProperties;
+import com.sreeram.algebraic.equation.engine.BatchEvaluator;
+import com.sreeram.algebraic.equation.engine.BatchEvaluators;
+import com.sreeram.algebraic.equation.engine.EquationCompiler;
+import com.sreeram.algebraic.equation.engine.EquationFunction;
+import com.sreeram.algebraic.equation.engine.EquationProgram;
+import com.sreeram.algebraic.equation.engine.IntegerProgram;
+import com.sreeram.algebraic.equation.engine.TieredCompilation;
+import com.sreeram.algebraic.equation.expression.ExpressionParser;
+import com.sreeram.algebraic.equation.expression.InfixRenderer;
+import com.sreeram.algebraic.equation.expression.ParseCache;
+import com.sreeram.algebraic.equation.expression.ParsedEquation;
 import com.sreeram.algebraic.equation.exception.EquationNotFoundException;
 import com.sreeram.algebraic.equation.exception.InvalidEquationException;
-import com.sreeram.algebraic.equation.exception.VariableNotFoundException;
+import com.sreeram.algebraic.equation.exception.InvalidPageRequestException;
+import com.sreeram.algebraic.equation.exception.InvalidVariableBindingException;
+import com.sreeram.algebraic.equation.model.BatchEvaluationRequest;
+import com.sreeram.algebraic.equation.model.BatchEvaluationResponse;
+import com.sreeram.algebraic.equation.model.EquationChanges;
+import com.sreeram.algebraic.equation.model.EquationPage;
 import com.sreeram.algebraic.equation.model.EquationResponse;
 import com.sreeram.algebraic.equation.model.EvaluationRequest;
 import com.sreeram.algebraic.equation.model.EvaluationResponse;
 import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
-import com.sreeram.algebraic.equation.model.Stack;
+import com.sreeram.algebraic.equation.model.PreparedEquationResponse;
+import com.sreeram.algebraic.equation.model.PreparedEvaluationResponse;
 import com.sreeram.algebraic.equation.service.EquationService;
+import com.sreeram.algebraic.equation.store.EquationExpiry;
+import com.sreeram.algebraic.equation.store.EquationRegistry;
+import com.sreeram.algebraic.equation.store.EquationStorage;
+import com.sreeram.algebraic.equation.store.EquationTable;
+import com.sreeram.algebraic.equation.store.StoredEquation;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class EquationServiceImpl implements EquationService {
-    private static final Map<Long, EquationResponse> equationTrees = new HashMap<>();
-    private static Long id = 1L;
-
-    public void clearAll() {
-        equationTrees.clear();
-        id = 1L;
+    private static final String ARITHMETIC_LONG = "long";
+    private static final String ARITHMETIC_BIG_INTEGER = "big-integer";
+    private static final String ARITHMETIC_DOUBLE = "double";
+    private static final int COMPILE_LOCKS = 64;
+
+    private final EquationRegistry registry;
+    // Handles are numbered in creation order, so the first key is always the oldest handle
+    private final ConcurrentSkipListMap<Long, PreparedEquation> preparedEquations = new ConcurrentSkipListMap<>();
+    private final AtomicInteger preparedCount = new AtomicInteger();
+    private final AtomicLong nextHandleId = new AtomicLong(1L);
+    private final BatchEvaluator batchEvaluator;
+    private final TieredCompilation tieredCompilation;
+    private final ParseCache parseCache;
+    private final EquationStorage storage;
+    private final EquationExpiry expiry;
+    private final Object[] compileLocks = new Object[COMPILE_LOCKS];
+    private final boolean lazyIngestion;
+    private final boolean relaxedPrecision;
+    private final int maxPageSize;
+    private final int maxPreparedHandles;
+
+    public EquationServiceImpl() {
+        this(new EquationProperties());
     }
 
-    @Override
-    public EquationResponse storeEquation(String equation) {
-        if (equation == null || equation.trim().isEmpty()) {
-            throw new InvalidEquationException("Equation cannot be null or empty");
-        }
-
-        ExpressionTreeNode tree = buildExpressionTree(equation);
-
-        EquationResponse response = new EquationResponse();
-        response.setEquationId(id);
-        response.setEquation(convertTreeToInfix(tree));
-        response.setExpressionTree(tree);
-
-        equationTrees.put(id++, response);
-
-        return response;
+    public EquationServiceImpl(EquationProperties properties) {
+        this(properties, EngineConfiguration.tieredCompilation(properties.getEvaluation()));
     }
 
-    @Override
-    public List<EquationResponse> getAllEquations() {
-        return equationTrees.keySet().stream().map(key -> {
-            EquationResponse response = equationTrees.get(key);
-            EquationResponse returnResponse = new EquationResponse();
-            returnResponse.setEquationId(response.getEquationId());
-            returnResponse.setEquation(convertTreeToInfix(response.getExpressionTree()));
-            return returnResponse;
-        }).toList();
+    private EquationServiceImpl(EquationProperties properties, TieredCompilation tieredCompilation) {
+        this(properties, tieredCompilation, EngineConfiguration.parseCache(properties.getParseCache()),
+                EngineConfiguration.equationStorage(properties.getStorage()),
+                EngineConfiguration.equationTable(properties.getRegistry(), tieredCompilation),
+                EngineConfiguration.equationExpiry(properties.getRegistry()));
     }
 
-    @Override
-    public EvaluationResponse evaluateEquation(Long equationId, EvaluationRequest request) {
-        EquationResponse storedEquation = equationTrees.get(equationId);
-        if (storedEquation == null) {
-            throw new EquationNotFoundException(equationId);
-        }
-
-        ExpressionTreeNode tree = storedEquation.getExpressionTree();
-        ExpressionTreeNode evaluatedTree = substituteVariables(tree, request.getVariables());
-        double result = evaluateTree(evaluatedTree);
-
-        EvaluationResponse response = new EvaluationResponse();
-        response.setResult(result);
-        response.setEquation(convertTreeToInfix(tree));
-        response.setEquationId(storedEquation.getEquationId());
-        response.setVariable(request.getVariables());
-
-        return response;
+    @Autowired
+    public EquationServiceImpl(EquationProperties properties, TieredCompilation tieredCompilation,
+                               ParseCache parseCache, EquationStorage storage, EquationTable table,
+                               EquationExpiry expiry) {
+        this.registry = new EquationRegistry(table, properties.getRegistry().getHistoryLimit());
+        this.batchEvaluator = BatchEvaluators.select(properties.getEvaluation().getBatchEngine());
+        this.tieredCompilation = tieredCompilation;
+        this.parseCache = parseCache;
+        this.storage = storage;
+        this.expiry = expiry;
+        this.lazyIngestion = lazyIngestion(properties.getIngestion().getMode());
+        for (int i = 0; i < COMPILE_LOCKS; i++) {
+            compileLocks[i] = new Object();
+        }
+        this.relaxedPrecision = properties.getEvaluation().isRelaxedPrecision();
+        this.maxPageSize = properties.getListing().getMaxPageSize();
+        this.maxPreparedHandles = Math.max(1, properties.getEvaluation().getMaxPreparedHandles());
+        restore();
+        expiry.start(this::expire);
     }
 
-    private ExpressionTreeNode buildExpressionTree(String equation) {
-        String preprocessedEquation = preprocessEquation(equation);
-        String postfix = convertToPostfix(preprocessedEquation);
-        return buildTreeFromPostfix(postfix);
+    public void clearAll() {
+        registry.clear();
+        preparedEquations.clear();
+        preparedCount.set(0);
+        parseCache.clear();
+        storage.clear();
+        expiry.clear();
+        nextHandleId.set(1L);
     }
 
-    private String preprocessEquation(String equation) {
-        StringBuilder result = new StringBuilder();
-
-        for (int i = 0; i < equation.length(); i++) {
-            char current = equation.charAt(i);
-            result.append(current);
-
-            if (i < equation.length() - 1) {
-                char next = equation.charAt(i + 1);
-
-                if (shouldInsertMultiplication(current, next)) {
-                    result.append('*');
-                }
-            }
-        }
-
-        return result.toString();
+    @Override
+    public EquationResponse storeEquation(String equation) {
+        return storeEquation(equation, null);
     }
 
-    private boolean shouldInsertMultiplication(char current, char next) {
-        if (Character.isWhitespace(current) || Character.isWhitespace(next)) {
-            return false;
+    @Override
+    public EquationResponse storeEquation(String equation, Long ttlSeconds) {
+        if (equation == null || equation.trim().isEmpty()) {
+            throw new InvalidEquationException("Equation cannot be null or empty");
         }
-
-        boolean currentIsDigit = Character.isDigit(current);
-        boolean currentIsLetter = Character.isAlphabetic(current);
-        boolean nextIsLetter = Character.isAlphabetic(next);
-        boolean nextIsDigit = Character.isDigit(next);
-        boolean nextIsOpenParen = next == '(';
-        boolean currentIsCloseParen = current == ')';
-
-        if (currentIsDigit && nextIsLetter) {
-            return true;
+        if (ttlSeconds != null && ttlSeconds <= 0) {
+            throw new InvalidEquationException("TTL must be positive: " + ttlSeconds);
         }
 
-        if (currentIsLetter && nextIsLetter) {
-            return true;
+        String text = equation.strip();
+        long expiresAt = ttlSeconds == null ? 0 : expiresAt(ttlSeconds);
+        if (lazyIngestion) {
+            ExpressionParser.validate(text);
+            StoredEquation stored = registry.register(equationId -> {
+                storage.append(equationId, text, expiresAt);
+                return new StoredEquation(equationId, text, null, null, null, expiresAt);
+            });
+            scheduleExpiry(stored);
+            return stored.toResponse();
         }
 
-        if (currentIsDigit && nextIsOpenParen) {
-            return true;
-        }
+        ParsedEquation parsed = parseCache.get(text, this::parse);
+        StoredEquation stored = registry.register(equationId -> {
+            storage.append(equationId, text, expiresAt);
+            return newStoredEquation(equationId, parsed, expiresAt);
+        });
+        scheduleExpiry(stored);
 
-        if (currentIsLetter && nextIsDigit) {
-            return true;
-        }
+        EquationResponse response = stored.toResponse();
+        // A read-only view, since the parse is shared with every later store of the same text
+        response.setExpressionTree(parsed.getCompactTree().view());
+        return response;
+    }
 
-        if (currentIsLetter && nextIsOpenParen) {
-            return true;
+    @Override
+    public void deleteEquation(Long equationId) {
+        StoredEquation removed = registry.remove(equationId);
+        if (removed == null) {
+            throw new EquationNotFoundException(equationId);
         }
-
-        if (currentIsCloseParen && nextIsDigit) {
-            return true;
+        discard(removed);
+        if (removed.isExpired(System.currentTimeMillis())) {
+            throw new EquationNotFoundException(equationId);
         }
+    }
 
-        if (currentIsCloseParen && nextIsLetter) {
-            return true;
-        }
+    @Override
+    public List<EquationResponse> getAllEquations() {
+        long now = System.currentTimeMillis();
+        return registry.all().stream().filter(stored -> !stored.isExpired(now)).map(StoredEquation::toResponse).toList();
+    }
 
-        if (currentIsCloseParen && nextIsOpenParen) {
-            return true;
+    @Override
+    public EquationPage getEquations(Long cursor, Integer limit) {
+        checkCursor(cursor);
+        int pageSize = limit == null ? maxPageSize : Math.min(checkLimit(limit), maxPageSize);
+
+        List<EquationResponse> equations = new ArrayList<>(Math.min(pageSize, registry.size()));
+        Iterator<StoredEquation> entries = registry.after(cursor).iterator();
+        StoredEquation last = null;
+        long now = System.currentTimeMillis();
+        while (equations.size() < pageSize && entries.hasNext()) {
+            last = entries.next();
+            if (!last.isExpired(now)) {
+                equations.add(last.toResponse());
+            }
         }
 
-        return false;
+        return new EquationPage(equations, entries.hasNext() ? last.getEquationId() : null);
     }
 
-    private String convertToPostfix(String equation) {
-        Stack<Character> stack = new Stack<>();
-        StringBuilder postfix = new StringBuilder();
-
-        for (int i = 0; i < equation.length(); i++) {
-            char currentChar = equation.charAt(i);
+    @Override
+    public void streamEquations(Long cursor, Integer limit, OutputStream out) throws IOException {
+        checkCursor(cursor);
+        long remaining = limit == null ? Long.MAX_VALUE : checkLimit(limit);
 
-            if (Character.isWhitespace(currentChar)) {
+        long now = System.currentTimeMillis();
+        for (StoredEquation stored : registry.after(cursor)) {
+            if (stored.isExpired(now)) {
                 continue;
             }
-
-            if (Character.isAlphabetic(currentChar) || Character.isDigit(currentChar)) {
-                StringBuilder operand = new StringBuilder();
-                while (i < equation.length() &&
-                       (Character.isAlphabetic(equation.charAt(i)) ||
-                        Character.isDigit(equation.charAt(i)) ||
-                        equation.charAt(i) == '.')) {
-                    operand.append(equation.charAt(i));
-                    i++;
-                }
-                i--;
-                postfix.append(operand).append(" ");
-            } else if (currentChar == '(') {
-                stack.push(currentChar);
-            } else if (currentChar == ')') {
-                while (!stack.isEmpty() && stack.peek() != '(') {
-                    postfix.append(stack.pop()).append(" ");
-                }
-                if (!stack.isEmpty()) {
-                    stack.pop();
-                }
-            } else if (isOperator(currentChar)) {
-                while (!stack.isEmpty() &&
-                       stack.peek() != '(' &&
-                       (getPrecedence(stack.peek()) > getPrecedence(currentChar) ||
-                        (getPrecedence(stack.peek()) == getPrecedence(currentChar) &&
-                         !isRightAssociative(currentChar)))) {
-                    postfix.append(stack.pop()).append(" ");
-                }
-                stack.push(currentChar);
+            if (remaining-- == 0) {
+                break;
             }
+            stored.writeJson(out);
+            out.write('\n');
         }
+        out.flush();
+    }
 
-        while (!stack.isEmpty()) {
-            postfix.append(stack.pop()).append(" ");
+    @Override
+    public long getVersion() {
+        return registry.version();
+    }
+
+    @Override
+    public EquationChanges getChangesSince(long since) {
+        if (since < 0) {
+            throw new InvalidPageRequestException("Version cannot be negative: " + since);
         }
 
-        return postfix.toString().trim();
+        EquationRegistry.ChangeSet changes = registry.changesSince(since);
+        return new EquationChanges(changes.version(), !changes.complete(),
+                changes.added().stream().map(StoredEquation::toResponse).toList(), changes.removed());
     }
 
-    private ExpressionTreeNode buildTreeFromPostfix(String postfix) {
-        Stack<ExpressionTreeNode> stack = new Stack<>();
-        String[] tokens = postfix.split("\\s+");
+    @Override
+    public EvaluationResponse evaluateEquation(Long equationId, EvaluationRequest request) {
+        StoredEquation storedEquation = findEquation(equationId);
 
-        for (String token : tokens) {
-            if (token.isEmpty()) continue;
+        EquationProgram program = storedEquation.getProgram();
+        double[] variables = program.bind(request.getVariables());
+        boolean bigIntegerOnOverflow = bigIntegerOnOverflow(request.getOverflow());
 
-            ExpressionTreeNode node = new ExpressionTreeNode(token);
+        EvaluationResponse response = new EvaluationResponse();
+        Number exact = program.integerProgram() == null ? null
+                : program.integerProgram().evaluate(variables, bigIntegerOnOverflow);
+        if (exact instanceof Long value) {
+            response.setResult((double) value);
+            response.setArithmetic(ARITHMETIC_LONG);
+            response.setExactResult(BigInteger.valueOf(value));
+        } else if (exact instanceof BigInteger value) {
+            response.setResult(value.doubleValue());
+            response.setArithmetic(ARITHMETIC_BIG_INTEGER);
+            response.setExactResult(value);
+        } else {
+            response.setResult(storedEquation.getFunction().evaluate(variables));
+            response.setArithmetic(ARITHMETIC_DOUBLE);
+        }
+        response.setEquation(storedEquation.getEquation());
+        response.setEquationId(storedEquation.getEquationId());
+        response.setVariable(request.getVariables());
 
-            if (isOperator(token.charAt(0)) && token.length() == 1) {
-                if (stack.isEmpty()) {
-                    throw new IllegalArgumentException("Invalid expression");
-                }
-                node.setRight(stack.pop());
-                if (stack.isEmpty()) {
-                    throw new IllegalArgumentException("Invalid expression");
-                }
-                node.setLeft(stack.pop());
-            }
+        return response;
+    }
 
-            stack.push(node);
-        }
+    @Override
+    public BatchEvaluationResponse evaluateBatch(Long equationId, BatchEvaluationRequest request) {
+        StoredEquation storedEquation = findEquation(equationId);
 
-        if (stack.isEmpty()) {
-            throw new InvalidEquationException("Invalid expression");
-        }
+        Map<String, double[]> columns = request.getVariables();
+        int rows = rowCount(columns);
+        EquationProgram program = storedEquation.getProgram();
+        double[] results = batchEvaluator.evaluate(program, program.bindColumns(columns, rows), rows);
+
+        BatchEvaluationResponse response = new BatchEvaluationResponse();
+        response.setEquationId(storedEquation.getEquationId());
+        response.setEquation(storedEquation.getEquation());
+        response.setRowCount(rows);
+        response.setResults(results);
 
-        return stack.pop();
+        return response;
     }
 
-    private ExpressionTreeNode substituteVariables(ExpressionTreeNode node, Map<String, Double> variables) {
-        if (node == null) {
-            return null;
+    @Override
+    public PreparedEquationResponse prepareEquation(Long equationId, List<String> variables) {
+        StoredEquation storedEquation = findEquation(equationId);
+        if (variables == null) {
+            throw new InvalidVariableBindingException("Variable order cannot be null");
         }
 
-        ExpressionTreeNode newNode = new ExpressionTreeNode(node.getValue());
+        EquationProgram program = storedEquation.getProgram().withVariableOrder(variables);
+        Long handle = nextHandleId.getAndIncrement();
+        preparedEquations.put(handle, new PreparedEquation(equationId, program.variableCount(),
+                tieredCompilation.functionFor(equationId, program), program.integerProgram()));
+        evictPrepared(preparedCount.incrementAndGet());
 
-        if (node.isLeaf()) {
-            if (variables.containsKey(node.getValue())) {
-                newNode.setValue(variables.get(node.getValue()).toString());
-            }
-            return newNode;
-        }
-
-        newNode.setLeft(substituteVariables(node.getLeft(), variables));
-        newNode.setRight(substituteVariables(node.getRight(), variables));
+        PreparedEquationResponse response = new PreparedEquationResponse();
+        response.setHandleId(handle);
+        response.setEquationId(equationId);
+        response.setEquation(storedEquation.getEquation());
+        response.setVariables(List.copyOf(variables));
 
-        return newNode;
+        return response;
     }
 
-    private double evaluateTree(ExpressionTreeNode node) {
-        if (node == null) {
-            throw new InvalidEquationException("Null node in expression tree");
+    @Override
+    public PreparedEvaluationResponse evaluatePrepared(Long handleId, double[] values) {
+        PreparedEquation prepared = preparedEquations.get(handleId);
+        if (prepared == null) {
+            throw new EquationNotFoundException("Prepared equation not found with handle: " + handleId);
         }
-
-        if (node.isLeaf()) {
-            try {
-                return Double.parseDouble(node.getValue());
-            } catch (NumberFormatException e) {
-                throw new VariableNotFoundException(node.getValue());
-            }
+        if (values == null || values.length != prepared.arity()) {
+            throw new InvalidVariableBindingException("Expected " + prepared.arity() + " values but got "
+                    + (values == null ? 0 : values.length));
         }
 
-        double leftValue = evaluateTree(node.getLeft());
-        double rightValue = evaluateTree(node.getRight());
-
-        return switch (node.getValue()) {
-            case "+" -> leftValue + rightValue;
-            case "-" -> leftValue - rightValue;
-            case "*" -> leftValue * rightValue;
-            case "/" -> {
-                if (rightValue == 0) {
-                    throw new DivisionByZeroException();
-                }
-                yield leftValue / rightValue;
-            }
-            case "^" -> Math.pow(leftValue, rightValue);
-            default -> throw new IllegalArgumentException("Unknown operator: " + node.getValue());
-        };
-    }
-
-    private boolean isOperator(char c) {
-        return c == '+' || c == '-' || c == '*' || c == '/' || c == '^';
+        // Same result as /evaluate without a BigInteger fallback: exact while it fits in a long
+        Number exact = prepared.integerProgram() == null ? null : prepared.integerProgram().evaluate(values, false);
+        return new PreparedEvaluationResponse(handleId,
+                exact != null ? exact.doubleValue() : prepared.function().evaluate(values));
     }
 
-    private int getPrecedence(char c) {
-        return switch (c) {
-            case '^' -> 3;
-            case '*', '/' -> 2;
-            case '+', '-' -> 1;
-            default -> -1;
-        };
+    @Override
+    public void releasePrepared(Long handleId) {
+        PreparedEquation prepared = preparedEquations.remove(handleId);
+        if (prepared == null) {
+            throw new EquationNotFoundException("Prepared equation not found with handle: " + handleId);
+        }
+        preparedCount.decrementAndGet();
+        tieredCompilation.release(prepared.function());
     }
 
-    private boolean isRightAssociative(char c) {
-        return c == '^';
+    /**
+     * Drops the oldest handles while there are more than the configured maximum.
+     */
+    private void evictPrepared(int count) {
+        while (count > maxPreparedHandles) {
+            Map.Entry<Long, PreparedEquation> oldest = preparedEquations.pollFirstEntry();
+            if (oldest == null) {
+                return;
+            }
+            count = preparedCount.decrementAndGet();
+            tieredCompilation.release(oldest.getValue().function());
+        }
     }
 
-    private String convertTreeToInfix(ExpressionTreeNode node) {
-        if (node == null) {
-            return "";
+    private static boolean bigIntegerOnOverflow(String overflow) {
+        if (overflow == null || overflow.equals(ARITHMETIC_DOUBLE)) {
+            return false;
         }
-
-        if (node.isLeaf()) {
-            return node.getValue();
+        if (overflow.equals(ARITHMETIC_BIG_INTEGER)) {
+            return true;
         }
+        throw new InvalidVariableBindingException("Unknown overflow mode: " + overflow
+                + " (expected " + ARITHMETIC_DOUBLE + " or " + ARITHMETIC_BIG_INTEGER + ")");
+    }
 
-        String left = convertTreeToInfix(node.getLeft());
-        String right = convertTreeToInfix(node.getRight());
-        String operator = node.getValue();
-
-        boolean needsLeftParens = shouldAddParentheses(node.getLeft(), node, true);
-        boolean needsRightParens = shouldAddParentheses(node.getRight(), node, false);
-
-        if (needsLeftParens) {
-            left = "(" + left + ")";
-        }
-        if (needsRightParens) {
-            right = "(" + right + ")";
+    private static boolean lazyIngestion(String mode) {
+        if (mode == null || mode.equals("eager")) {
+            return false;
         }
-
-        if (operator.equals("*") && canUseImplicitMultiplication(left, right)) {
-            return left + right;
+        if (mode.equals("lazy")) {
+            return true;
         }
-
-        return left + operator + right;
+        throw new IllegalArgumentException("Unknown ingestion mode: " + mode + " (expected eager or lazy)");
     }
 
-    private boolean canUseImplicitMultiplication(String left, String right) {
-        if (left.isEmpty() || right.isEmpty()) {
-            return false;
+    private static long expiresAt(long ttlSeconds) {
+        try {
+            return Math.addExact(System.currentTimeMillis(), Math.multiplyExact(ttlSeconds, 1000L));
+        } catch (ArithmeticException e) {
+            throw new InvalidEquationException("TTL is too long: " + ttlSeconds);
         }
+    }
 
-        char lastCharOfLeft = left.charAt(left.length() - 1);
-        char firstCharOfRight = right.charAt(0);
-
-        boolean leftEndsWithDigit = Character.isDigit(lastCharOfLeft);
-        boolean leftEndsWithLetter = Character.isAlphabetic(lastCharOfLeft);
-        boolean leftEndsWithParen = lastCharOfLeft == ')';
-
-        boolean rightStartsWithLetter = Character.isAlphabetic(firstCharOfRight);
-        boolean rightStartsWithParen = firstCharOfRight == '(';
-
-        if (leftEndsWithDigit && rightStartsWithLetter) {
-            return true;
+    private static void checkCursor(Long cursor) {
+        if (cursor != null && cursor < 0) {
+            throw new InvalidPageRequestException("Cursor cannot be negative: " + cursor);
         }
+    }
 
-        if (leftEndsWithLetter && rightStartsWithLetter) {
-            return true;
+    private static int checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new InvalidPageRequestException("Limit must be positive: " + limit);
         }
+        return limit;
+    }
 
-        if (leftEndsWithDigit && rightStartsWithParen) {
-            return true;
+    /**
+     * Re-registers every equation the storage recovered, under its original ID.
+     */
+    private void restore() {
+        EquationStorage.Recovery recovery = storage.recover();
+        for (Map.Entry<Long, String> entry : recovery.equations().entrySet()) {
+            long expiresAt = recovery.expiries().getOrDefault(entry.getKey(), 0L);
+            StoredEquation stored;
+            if (lazyIngestion) {
+                stored = new StoredEquation(entry.getKey(), entry.getValue(), null, null, null, expiresAt);
+            } else {
+                ParsedEquation parsed;
+                try {
+                    parsed = parseCache.get(entry.getValue(), this::parse);
+                } catch (InvalidEquationException e) {
+                    throw new IllegalStateException("Stored equation " + entry.getKey() + " no longer parses", e);
+                }
+                stored = newStoredEquation(entry.getKey(), parsed, expiresAt);
+            }
+            registry.restore(stored);
+            scheduleExpiry(stored);
         }
+        registry.resumeAt(recovery.lastLsn(), recovery.maxEquationId());
+    }
 
-        if (leftEndsWithLetter && rightStartsWithParen) {
-            return true;
+    /**
+     * Removes an equation whose time to live has run out.
+     */
+    private void expire(long equationId) {
+        StoredEquation removed = registry.remove(equationId);
+        if (removed != null) {
+            discard(removed);
         }
+    }
 
-        if (leftEndsWithParen && rightStartsWithLetter) {
-            return true;
+    /**
+     * Records the removal of an entry already taken out of the registry and drops everything
+     * compiled for it, prepared handles included.
+     */
+    private void discard(StoredEquation removed) {
+        long equationId = removed.getEquationId();
+        storage.remove(equationId);
+        if (removed.getExpiresAt() > 0) {
+            expiry.cancel(equationId, removed.getExpiresAt());
+        }
+        tieredCompilation.release(removed.getFunction());
+        for (Map.Entry<Long, PreparedEquation> handle : preparedEquations.entrySet()) {
+            if (handle.getValue().equationId() == equationId
+                    && preparedEquations.remove(handle.getKey(), handle.getValue())) {
+                preparedCount.decrementAndGet();
+                tieredCompilation.release(handle.getValue().function());
+            }
         }
+    }
 
-        if (leftEndsWithParen && rightStartsWithParen) {
-            return true;
+    private void scheduleExpiry(StoredEquation stored) {
+        if (stored.getExpiresAt() > 0) {
+            expiry.schedule(stored.getEquationId(), stored.getExpiresAt());
         }
+    }
 
-        return false;
+    private StoredEquation newStoredEquation(long equationId, ParsedEquation parsed, long expiresAt) {
+        EquationProgram program = parsed.getProgram();
+        return new StoredEquation(equationId, parsed.getInfix(), parsed.getCompactTree(),
+                program, tieredCompilation.functionFor(equationId, program), expiresAt);
     }
 
-    private boolean shouldAddParentheses(ExpressionTreeNode child, ExpressionTreeNode parent, boolean isLeft) {
-        if (child == null || child.isLeaf()) {
-            return false;
-        }
+    private ParsedEquation parse(String equation) {
+        ExpressionTreeNode tree = ExpressionParser.parse(equation);
+        return new ParsedEquation(tree, InfixRenderer.render(tree), EquationCompiler.compileOptimized(tree, relaxedPrecision));
+    }
 
-        if (!child.isOperator() || !parent.isOperator()) {
-            return false;
+    private StoredEquation findEquation(Long equationId) {
+        StoredEquation storedEquation = registry.get(equationId);
+        if (storedEquation == null) {
+            throw new EquationNotFoundException(equationId);
         }
+        return storedEquation.isCompiled() ? storedEquation : compile(equationId);
+    }
 
-        int childPrecedence = getPrecedence(child.getValue().charAt(0));
-        int parentPrecedence = getPrecedence(parent.getValue().charAt(0));
+    /**
+     * Parses and compiles a lazily ingested equation on its first use, after which it is kept in
+     * canonical form like an eagerly ingested one. Racing first calls for the same ID serialize on
+     * a lock stripe, so the work is done once and every caller gets the same entry.
+     */
+    private StoredEquation compile(Long equationId) {
+        synchronized (compileLocks[(int) (equationId & (COMPILE_LOCKS - 1))]) {
+            StoredEquation pending = registry.get(equationId);
+            if (pending == null) {
+                throw new EquationNotFoundException(equationId);
+            }
+            if (pending.isCompiled()) {
+                return pending;
+            }
 
-        if (childPrecedence < parentPrecedence) {
-            return true;
+            ParsedEquation parsed = parseCache.get(pending.getEquation(), this::parse);
+            StoredEquation compiled = newStoredEquation(equationId, parsed, pending.getExpiresAt());
+            if (!registry.replace(compiled)) {
+                tieredCompilation.release(compiled.getFunction());
+                throw new EquationNotFoundException(equationId);
+            }
+            StoredEquation current = registry.get(equationId);
+            if (current != compiled) {
+                // A table that decodes its own copy hands out its own function
+                tieredCompilation.release(compiled.getFunction());
+            }
+            return current == null ? compiled : current;
         }
+    }
 
-        if (childPrecedence == parentPrecedence) {
-            if (!isLeft && (parent.getValue().equals("-") || parent.getValue().equals("/"))) {
-                return true;
-            }
-            if (!isLeft && parent.getValue().equals("^")) {
-                return true;
+    private int rowCount(Map<String, double[]> columns) {
+        if (columns != null) {
+            for (double[] column : columns.values()) {
+                if (column != null) {
+                    return column.length;
+                }
             }
         }
+        return 0;
+    }
 
-        return false;
+    private record PreparedEquation(long equationId, int arity, EquationFunction function,
+                                    IntegerProgram integerProgram) {
     }
 }
@@ -0,0 +1,104 @@
+package com.sreeram.algebraic.equation.store;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Deadlines of equations stored with a time to live, in expiry order. A daemon thread, started
+ * with the first deadline, wakes every {@code sweepMillis} and hands each equation whose deadline
+ * has passed to the callback given to {@link #start}. Lookups already treat an expired entry as
+ * gone, so the sweep only has to reclaim it.
+ */
+public final class EquationExpiry implements AutoCloseable {
+
+    private final long sweepMillis;
+    private final ConcurrentSkipListSet<Deadline> deadlines = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(Deadline::expiresAt).thenComparingLong(Deadline::equationId));
+    private volatile LongConsumer onExpired;
+    private ScheduledExecutorService sweeper;
+    private boolean closed;
+
+    public EquationExpiry(long sweepMillis) {
+        if (sweepMillis < 1) {
+            throw new IllegalArgumentException("Expiry sweep interval must be at least 1 ms");
+        }
+        this.sweepMillis = sweepMillis;
+    }
+
+    /**
+     * Sets what is done with an equation once its deadline has passed. Nothing is swept before.
+     */
+    public void start(LongConsumer onExpired) {
+        this.onExpired = onExpired;
+    }
+
+    public void schedule(long equationId, long expiresAt) {
+        deadlines.add(new Deadline(expiresAt, equationId));
+        startSweeper();
+    }
+
+    public void cancel(long equationId, long expiresAt) {
+        deadlines.remove(new Deadline(expiresAt, equationId));
+    }
+
+    public int pending() {
+        return deadlines.size();
+    }
+
+    public void clear() {
+        deadlines.clear();
+    }
+
+    /**
+     * Hands every equation whose deadline is at or before {@code now} to the callback.
+     */
+    public void sweep(long now) {
+        LongConsumer callback = onExpired;
+        if (callback == null) {
+            return;
+        }
+        for (Deadline deadline : deadlines) {
+            if (deadline.expiresAt() > now) {
+                return;
+            }
+            if (!deadlines.remove(deadline)) {
+                continue;
+            }
+            try {
+                callback.accept(deadline.equationId());
+            } catch (RuntimeException e) {
+                // Put it back for the next sweep rather than lose the deadline
+                deadlines.add(deadline);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    private synchronized void startSweeper() {
+        if (sweeper != null || closed) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "equation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(() -> sweep(System.currentTimeMillis()), sweepMillis, sweepMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private record Deadline(long expiresAt, long equationId) {
+    }
+}
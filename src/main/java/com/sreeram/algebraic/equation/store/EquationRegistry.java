@@ -0,0 +1,306 @@
+package com.sreeram.algebraic.equation.store;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Concurrent home for stored equations. IDs come from an atomic sequence, entries are immutable
+ * once published, and lookups never take a lock. Entries are kept in ID order in an
+ * {@link EquationTable}, on the heap unless another table is given.
+ * <p>
+ * Every add or remove takes the next version from a second sequence and is recorded in a change
+ * log, so readers can ask for what changed since a version they have seen. Writers never share a
+ * lock: each settles its own ID and version, and readers only see up to the highest ID and version
+ * below which nothing is still in flight. A listing therefore never skips an ID that a slower
+ * writer is about to publish. The log keeps at most {@code historyLimit} changes; older versions
+ * get the full listing instead.
+ */
+public final class EquationRegistry {
+
+    private final EquationTable equations;
+    private final long historyLimit;
+    private final ConcurrentNavigableMap<Long, Change> changes = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong(1L);
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong historyStart = new AtomicLong();
+    private final Watermark settledIds = new Watermark();
+    private final Watermark settledVersions = new Watermark();
+
+    public EquationRegistry() {
+        this(new HeapEquationTable(), Long.MAX_VALUE);
+    }
+
+    public EquationRegistry(EquationTable equations, long historyLimit) {
+        if (historyLimit < 1) {
+            throw new IllegalArgumentException("History limit must be at least 1");
+        }
+        this.equations = equations;
+        this.historyLimit = historyLimit;
+    }
+
+    public StoredEquation register(LongFunction<StoredEquation> factory) {
+        long equationId = sequence.getAndIncrement();
+        long version = 0;
+        boolean published = false;
+        try {
+            StoredEquation stored = factory.apply(equationId);
+            // Taken before the entry is visible, so a remove of it always gets a later version
+            version = versions.incrementAndGet();
+            changes.put(version, new Change(equationId, false));
+            equations.put(stored);
+            published = true;
+            return stored;
+        } finally {
+            // Settled even on failure, so an unused ID or version never holds back the ones after it
+            if (version != 0 && !published) {
+                changes.remove(version);
+            }
+            settledIds.settle(equationId);
+            if (version != 0) {
+                settle(version);
+            }
+        }
+    }
+
+    /**
+     * Puts back an entry recovered from storage under its original ID, without recording a change.
+     * Call {@link #resumeAt} once every entry is back.
+     */
+    public void restore(StoredEquation stored) {
+        equations.put(stored);
+        sequence.accumulateAndGet(stored.getEquationId() + 1, Math::max);
+        settledIds.reset(sequence.get() - 1);
+    }
+
+    /**
+     * Starts the version and change history at {@code version} after a restore, so versions seen
+     * before a restart are never mistaken for current ones, and never reuses an ID up to
+     * {@code maxEquationId}.
+     */
+    public void resumeAt(long version, long maxEquationId) {
+        sequence.accumulateAndGet(maxEquationId + 1, Math::max);
+        settledIds.reset(sequence.get() - 1);
+        long resumed = versions.accumulateAndGet(version, Math::max);
+        settledVersions.reset(resumed);
+        historyStart.set(resumed);
+    }
+
+    /**
+     * Swaps in another form of an entry that is still present, such as the compiled form of a
+     * lazily ingested one, without recording a change. Returns {@code false} if it was removed.
+     */
+    public boolean replace(StoredEquation stored) {
+        return equations.replace(stored);
+    }
+
+    public StoredEquation remove(Long equationId) {
+        if (equationId == null) {
+            return null;
+        }
+        StoredEquation removed = equations.remove(equationId);
+        if (removed != null) {
+            long version = versions.incrementAndGet();
+            changes.put(version, new Change(equationId, true));
+            settle(version);
+        }
+        return removed;
+    }
+
+    /**
+     * The entry with this ID, or {@code null} if there is none or it has expired and is only
+     * waiting to be removed.
+     */
+    public StoredEquation get(Long equationId) {
+        StoredEquation stored = equationId == null ? null : equations.get(equationId);
+        if (stored != null && stored.getExpiresAt() > 0 && stored.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return stored;
+    }
+
+    public Collection<StoredEquation> all() {
+        return after(null);
+    }
+
+    /**
+     * Entries with an ID greater than {@code cursor} (all entries if it is {@code null}), in ID
+     * order. The view is live and weakly consistent, so iterating it copies nothing, and it stops
+     * before the first ID that is still being registered.
+     */
+    public Collection<StoredEquation> after(Long cursor) {
+        return new SettledView(equations.after(cursor), settledIds.through());
+    }
+
+    /**
+     * Version of the latest published change. It only ever grows, including across {@link #clear()}.
+     */
+    public long version() {
+        return settledVersions.through();
+    }
+
+    /**
+     * Entries added and IDs removed after {@code since}, up to the returned version. If the
+     * change log no longer reaches back to {@code since} the result is not {@code complete} and
+     * lists every current entry as added instead.
+     */
+    public ChangeSet changesSince(long since) {
+        long current = version();
+        if (since < historyStart.get() || since > current) {
+            return new ChangeSet(current, false, List.copyOf(after(null)), List.of());
+        }
+
+        Map<Long, Boolean> removedById = new LinkedHashMap<>();
+        for (Change change : changes.subMap(since, false, current, true).values()) {
+            removedById.put(change.equationId(), change.removed());
+        }
+
+        List<StoredEquation> added = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        for (Map.Entry<Long, Boolean> entry : removedById.entrySet()) {
+            if (entry.getValue()) {
+                removed.add(entry.getKey());
+            } else {
+                StoredEquation stored = equations.get(entry.getKey());
+                if (stored != null) {
+                    added.add(stored);
+                }
+            }
+        }
+        if (since < historyStart.get()) {
+            // Trimmed while being read
+            return new ChangeSet(current, false, List.copyOf(after(null)), List.of());
+        }
+        return new ChangeSet(current, true, added, removed);
+    }
+
+    public int size() {
+        return equations.size();
+    }
+
+    /**
+     * Drops every entry and starts IDs over at 1. Not meant to race with writers.
+     */
+    public void clear() {
+        equations.clear();
+        changes.clear();
+        sequence.set(1L);
+        settledIds.reset(0);
+        long cleared = versions.incrementAndGet();
+        historyStart.set(cleared);
+        settle(cleared);
+    }
+
+    private void settle(long version) {
+        settledVersions.settle(version);
+        long through = settledVersions.through();
+        long start;
+        while (through - (start = historyStart.get()) > historyLimit) {
+            if (historyStart.compareAndSet(start, start + 1)) {
+                changes.remove(start + 1);
+            }
+        }
+    }
+
+    /**
+     * Highest number below which every number handed out has been settled. Each writer settles
+     * its own; whoever settles the next one in line advances past every number already waiting.
+     */
+    private static final class Watermark {
+
+        private final ConcurrentSkipListSet<Long> waiting = new ConcurrentSkipListSet<>();
+        private final AtomicLong through = new AtomicLong();
+
+        long through() {
+            return through.get();
+        }
+
+        void settle(long value) {
+            waiting.add(value);
+            while (true) {
+                long current = through.get();
+                // Only the thread that takes current + 1 out of the set may advance past it
+                if (waiting.remove(current + 1)) {
+                    through.set(current + 1);
+                } else if (through.get() == current) {
+                    return;
+                }
+            }
+        }
+
+        void reset(long value) {
+            waiting.clear();
+            through.set(value);
+        }
+    }
+
+    /**
+     * Live view of a table listing that ends at the last settled ID.
+     */
+    private static final class SettledView extends AbstractCollection<StoredEquation> {
+
+        private final Collection<StoredEquation> entries;
+        private final long through;
+
+        SettledView(Collection<StoredEquation> entries, long through) {
+            this.entries = entries;
+            this.through = through;
+        }
+
+        @Override
+        public Iterator<StoredEquation> iterator() {
+            Iterator<StoredEquation> source = entries.iterator();
+            return new Iterator<>() {
+                private StoredEquation next = advance();
+
+                private StoredEquation advance() {
+                    if (!source.hasNext()) {
+                        return null;
+                    }
+                    StoredEquation candidate = source.next();
+                    return candidate.getEquationId() > through ? null : candidate;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public StoredEquation next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    StoredEquation current = next;
+                    next = advance();
+                    return current;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (Iterator<StoredEquation> it = iterator(); it.hasNext(); it.next()) {
+                size++;
+            }
+            return size;
+        }
+    }
+
+    private record Change(long equationId, boolean removed) {
+    }
+
+    public record ChangeSet(long version, boolean complete, List<StoredEquation> added, List<Long> removed) {
+    }
+}
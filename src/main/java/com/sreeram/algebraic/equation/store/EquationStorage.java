@@ -0,0 +1,282 @@
+package com.sreeram.algebraic.equation.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Durable home for stored equations in a local directory. Every store and delete is appended to a
+ * {@link WriteAheadLog} and fsynced (with group commit) before it is acknowledged; closed log
+ * segments are folded into a {@link SnapshotFile} in the background. Startup reads the newest
+ * snapshot and replays the log after it, leaving out equations whose expiry time has passed.
+ * Without a directory the storage is disabled and every operation is a no-op.
+ */
+public final class EquationStorage implements AutoCloseable {
+
+    private final Path directory;
+    private final boolean fsync;
+    private final long snapshotInterval;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "equation-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object compactionLock = new Object();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder snapshots = new LongAdder();
+    private final LongAdder failedSnapshots = new LongAdder();
+    private volatile WriteAheadLog log;
+
+    public EquationStorage(Path directory, boolean fsync, long snapshotInterval) {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Loads every equation that was stored before and opens the log for new appends. Must be
+     * called once, before the first {@link #append}.
+     */
+    public Recovery recover() {
+        if (directory == null) {
+            return new Recovery(0, 0, new TreeMap<>(), new TreeMap<>());
+        }
+        synchronized (compactionLock) {
+            if (log != null) {
+                throw new IllegalStateException("Equation storage has already been recovered");
+            }
+            try {
+                Files.createDirectories(directory);
+                for (Path file : list()) {
+                    if (file.getFileName().toString().endsWith(SnapshotFile.TEMPORARY_SUFFIX)) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+                SnapshotFile.State state = load(Long.MAX_VALUE, true);
+                log = new WriteAheadLog(directory, state.lastLsn(), fsync, snapshotInterval, this::scheduleSnapshot);
+                return new Recovery(state.lastLsn(), state.maxEquationId(), state.equations(), state.expiries());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot recover equations from " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Records a stored equation and returns once it is durable.
+     */
+    public void append(long equationId, String equation) {
+        append(equationId, equation, 0);
+    }
+
+    /**
+     * Records a stored equation that expires at {@code expiresAt} (epoch millis, {@code 0} for
+     * never) and returns once it is durable.
+     */
+    public void append(long equationId, String equation, long expiresAt) {
+        if (directory == null) {
+            return;
+        }
+        byte type = expiresAt > 0 ? WriteAheadLog.ADD_EXPIRING : WriteAheadLog.ADD;
+        openLog().append(type, equationId, expiresAt, equation);
+    }
+
+    /**
+     * Records that an equation was deleted or expired and returns once it is durable.
+     */
+    public void remove(long equationId) {
+        if (directory == null) {
+            return;
+        }
+        openLog().append(WriteAheadLog.REMOVE, equationId, 0, "");
+    }
+
+    /**
+     * Deletes every snapshot and log segment. Log sequence numbers keep counting up.
+     */
+    public void clear() {
+        if (directory == null || log == null) {
+            return;
+        }
+        synchronized (compactionLock) {
+            generation.incrementAndGet();
+            try {
+                for (Path file : list()) {
+                    if (SnapshotFile.lsn(file) >= 0) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+                log.reset();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot clear equations in " + directory, e);
+            }
+        }
+    }
+
+    public Stats stats() {
+        WriteAheadLog current = log;
+        return new Stats(directory != null, directory == null ? null : directory.toString(),
+                current == null ? 0 : current.lastLsn(), current == null ? 0 : current.durableLsn(),
+                current == null ? 0 : current.groupCommits(), snapshots.sum(), failedSnapshots.sum());
+    }
+
+    @Override
+    public void close() {
+        compactor.shutdownNow();
+        WriteAheadLog current = log;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private WriteAheadLog openLog() {
+        WriteAheadLog current = log;
+        if (current == null) {
+            throw new IllegalStateException("Equation storage must be recovered before it is written");
+        }
+        return current;
+    }
+
+    private void scheduleSnapshot(long throughLsn) {
+        long scheduledGeneration = generation.get();
+        try {
+            compactor.execute(() -> snapshot(throughLsn, scheduledGeneration));
+        } catch (RejectedExecutionException e) {
+            // Closed; the log segments stay and are replayed on the next start
+        }
+    }
+
+    /**
+     * Folds the newest snapshot and every log segment up to {@code throughLsn} into a new
+     * snapshot, then deletes what it replaces.
+     */
+    private void snapshot(long throughLsn, long scheduledGeneration) {
+        synchronized (compactionLock) {
+            if (generation.get() != scheduledGeneration) {
+                return;
+            }
+            try {
+                SnapshotFile.State state = load(throughLsn, false);
+                SnapshotFile.write(directory, state, fsync);
+                for (Path file : list()) {
+                    long snapshotLsn = SnapshotFile.lsn(file);
+                    long segmentLsn = WriteAheadLog.segmentFirstLsn(file);
+                    if ((snapshotLsn >= 0 && snapshotLsn < state.lastLsn())
+                            || (segmentLsn >= 0 && segmentLsn <= throughLsn)) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+                snapshots.increment();
+            } catch (IOException | RuntimeException e) {
+                // Nothing was deleted, so recovery still sees every record; the next roll retries
+                failedSnapshots.increment();
+            }
+        }
+    }
+
+    private SnapshotFile.State load(long throughLsn, boolean recovering) throws IOException {
+        SnapshotFile.State snapshot = latestSnapshot();
+        NavigableMap<Long, String> equations = snapshot.equations();
+        NavigableMap<Long, Long> expiries = snapshot.expiries();
+        long[] maxEquationId = {snapshot.maxEquationId()};
+
+        List<Path> segments = new ArrayList<>();
+        for (Path file : list()) {
+            long firstLsn = WriteAheadLog.segmentFirstLsn(file);
+            if (firstLsn >= 0 && firstLsn <= throughLsn) {
+                segments.add(file);
+            }
+        }
+        segments.sort(Comparator.comparingLong(WriteAheadLog::segmentFirstLsn));
+
+        long lastLsn = snapshot.lastLsn();
+        for (int i = 0; i < segments.size(); i++) {
+            boolean newest = recovering && i == segments.size() - 1;
+            lastLsn = WriteAheadLog.replay(segments.get(i), lastLsn, newest, (lsn, type, equationId, expiresAt, text) -> {
+                switch (type) {
+                    case WriteAheadLog.ADD, WriteAheadLog.ADD_EXPIRING -> {
+                        equations.put(equationId, text);
+                        if (expiresAt > 0) {
+                            expiries.put(equationId, expiresAt);
+                        } else {
+                            expiries.remove(equationId);
+                        }
+                        maxEquationId[0] = Math.max(maxEquationId[0], equationId);
+                    }
+                    case WriteAheadLog.REMOVE -> {
+                        equations.remove(equationId);
+                        expiries.remove(equationId);
+                    }
+                    default -> throw new IllegalStateException("Unknown log record type " + type + " at LSN " + lsn);
+                }
+            });
+        }
+
+        long now = System.currentTimeMillis();
+        for (Iterator<Map.Entry<Long, Long>> expiry = expiries.entrySet().iterator(); expiry.hasNext(); ) {
+            Map.Entry<Long, Long> entry = expiry.next();
+            if (entry.getValue() <= now) {
+                equations.remove(entry.getKey());
+                expiry.remove();
+            }
+        }
+        return new SnapshotFile.State(lastLsn, maxEquationId[0], equations, expiries);
+    }
+
+    private SnapshotFile.State latestSnapshot() throws IOException {
+        Path latest = null;
+        for (Path file : list()) {
+            if (SnapshotFile.lsn(file) >= 0 && (latest == null || SnapshotFile.lsn(file) > SnapshotFile.lsn(latest))) {
+                latest = file;
+            }
+        }
+        if (latest == null) {
+            return new SnapshotFile.State(0, 0, new TreeMap<>(), new TreeMap<>());
+        }
+
+        SnapshotFile.State state = SnapshotFile.read(latest);
+        if (state == null) {
+            throw new IOException("Corrupt snapshot " + latest);
+        }
+        return state;
+    }
+
+    private List<Path> list() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    /**
+     * Live equations by ID with the text they were stored from, the expiry time of those that
+     * have one, the last log sequence number applied and the highest equation ID ever assigned.
+     */
+    public record Recovery(long lastLsn, long maxEquationId, NavigableMap<Long, String> equations,
+                           NavigableMap<Long, Long> expiries) {
+    }
+
+    public record Stats(boolean enabled, String directory, long lastLsn, long durableLsn, long groupCommits,
+                        long snapshots, long failedSnapshots) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.sreeram.algebraic.equation.store;
+
+import java.util.Collection;
+
+/**
+ * Where {@link EquationRegistry} keeps its entries, by equation ID. Implementations are safe for
+ * concurrent readers and writers; the registry never writes the same ID from two threads at once,
+ * except through {@link #replace} and {@link #remove}, which must be atomic with each other.
+ */
+public interface EquationTable extends AutoCloseable {
+
+    void put(StoredEquation stored);
+
+    /**
+     * Puts {@code stored} only if its ID is still present. Returns {@code false} if it was not.
+     */
+    boolean replace(StoredEquation stored);
+
+    StoredEquation get(long equationId);
+
+    StoredEquation remove(long equationId);
+
+    /**
+     * Entries with an ID greater than {@code cursor} (all entries if it is {@code null}), in ID
+     * order. The view is live and weakly consistent.
+     */
+    Collection<StoredEquation> after(Long cursor);
+
+    int size();
+
+    void clear();
+
+    Stats stats();
+
+    @Override
+    void close();
+
+    record Stats(String backend, long entries, int segments, long mappedBytes, long cachedEntries,
+                 long cacheHits, long cacheMisses, long cacheEvictions) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.sreeram.algebraic.equation.store;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps every entry, with its tree and compiled program, on the heap in a skip list.
+ */
+public final class HeapEquationTable implements EquationTable {
+
+    private final ConcurrentNavigableMap<Long, StoredEquation> equations = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void put(StoredEquation stored) {
+        equations.put(stored.getEquationId(), stored);
+    }
+
+    @Override
+    public boolean replace(StoredEquation stored) {
+        return equations.replace(stored.getEquationId(), stored) != null;
+    }
+
+    @Override
+    public StoredEquation get(long equationId) {
+        return equations.get(equationId);
+    }
+
+    @Override
+    public StoredEquation remove(long equationId) {
+        return equations.remove(equationId);
+    }
+
+    @Override
+    public Collection<StoredEquation> after(Long cursor) {
+        return cursor == null ? equations.values() : equations.tailMap(cursor, false).values();
+    }
+
+    @Override
+    public int size() {
+        return equations.size();
+    }
+
+    @Override
+    public void clear() {
+        equations.clear();
+    }
+
+    @Override
+    public Stats stats() {
+        return new Stats("heap", equations.size(), 0, 0, 0, 0, 0, 0);
+    }
+
+    @Override
+    public void close() {
+    }
+}
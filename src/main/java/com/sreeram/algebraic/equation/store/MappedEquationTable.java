@@ -0,0 +1,601 @@
+package com.sreeram.algebraic.equation.store;
+
+import com.sreeram.algebraic.equation.engine.EncodedEquation;
+import com.sreeram.algebraic.equation.engine.EquationCodec;
+import com.sreeram.algebraic.equation.engine.EquationFunction;
+import com.sreeram.algebraic.equation.engine.EquationProgram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Keeps entries off the heap in their {@link EquationCodec} form, appended to memory-mapped
+ * segment files, so the heap stays flat however many equations there are. A table indexed
+ * directly by equation ID, itself in mapped files, holds one {@code long} location per entry.
+ * Lookups decode the entry and keep it in a bounded LRU cache of hot entries; listing decodes as
+ * it goes and leaves the cache alone.
+ * <p>
+ * The cache is the memory budget: the segments are the cold tier, left to the page cache, and an
+ * entry that falls out of the cache is decoded again on its next lookup. The function of an
+ * entry leaving the cache is handed to {@code onEvicted}, so compiled code is not kept for it.
+ * <p>
+ * A lazily ingested entry, which has no program yet, is kept as {@code [PENDING][length][text]}
+ * in place of its encoded form.
+ * <p>
+ * Removing or replacing an entry leaves its old bytes behind. Once those dead bytes are at least a
+ * segment and outweigh the live ones, the live entries are copied into a fresh generation of files
+ * and the old one is deleted, so the files stay within about twice the live data however much
+ * is stored and deleted. Cached entries are moved along with them.
+ * <p>
+ * The files are scratch space rather than storage: they are deleted on start, {@link #clear()}
+ * and {@link #close()}, and durability stays with {@link EquationStorage}.
+ */
+public final class MappedEquationTable implements EquationTable {
+
+    private static final int INDEX_CHUNK_SLOTS = 1 << 20;
+    private static final long ABSENT = 0;
+    private static final VarHandle SLOT = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int CACHE_SEGMENTS = 16;
+    private static final int PENDING = -1;
+
+    private final Path directory;
+    private final boolean temporary;
+    private final int segmentBytes;
+    private final BiFunction<Long, EquationProgram, EquationFunction> functions;
+    private final Consumer<EquationFunction> onEvicted;
+    private final boolean cacheEnabled;
+    private final CacheSegment[] cache = new CacheSegment[CACHE_SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long compactions;
+    private volatile Mapping mapping = new Mapping();
+    private int nextFile;
+
+    /**
+     * @param directory where to keep the segment files, or {@code null} for a temporary directory
+     * @param functions hands out the function a looked-up entry is evaluated with
+     */
+    public MappedEquationTable(Path directory, int segmentBytes, long maxCacheEntries, long maxCacheBytes,
+                               BiFunction<Long, EquationProgram, EquationFunction> functions) {
+        this(directory, segmentBytes, maxCacheEntries, maxCacheBytes, functions, function -> {
+        });
+    }
+
+    /**
+     * @param onEvicted told about the function of every entry that leaves the cache
+     */
+    public MappedEquationTable(Path directory, int segmentBytes, long maxCacheEntries, long maxCacheBytes,
+                               BiFunction<Long, EquationProgram, EquationFunction> functions,
+                               Consumer<EquationFunction> onEvicted) {
+        if (segmentBytes < 4096) {
+            throw new IllegalArgumentException("Segment size must be at least 4096 bytes");
+        }
+        try {
+            this.temporary = directory == null;
+            this.directory = temporary ? Files.createTempDirectory("equations") : Files.createDirectories(directory);
+            for (Path file : list()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare equation segments in " + directory, e);
+        }
+        this.segmentBytes = segmentBytes & ~7;
+        this.functions = functions;
+        this.onEvicted = onEvicted;
+        this.cacheEnabled = maxCacheEntries > 0 && maxCacheBytes > 0;
+        for (int i = 0; i < CACHE_SEGMENTS; i++) {
+            cache[i] = new CacheSegment(Math.max(1, maxCacheEntries / CACHE_SEGMENTS),
+                    Math.max(1, maxCacheBytes / CACHE_SEGMENTS));
+        }
+    }
+
+    @Override
+    public void put(StoredEquation stored) {
+        write(stored, false);
+    }
+
+    @Override
+    public boolean replace(StoredEquation stored) {
+        return write(stored, true);
+    }
+
+    private boolean write(StoredEquation stored, boolean onlyIfPresent) {
+        long equationId = stored.getEquationId();
+        if (equationId < 0) {
+            throw new IllegalArgumentException("Equation ID cannot be negative: " + equationId);
+        }
+        byte[] encoded = stored.isCompiled() ? EquationCodec.encode(stored.getProgram(), stored.getEquation())
+                : pending(stored.getEquation());
+
+        synchronized (this) {
+            Mapping current = mapping;
+            if (onlyIfPresent && current.location(equationId) == ABSENT) {
+                return false;
+            }
+            long location = append(current, stored.getExpiresAt(), encoded);
+            MappedByteBuffer chunk = indexChunk(current, equationId);
+            int offset = slotOffset(equationId);
+            long previous = (long) SLOT.getAcquire(chunk, offset);
+            if (previous == ABSENT) {
+                current.size++;
+            } else {
+                current.deadBytes += current.recordLength(previous);
+                cacheFor(equationId).remove(equationId);
+            }
+            // Released after the bytes are written, so a reader that sees the location sees the entry
+            SLOT.setRelease(chunk, offset, location);
+            current.maxEquationId = Math.max(current.maxEquationId, equationId);
+            compactIfFragmented(current);
+        }
+        return true;
+    }
+
+    @Override
+    public StoredEquation get(long equationId) {
+        Mapping current = mapping;
+        long location = current.location(equationId);
+        if (location == ABSENT) {
+            return null;
+        }
+        if (!cacheEnabled) {
+            // Nothing would hold a compiled function for the next lookup, so do not make one
+            return decode(current, equationId, location, false);
+        }
+
+        CacheSegment segment = cacheFor(equationId);
+        Cached cached = segment.get(equationId);
+        if (cached != null && cached.mapping() == current && cached.location() == location) {
+            hits.increment();
+            return cached.equation();
+        }
+
+        misses.increment();
+        StoredEquation decoded = decode(current, equationId, location, true);
+        if (!segment.put(equationId, new Cached(current, location, decoded, weigh(current, location, decoded)))) {
+            onEvicted.accept(decoded.getFunction());
+        }
+        return decoded;
+    }
+
+    @Override
+    public synchronized StoredEquation remove(long equationId) {
+        Mapping current = mapping;
+        long location = current.location(equationId);
+        if (location == ABSENT) {
+            return null;
+        }
+
+        StoredEquation removed = decode(current, equationId, location, false);
+        SLOT.setRelease(current.index[(int) (equationId / INDEX_CHUNK_SLOTS)], slotOffset(equationId), ABSENT);
+        current.size--;
+        current.deadBytes += current.recordLength(location);
+        cacheFor(equationId).remove(equationId);
+        compactIfFragmented(current);
+        return removed;
+    }
+
+    /**
+     * Segment bytes still held by removed or replaced entries.
+     */
+    public synchronized long deadBytes() {
+        return mapping.deadBytes;
+    }
+
+    public synchronized long compactions() {
+        return compactions;
+    }
+
+    @Override
+    public Collection<StoredEquation> after(Long cursor) {
+        Mapping current = mapping;
+        long first = cursor == null ? 0 : cursor + 1;
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<StoredEquation> iterator() {
+                return new Scan(current, first);
+            }
+
+            @Override
+            public int size() {
+                int count = 0;
+                for (Scan scan = new Scan(current, first); scan.hasNext(); scan.skip()) {
+                    count++;
+                }
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return mapping.size;
+    }
+
+    @Override
+    public void clear() {
+        Mapping previous;
+        synchronized (this) {
+            previous = mapping;
+            mapping = new Mapping();
+        }
+        for (CacheSegment segment : cache) {
+            segment.clear();
+        }
+        delete(previous.files);
+    }
+
+    @Override
+    public Stats stats() {
+        Mapping current = mapping;
+        long cachedEntries = 0;
+        for (CacheSegment segment : cache) {
+            synchronized (segment) {
+                cachedEntries += segment.entries.size();
+            }
+        }
+        return new Stats("mapped", current.size, current.segments.length, current.mappedBytes, cachedEntries,
+                hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    /**
+     * Deletes the segment files. Buffers already handed out stay readable until they are
+     * garbage collected.
+     */
+    @Override
+    public void close() {
+        Mapping previous;
+        synchronized (this) {
+            previous = mapping;
+            mapping = new Mapping();
+        }
+        for (CacheSegment segment : cache) {
+            segment.clear();
+        }
+        delete(previous.files);
+        if (temporary) {
+            delete(List.of(directory));
+        }
+    }
+
+    private StoredEquation decode(Mapping current, long equationId, long location, boolean lookup) {
+        if (current.isPending(location)) {
+            return new StoredEquation(equationId, current.pendingText(location), null, null, null,
+                    current.expiresAt(location));
+        }
+        EncodedEquation encoded = current.read(location);
+        EquationProgram program = encoded.toProgram();
+        EquationFunction function = lookup ? functions.apply(equationId, program)
+                : program.normalForm() != null ? program.normalForm() : program;
+        return new StoredEquation(equationId, encoded.canonicalText(), null, program, function,
+                current.expiresAt(location));
+    }
+
+    private long weigh(Mapping current, long location, StoredEquation decoded) {
+        if (!decoded.isCompiled()) {
+            return 2L * decoded.jsonLength();
+        }
+        return 2L * current.read(location).encodedLength() + decoded.jsonLength();
+    }
+
+    private static byte[] pending(String equation) {
+        byte[] text = equation.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(8 + text.length).putInt(PENDING).putInt(text.length).put(text).array();
+    }
+
+    /**
+     * Writes an entry as {@code [expires at][encoded]} after the last one and returns its location.
+     */
+    private long append(Mapping current, long expiresAt, byte[] encoded) {
+        long location = reserve(current, 8 + encoded.length);
+        current.segment(location).putLong((int) location, expiresAt).put((int) location + 8, encoded);
+        return location;
+    }
+
+    /**
+     * Takes {@code bytes}, rounded up to a multiple of eight, after the last entry, starting a new
+     * segment when they do not fit, and returns the location: the segment number plus one in the
+     * high half, the offset in the low.
+     */
+    private long reserve(Mapping current, int bytes) {
+        int length = (bytes + 7) & ~7;
+        MappedByteBuffer[] segments = current.segments;
+        if (segments.length == 0 || segments[segments.length - 1].capacity() - current.writePosition < length) {
+            segments = Arrays.copyOf(segments, segments.length + 1);
+            segments[segments.length - 1] = map(current, "segment", Math.max(segmentBytes, length));
+            current.segments = segments;
+            current.writePosition = 0;
+        }
+
+        int position = current.writePosition;
+        current.writePosition += length;
+        current.writtenBytes += length;
+        return ((long) segments.length << 32) | position;
+    }
+
+    /**
+     * Copies the live entries into a new generation once dead bytes are at least a segment and
+     * outweigh the live ones. Called with the table's lock held; readers still on the old
+     * generation keep reading it until they are done.
+     */
+    private void compactIfFragmented(Mapping current) {
+        if (current.deadBytes < segmentBytes || current.deadBytes < current.writtenBytes - current.deadBytes) {
+            return;
+        }
+
+        Mapping compacted = new Mapping();
+        for (long equationId = 0; equationId <= current.maxEquationId; equationId++) {
+            if (current.index[(int) (equationId / INDEX_CHUNK_SLOTS)] == null) {
+                equationId += INDEX_CHUNK_SLOTS - 1 - equationId % INDEX_CHUNK_SLOTS;
+                continue;
+            }
+            long location = current.location(equationId);
+            if (location == ABSENT) {
+                continue;
+            }
+            int length = current.recordLength(location);
+            long moved = reserve(compacted, length);
+            compacted.segment(moved).put((int) moved, current.segment(location), (int) location, length);
+            SLOT.setRelease(indexChunk(compacted, equationId), slotOffset(equationId), moved);
+            compacted.size++;
+            compacted.maxEquationId = equationId;
+        }
+
+        mapping = compacted;
+        compactions++;
+        for (CacheSegment segment : cache) {
+            segment.relocate(current, compacted);
+        }
+        delete(current.files);
+    }
+
+    private MappedByteBuffer indexChunk(Mapping current, long equationId) {
+        int chunk = Math.toIntExact(equationId / INDEX_CHUNK_SLOTS);
+        MappedByteBuffer[] index = current.index;
+        if (chunk >= index.length) {
+            index = Arrays.copyOf(index, chunk + 1);
+        }
+        if (index[chunk] == null) {
+            // Chunks no live entry falls in are left unmapped by compaction
+            index[chunk] = map(current, "index", 8L * INDEX_CHUNK_SLOTS);
+            current.index = index;
+        }
+        return index[chunk];
+    }
+
+    private MappedByteBuffer map(Mapping current, String prefix, long bytes) {
+        Path file = directory.resolve(String.format("%s-%08d.dat", prefix, nextFile++));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            current.files.add(file);
+            current.mappedBytes += bytes;
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map equation segment " + file, e);
+        }
+    }
+
+    private static int slotOffset(long equationId) {
+        return (int) (equationId % INDEX_CHUNK_SLOTS) * 8;
+    }
+
+    private CacheSegment cacheFor(long equationId) {
+        return cache[(int) (equationId ^ (equationId >>> 16)) & (CACHE_SEGMENTS - 1)];
+    }
+
+    private List<Path> list() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches("(segment|index)-\\d+\\.dat")).toList();
+        }
+    }
+
+    private static void delete(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Some platforms refuse to delete a mapped file; it is cleaned up on the next start
+            }
+        }
+    }
+
+    /**
+     * One generation of segment and index files. {@link #clear()} starts a new one, so readers
+     * still holding the old generation keep reading consistent, unmodified buffers.
+     */
+    private static final class Mapping {
+        private final List<Path> files = new ArrayList<>();
+        private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+        private volatile MappedByteBuffer[] index = new MappedByteBuffer[0];
+        private volatile long maxEquationId = -1;
+        private volatile int size;
+        private volatile long mappedBytes;
+        private int writePosition;
+        private long writtenBytes;
+        private long deadBytes;
+
+        long location(long equationId) {
+            MappedByteBuffer[] chunks = index;
+            if (equationId < 0 || equationId / INDEX_CHUNK_SLOTS >= chunks.length) {
+                return ABSENT;
+            }
+            MappedByteBuffer chunk = chunks[(int) (equationId / INDEX_CHUNK_SLOTS)];
+            return chunk == null ? ABSENT : (long) SLOT.getAcquire(chunk, slotOffset(equationId));
+        }
+
+        MappedByteBuffer segment(long location) {
+            return segments[(int) (location >>> 32) - 1];
+        }
+
+        int recordLength(long location) {
+            int payload = isPending(location) ? 8 + segment(location).getInt((int) location + 12)
+                    : read(location).encodedLength();
+            return (8 + payload + 7) & ~7;
+        }
+
+        boolean isPending(long location) {
+            MappedByteBuffer segment = segments[(int) (location >>> 32) - 1];
+            return segment.getInt((int) location + 8) == PENDING;
+        }
+
+        String pendingText(long location) {
+            MappedByteBuffer segment = segments[(int) (location >>> 32) - 1];
+            int position = (int) location + 8;
+            byte[] text = new byte[segment.getInt(position + 4)];
+            segment.get(position + 8, text);
+            return new String(text, StandardCharsets.UTF_8);
+        }
+
+        long expiresAt(long location) {
+            return segments[(int) (location >>> 32) - 1].getLong((int) location);
+        }
+
+        EncodedEquation read(long location) {
+            MappedByteBuffer segment = segments[(int) (location >>> 32) - 1];
+            int position = (int) location + 8;
+            return EquationCodec.view(segment.slice(position, segment.capacity() - position));
+        }
+    }
+
+    private final class Scan implements Iterator<StoredEquation> {
+        private final Mapping current;
+        private long nextId;
+        private long nextLocation = ABSENT;
+
+        Scan(Mapping current, long firstId) {
+            this.current = current;
+            this.nextId = firstId;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextLocation == ABSENT && nextId <= current.maxEquationId) {
+                nextLocation = current.location(nextId++);
+            }
+            return nextLocation != ABSENT;
+        }
+
+        @Override
+        public StoredEquation next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            StoredEquation decoded = decode(current, nextId - 1, nextLocation, false);
+            nextLocation = ABSENT;
+            return decoded;
+        }
+
+        void skip() {
+            nextLocation = ABSENT;
+        }
+    }
+
+    private record Cached(Mapping mapping, long location, StoredEquation equation, long weight) {
+    }
+
+    private final class CacheSegment {
+        private final LinkedHashMap<Long, Cached> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final long maxEntries;
+        private final long maxBytes;
+        private long bytes;
+
+        CacheSegment(long maxEntries, long maxBytes) {
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized Cached get(long equationId) {
+            return entries.get(equationId);
+        }
+
+        /**
+         * Caches an entry, evicting the least recently used ones past the budget, and returns
+         * whether it was kept.
+         */
+        synchronized boolean put(long equationId, Cached cached) {
+            if (cached.weight() > maxBytes) {
+                return false;
+            }
+
+            Cached previous = entries.put(equationId, cached);
+            if (previous != null) {
+                bytes -= previous.weight();
+                onEvicted.accept(previous.equation().getFunction());
+            }
+            bytes += cached.weight();
+
+            Iterator<Map.Entry<Long, Cached>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+                Cached evicted = eldest.next().getValue();
+                bytes -= evicted.weight();
+                eldest.remove();
+                evictions.increment();
+                onEvicted.accept(evicted.equation().getFunction());
+            }
+            return true;
+        }
+
+        synchronized void remove(long equationId) {
+            Cached removed = entries.remove(equationId);
+            if (removed != null) {
+                bytes -= removed.weight();
+                onEvicted.accept(removed.equation().getFunction());
+            }
+        }
+
+        /**
+         * Points entries cached from {@code from} at where compaction moved them in {@code to},
+         * dropping those that were already replaced or removed in {@code from}.
+         */
+        synchronized void relocate(Mapping from, Mapping to) {
+            Iterator<Map.Entry<Long, Cached>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Long, Cached> entry = it.next();
+                Cached cached = entry.getValue();
+                if (cached.mapping() != from) {
+                    continue;
+                }
+                long equationId = entry.getKey();
+                if (cached.location() != from.location(equationId)) {
+                    it.remove();
+                    bytes -= cached.weight();
+                    onEvicted.accept(cached.equation().getFunction());
+                } else {
+                    entry.setValue(new Cached(to, to.location(equationId), cached.equation(), cached.weight()));
+                }
+            }
+        }
+
+        synchronized void clear() {
+            for (Cached cached : entries.values()) {
+                onEvicted.accept(cached.equation().getFunction());
+            }
+            entries.clear();
+            bytes = 0;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.sreeram.algebraic.equation.store;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential reads over a memory-mapped file. The file is mapped in windows so files larger than
+ * a single {@link MappedByteBuffer} can be read; a record that straddles a window boundary is
+ * remapped to start a fresh window.
+ */
+final class MappedInput implements Closeable {
+
+    private static final long WINDOW_BYTES = 256L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private long base;
+    private MappedByteBuffer window;
+
+    MappedInput(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        map(0, 0);
+    }
+
+    long position() {
+        return base + window.position();
+    }
+
+    long remaining() {
+        return size - position();
+    }
+
+    /**
+     * The current window, positioned at the read offset with at least {@code bytes} readable.
+     */
+    ByteBuffer require(int bytes) throws IOException {
+        if (window.remaining() < bytes) {
+            if (remaining() < bytes) {
+                throw new EOFException("Needed " + bytes + " bytes at offset " + position() + " of " + size);
+            }
+            map(position(), bytes);
+        }
+        return window;
+    }
+
+    private void map(long offset, int minimum) throws IOException {
+        long length = Math.min(size - offset, Math.max(WINDOW_BYTES, minimum));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        base = offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,162 @@
+package com.sreeram.algebraic.equation.store;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compacted image of the store up to a log sequence number: every live equation ID with the text
+ * it was stored from and, if it has one, its expiry time. Snapshots are written to a temporary
+ * file and renamed into place, so a reader only ever sees complete ones, and are read back
+ * through a memory mapping.
+ * <p>
+ * Layout: {@code [magic][lsn][max equation ID][count]} followed by
+ * {@code [id][expires at][length][text]} per entry and a trailing CRC32C of everything after the
+ * magic.
+ */
+final class SnapshotFile {
+
+    private static final long MAGIC = 0x4551534E41503032L;
+    private static final int ENTRY_HEADER_BYTES = 20;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".dat";
+    static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private SnapshotFile() {
+    }
+
+    static Path path(Path directory, long lsn) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, lsn, SUFFIX));
+    }
+
+    /**
+     * LSN a snapshot file covers, or {@code -1} if the name is not a snapshot.
+     */
+    static long lsn(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static void write(Path directory, State state, boolean fsync) throws IOException {
+        Path target = path(directory, state.lastLsn());
+        Path temporary = target.resolveSibling(target.getFileName() + TEMPORARY_SUFFIX);
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream raw = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            CRC32C crc = new CRC32C();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(raw, crc));
+
+            raw.write(ByteBuffer.allocate(8).putLong(MAGIC).array());
+            out.writeLong(state.lastLsn());
+            out.writeLong(state.maxEquationId());
+            out.writeLong(state.equations().size());
+            for (Map.Entry<Long, String> entry : state.equations().entrySet()) {
+                byte[] text = entry.getValue().getBytes(StandardCharsets.UTF_8);
+                out.writeLong(entry.getKey());
+                out.writeLong(state.expiries().getOrDefault(entry.getKey(), 0L));
+                out.writeInt(text.length);
+                out.write(text);
+            }
+            out.flush();
+            new DataOutputStream(raw).writeInt((int) crc.getValue());
+            raw.flush();
+            if (fsync) {
+                channel.force(true);
+            }
+        }
+
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        if (fsync) {
+            syncDirectory(directory);
+        }
+    }
+
+    /**
+     * Reads a snapshot, or returns {@code null} if it is incomplete or corrupt.
+     */
+    static State read(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (MappedInput input = new MappedInput(file)) {
+            if (input.remaining() < 8 + 24 + 4) {
+                return null;
+            }
+            long magic = input.require(8).getLong();
+            if (magic != MAGIC) {
+                return null;
+            }
+
+            ByteBuffer header = input.require(24);
+            crc.update(header.slice(header.position(), 24));
+            long lastLsn = header.getLong();
+            long maxEquationId = header.getLong();
+            long count = header.getLong();
+
+            NavigableMap<Long, String> equations = new TreeMap<>();
+            NavigableMap<Long, Long> expiries = new TreeMap<>();
+            for (long i = 0; i < count; i++) {
+                if (input.remaining() < ENTRY_HEADER_BYTES) {
+                    return null;
+                }
+                ByteBuffer entry = input.require(ENTRY_HEADER_BYTES);
+                crc.update(entry.slice(entry.position(), ENTRY_HEADER_BYTES));
+                long equationId = entry.getLong();
+                long expiresAt = entry.getLong();
+                int length = entry.getInt();
+                if (length < 0 || input.remaining() < length + 4L) {
+                    return null;
+                }
+                ByteBuffer text = input.require(length);
+                crc.update(text.slice(text.position(), length));
+                byte[] bytes = new byte[length];
+                text.get(bytes);
+                equations.put(equationId, new String(bytes, StandardCharsets.UTF_8));
+                if (expiresAt > 0) {
+                    expiries.put(equationId, expiresAt);
+                }
+            }
+
+            if (input.remaining() != 4 || input.require(4).getInt() != (int) crc.getValue()) {
+                return null;
+            }
+            return new State(lastLsn, maxEquationId, equations, expiries);
+        }
+    }
+
+    static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can fsync a directory; the rename itself is still atomic
+        }
+    }
+
+    /**
+     * Live equations after replaying everything up to {@code lastLsn}, and the expiry time of
+     * those that have one.
+     */
+    record State(long lastLsn, long maxEquationId, NavigableMap<Long, String> equations,
+                 NavigableMap<Long, Long> expiries) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.sreeram.algebraic.equation.store;
+
+import com.sreeram.algebraic.equation.engine.EquationFunction;
+import com.sreeram.algebraic.equation.engine.EquationProgram;
+import com.sreeram.algebraic.equation.expression.CompactTree;
+import com.sreeram.algebraic.equation.model.EquationResponse;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An immutable registry entry. The canonical infix is rendered once when the equation is stored,
+ * together with its UTF-8 JSON encoding, so listing and evaluation never walk the tree again.
+ * An entry stored with a time to live carries its expiry time in epoch millis; {@code 0} means
+ * it never expires. An entry ingested lazily holds only its text, with no tree, program or
+ * function, until it is compiled on first use.
+ */
+public final class StoredEquation {
+
+    private final Long equationId;
+    private final String equation;
+    private final CompactTree expressionTree;
+    private final EquationProgram program;
+    private final EquationFunction function;
+    private final long expiresAt;
+    private final byte[] json;
+
+    public StoredEquation(Long equationId, String equation, CompactTree expressionTree,
+                          EquationProgram program, EquationFunction function) {
+        this(equationId, equation, expressionTree, program, function, 0);
+    }
+
+    public StoredEquation(Long equationId, String equation, CompactTree expressionTree,
+                          EquationProgram program, EquationFunction function, long expiresAt) {
+        this.equationId = equationId;
+        this.equation = equation;
+        this.expressionTree = expressionTree;
+        this.program = program;
+        this.function = function;
+        this.expiresAt = expiresAt;
+        this.json = encodeJson(equationId, equation, expiresAt);
+    }
+
+    public Long getEquationId() {
+        return equationId;
+    }
+
+    public String getEquation() {
+        return equation;
+    }
+
+    /**
+     * A read-only view of the parsed tree, or {@code null} for an entry decoded from its binary form.
+     */
+    public ExpressionTreeNode getExpressionTree() {
+        return expressionTree == null ? null : expressionTree.view();
+    }
+
+    public CompactTree getCompactTree() {
+        return expressionTree;
+    }
+
+    public EquationProgram getProgram() {
+        return program;
+    }
+
+    public EquationFunction getFunction() {
+        return function;
+    }
+
+    /**
+     * Whether this entry has a program, which is {@code false} for a lazily ingested entry that
+     * has not been evaluated yet.
+     */
+    public boolean isCompiled() {
+        return program != null;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(long now) {
+        return expiresAt > 0 && expiresAt <= now;
+    }
+
+    public EquationResponse toResponse() {
+        EquationResponse response = new EquationResponse(equationId);
+        response.setEquation(equation);
+        if (expiresAt > 0) {
+            response.setExpiresAt(expiresAt);
+        }
+        return response;
+    }
+
+    /**
+     * Writes this entry as {@code {"equationId":..,"equation":".."}}, plus {@code "expiresAt"}
+     * if it has one, from the pre-encoded bytes.
+     */
+    public void writeJson(OutputStream out) throws IOException {
+        out.write(json);
+    }
+
+    public int jsonLength() {
+        return json.length;
+    }
+
+    private static byte[] encodeJson(Long equationId, String equation, long expiresAt) {
+        StringBuilder builder = new StringBuilder(equation == null ? 32 : equation.length() + 40);
+        builder.append("{\"equationId\":").append(equationId);
+        if (equation != null) {
+            builder.append(",\"equation\":\"");
+            for (int i = 0; i < equation.length(); i++) {
+                char c = equation.charAt(i);
+                if (c == '"' || c == '\\') {
+                    builder.append('\\').append(c);
+                } else if (c < 0x20) {
+                    builder.append(String.format("\\u%04x", (int) c));
+                } else {
+                    builder.append(c);
+                }
+            }
+            builder.append('"');
+        }
+        if (expiresAt > 0) {
+            builder.append(",\"expiresAt\":").append(expiresAt);
+        }
+        return builder.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,355 @@
+package com.sreeram.algebraic.equation.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of registry changes, split into segments named after the first log sequence
+ * number (LSN) they hold.
+ * <p>
+ * Appends use group commit: a writer adds its record to the pending buffer and waits until it
+ * is durable. The first waiter that finds no write in progress becomes the leader and writes and
+ * fsyncs everything pending, so concurrent writers share one fsync. Once a segment holds
+ * {@code segmentRecords} records the leader starts a new one and reports the last LSN of the
+ * closed segment, which is the cue to compact it into a snapshot.
+ * <p>
+ * Each record is framed as {@code [length][crc32c][lsn][type][equationId][text length][text]}.
+ * An {@link #ADD_EXPIRING} record puts the expiry time, as a {@code long}, in front of the text.
+ * A failed write leaves the log unusable; later appends fail rather than write after a torn record.
+ */
+final class WriteAheadLog implements Closeable {
+
+    static final byte ADD = 1;
+    static final byte REMOVE = 2;
+    static final byte ADD_EXPIRING = 3;
+
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+    private static final int FRAME_BYTES = 8;
+    private static final int HEADER_BYTES = 8 + 1 + 8 + 4;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final boolean fsync;
+    private final long segmentRecords;
+    private final LongConsumer onSegmentClosed;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+
+    private FileChannel segment;
+    private long segmentFirstLsn;
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_BYTES);
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_BYTES);
+    private long lastLsn;
+    private long durableLsn;
+    private long groupCommits;
+    private boolean flushing;
+    private IOException failure;
+
+    WriteAheadLog(Path directory, long lastLsn, boolean fsync, long segmentRecords, LongConsumer onSegmentClosed)
+            throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.segmentRecords = Math.max(1, segmentRecords);
+        this.onSegmentClosed = onSegmentClosed;
+        this.lastLsn = lastLsn;
+        this.durableLsn = lastLsn;
+        openSegment(lastLsn + 1);
+    }
+
+    static Path segmentPath(Path directory, long firstLsn) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, firstLsn, SUFFIX));
+    }
+
+    /**
+     * First LSN of a segment file, or {@code -1} if the name is not a segment.
+     */
+    static long segmentFirstLsn(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Appends a record and returns once it is durable. {@code expiresAt} is only written for
+     * {@link #ADD_EXPIRING} records.
+     */
+    long append(byte type, long equationId, long expiresAt, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        lock.lock();
+        try {
+            checkHealthy();
+            long lsn = ++lastLsn;
+            encode(lsn, type, equationId, expiresAt, bytes);
+            while (durableLsn < lsn) {
+                checkHealthy();
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                } else {
+                    flushPending();
+                }
+            }
+            return lsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long lastLsn() {
+        lock.lock();
+        try {
+            return lastLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long durableLsn() {
+        lock.lock();
+        try {
+            return durableLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long groupCommits() {
+        lock.lock();
+        try {
+            return groupCommits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for the current write to finish and deletes every segment, keeping the LSN sequence.
+     */
+    void reset() throws IOException {
+        lock.lock();
+        try {
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            checkHealthy();
+            segment.close();
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    if (segmentFirstLsn(file) >= 0) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+            pending.clear();
+            durableLsn = lastLsn;
+            openSegment(lastLsn + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            if (failure == null) {
+                failure = new IOException("Write-ahead log is closed");
+            }
+            segment.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replays the records of one segment with an LSN greater than {@code afterLsn} and returns the
+     * last LSN read. A torn or corrupt tail is cut off when {@code truncateTornTail} is set and is
+     * an error otherwise.
+     */
+    static long replay(Path file, long afterLsn, boolean truncateTornTail, RecordVisitor visitor) throws IOException {
+        long lastLsn = afterLsn;
+        long validBytes;
+        boolean torn = false;
+        CRC32C crc = new CRC32C();
+
+        try (MappedInput input = new MappedInput(file)) {
+            while (true) {
+                validBytes = input.position();
+                if (input.remaining() == 0) {
+                    break;
+                }
+                if (input.remaining() < FRAME_BYTES) {
+                    torn = true;
+                    break;
+                }
+                ByteBuffer frame = input.require(FRAME_BYTES);
+                int length = frame.getInt();
+                int checksum = frame.getInt();
+                if (length < HEADER_BYTES || length > input.remaining()) {
+                    torn = true;
+                    break;
+                }
+
+                ByteBuffer record = input.require(length);
+                crc.reset();
+                crc.update(record.slice(record.position(), length));
+                if ((int) crc.getValue() != checksum) {
+                    torn = true;
+                    break;
+                }
+
+                long lsn = record.getLong();
+                byte type = record.get();
+                long equationId = record.getLong();
+                int textLength = record.getInt();
+                if (textLength != length - HEADER_BYTES) {
+                    torn = true;
+                    break;
+                }
+                long expiresAt = 0;
+                if (type == ADD_EXPIRING) {
+                    if (textLength < 8) {
+                        torn = true;
+                        break;
+                    }
+                    expiresAt = record.getLong();
+                    textLength -= 8;
+                }
+                byte[] text = new byte[textLength];
+                record.get(text);
+                if (lsn > lastLsn) {
+                    visitor.accept(lsn, type, equationId, expiresAt, new String(text, StandardCharsets.UTF_8));
+                    lastLsn = lsn;
+                }
+            }
+        }
+
+        if (torn) {
+            if (!truncateTornTail) {
+                throw new IOException("Corrupt record at offset " + validBytes + " of " + file);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validBytes);
+                channel.force(true);
+            }
+        }
+        return lastLsn;
+    }
+
+    private void encode(long lsn, byte type, long equationId, long expiresAt, byte[] text) {
+        int textLength = type == ADD_EXPIRING ? 8 + text.length : text.length;
+        int length = HEADER_BYTES + textLength;
+        if (pending.remaining() < FRAME_BYTES + length) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + FRAME_BYTES + length));
+            pending.flip();
+            pending = grown.put(pending);
+        }
+
+        int start = pending.position();
+        pending.putInt(length).putInt(0);
+        pending.putLong(lsn).put(type).putLong(equationId).putInt(textLength);
+        if (type == ADD_EXPIRING) {
+            pending.putLong(expiresAt);
+        }
+        pending.put(text);
+
+        CRC32C crc = new CRC32C();
+        crc.update(pending.slice(start + FRAME_BYTES, length));
+        pending.putInt(start + 4, (int) crc.getValue());
+    }
+
+    /**
+     * Writes and fsyncs everything pending. Called with the lock held; the lock is released for
+     * the I/O so other writers can keep filling the next batch.
+     */
+    private void flushPending() {
+        flushing = true;
+        ByteBuffer batch = pending;
+        long batchLsn = lastLsn;
+        pending = spare;
+        pending.clear();
+        boolean roll = batchLsn - segmentFirstLsn + 1 >= segmentRecords;
+        long closedThrough = -1;
+        boolean written = false;
+        IOException error = null;
+
+        lock.unlock();
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                segment.write(batch);
+            }
+            if (fsync) {
+                segment.force(false);
+            }
+            written = true;
+            if (roll) {
+                segment.close();
+                openSegment(batchLsn + 1);
+                closedThrough = batchLsn;
+            }
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+        }
+
+        batch.clear();
+        spare = batch;
+        flushing = false;
+        if (written) {
+            durableLsn = batchLsn;
+            groupCommits++;
+        }
+        if (error != null) {
+            failure = error;
+        }
+        flushed.signalAll();
+
+        if (closedThrough >= 0) {
+            onSegmentClosed.accept(closedThrough);
+        }
+    }
+
+    private void openSegment(long firstLsn) throws IOException {
+        segment = FileChannel.open(segmentPath(directory, firstLsn), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        segmentFirstLsn = firstLsn;
+        if (fsync) {
+            // The new file's directory entry must be durable before any batch in it is acknowledged
+            SnapshotFile.syncDirectory(directory);
+        }
+    }
+
+    private void checkHealthy() {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log is unavailable", failure);
+        }
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        void accept(long lsn, byte type, long equationId, long expiresAt, String text);
+    }
+}
@@ -1,9 +1,17 @@
 package com.sreeram.algebraic.equation.controller;
 
+import com.sreeram.algebraic.equation.model.BatchEvaluationRequest;
+import com.sreeram.algebraic.equation.model.BatchEvaluationResponse;
+import com.sreeram.algebraic.equation.model.EquationChanges;
+import com.sreeram.algebraic.equation.model.EquationPage;
 import com.sreeram.algebraic.equation.model.EquationRequest;
 import com.sreeram.algebraic.equation.model.EquationResponse;
 import com.sreeram.algebraic.equation.model.EvaluationRequest;
 import com.sreeram.algebraic.equation.model.EvaluationResponse;
+import com.sreeram.algebraic.equation.model.PreparedEquationRequest;
+import com.sreeram.algebraic.equation.model.PreparedEquationResponse;
+import com.sreeram.algebraic.equation.model.PreparedEvaluationRequest;
+import com.sreeram.algebraic.equation.model.PreparedEvaluationResponse;
 import com.sreeram.algebraic.equation.service.EquationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,7 +20,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -21,6 +32,8 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -70,6 +83,34 @@ class EquationsControllerTest {
         assertEquals("x+2y", response.getBody().getEquation());
     }
 
+    @Test
+    void testStoreEquation_WithTtl() {
+        equationRequest.setTtlSeconds(60L);
+        equationResponse.setExpiresAt(1_700_000_060_000L);
+        when(equationService.storeEquation("x + y * 2", 60L)).thenReturn(equationResponse);
+
+        ResponseEntity<EquationResponse> response = equationsController.storeEquation(equationRequest);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(1_700_000_060_000L, response.getBody().getExpiresAt());
+    }
+
+    @Test
+    void testDeleteEquation_NoContent() {
+        ResponseEntity<Void> response = equationsController.deleteEquation(1L);
+
+        assertEquals(204, response.getStatusCode().value());
+        verify(equationService).deleteEquation(1L);
+    }
+
+    @Test
+    void testReleasePrepared_NoContent() {
+        ResponseEntity<Void> response = equationsController.releasePrepared(3L);
+
+        assertEquals(204, response.getStatusCode().value());
+        verify(equationService).releasePrepared(3L);
+    }
+
     @Test
     void testGetAllEquations_Success() {
         EquationResponse equation1 = new EquationResponse(1L);
@@ -81,7 +122,7 @@ class EquationsControllerTest {
         List<EquationResponse> equations = Arrays.asList(equation1, equation2);
         when(equationService.getAllEquations()).thenReturn(equations);
 
-        ResponseEntity<List<EquationResponse>> response = equationsController.getAllEquations();
+        ResponseEntity<List<EquationResponse>> response = equationsController.getAllEquations(null, null, null);
 
         assertNotNull(response);
         assertEquals(200, response.getStatusCode().value());
@@ -95,7 +136,7 @@ class EquationsControllerTest {
     void testGetAllEquations_EmptyList() {
         when(equationService.getAllEquations()).thenReturn(Arrays.asList());
 
-        ResponseEntity<List<EquationResponse>> response = equationsController.getAllEquations();
+        ResponseEntity<List<EquationResponse>> response = equationsController.getAllEquations(null, null, null);
 
         assertNotNull(response);
         assertEquals(200, response.getStatusCode().value());
@@ -103,6 +144,89 @@ class EquationsControllerTest {
         assertTrue(response.getBody().isEmpty());
     }
 
+    @Test
+    void testGetAllEquations_PageWithNextCursor() {
+        EquationResponse equation3 = new EquationResponse(3L);
+        equation3.setEquation("x+y");
+        EquationResponse equation4 = new EquationResponse(4L);
+        equation4.setEquation("xy");
+
+        when(equationService.getEquations(2L, 2)).thenReturn(new EquationPage(List.of(equation3, equation4), 4L));
+
+        ResponseEntity<List<EquationResponse>> response = equationsController.getAllEquations(2L, 2, null);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(2, response.getBody().size());
+        assertEquals("4", response.getHeaders().getFirst(EquationsController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testGetAllEquations_LastPageHasNoCursor() {
+        when(equationService.getEquations(null, 10)).thenReturn(new EquationPage(List.of(equationResponse), null));
+
+        ResponseEntity<List<EquationResponse>> response = equationsController.getAllEquations(null, 10, null);
+
+        assertEquals(1, response.getBody().size());
+        assertNull(response.getHeaders().getFirst(EquationsController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testGetAllEquations_CarriesVersionETag() {
+        when(equationService.getVersion()).thenReturn(12L);
+        when(equationService.getAllEquations()).thenReturn(List.of(equationResponse));
+
+        ResponseEntity<List<EquationResponse>> response = equationsController.getAllEquations(null, null, null);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("\"12\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetAllEquations_NotModified() {
+        when(equationService.getVersion()).thenReturn(12L);
+
+        ResponseEntity<List<EquationResponse>> response =
+                equationsController.getAllEquations(null, null, "\"11\", W/\"12\"");
+
+        assertEquals(304, response.getStatusCode().value());
+        assertNull(response.getBody());
+        verify(equationService, never()).getAllEquations();
+    }
+
+    @Test
+    void testGetChangesSince_Success() {
+        EquationChanges changes = new EquationChanges(9L, false, List.of(equationResponse), List.of(3L));
+        when(equationService.getVersion()).thenReturn(9L);
+        when(equationService.getChangesSince(7L)).thenReturn(changes);
+
+        ResponseEntity<EquationChanges> response = equationsController.getChangesSince(7L, "\"7\"");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("\"9\"", response.getHeaders().getETag());
+        assertEquals(List.of(3L), response.getBody().getRemoved());
+    }
+
+    @Test
+    void testGetChangesSince_NotModified() {
+        when(equationService.getVersion()).thenReturn(9L);
+
+        ResponseEntity<EquationChanges> response = equationsController.getChangesSince(9L, "\"9\"");
+
+        assertEquals(304, response.getStatusCode().value());
+        verify(equationService, never()).getChangesSince(9L);
+    }
+
+    @Test
+    void testStreamEquations_WritesThroughService() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = equationsController.streamEquations(5L, 100);
+        OutputStream out = new ByteArrayOutputStream();
+
+        response.getBody().writeTo(out);
+
+        assertEquals(200, response.getStatusCode().value());
+        verify(equationService).streamEquations(5L, 100, out);
+    }
+
     @Test
     void testEvaluateEquation_Success() {
         when(equationService.evaluateEquation(eq(1L), any(EvaluationRequest.class))).thenReturn(evaluationResponse);
@@ -154,6 +278,52 @@ class EquationsControllerTest {
         assertEquals(200, response.getStatusCode().value());
         assertEquals(14.0, response.getBody().getResult());
     }
-}
 
+    @Test
+    void testEvaluateBatch_Success() {
+        BatchEvaluationResponse batchResponse = new BatchEvaluationResponse();
+        batchResponse.setEquationId(1L);
+        batchResponse.setRowCount(2);
+        batchResponse.setResults(new double[]{3.0, 7.0});
+
+        when(equationService.evaluateBatch(eq(1L), any(BatchEvaluationRequest.class))).thenReturn(batchResponse);
+
+        Map<String, double[]> columns = new HashMap<>();
+        columns.put("x", new double[]{1.0, 3.0});
+        columns.put("y", new double[]{2.0, 4.0});
+        ResponseEntity<BatchEvaluationResponse> response =
+                equationsController.evaluateBatch(1L, new BatchEvaluationRequest(columns));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(2, response.getBody().getRowCount());
+        assertArrayEquals(new double[]{3.0, 7.0}, response.getBody().getResults());
+    }
+
+    @Test
+    void testPrepareEquation_Success() {
+        PreparedEquationResponse prepared = new PreparedEquationResponse();
+        prepared.setHandleId(7L);
+        prepared.setEquationId(1L);
+        prepared.setVariables(List.of("x", "y"));
+
+        when(equationService.prepareEquation(eq(1L), eq(List.of("x", "y")))).thenReturn(prepared);
 
+        ResponseEntity<PreparedEquationResponse> response =
+                equationsController.prepareEquation(1L, new PreparedEquationRequest(List.of("x", "y")));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(7L, response.getBody().getHandleId());
+    }
+
+    @Test
+    void testEvaluatePrepared_Success() {
+        double[] values = {10.0, 5.0};
+        when(equationService.evaluatePrepared(7L, values)).thenReturn(new PreparedEvaluationResponse(7L, 20.0));
+
+        ResponseEntity<PreparedEvaluationResponse> response =
+                equationsController.evaluatePrepared(7L, new PreparedEvaluationRequest(values));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(20.0, response.getBody().getResult());
+    }
+}
@@ -0,0 +1,162 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.exception.DivisionByZeroException;
+import com.sreeram.algebraic.equation.exception.InvalidVariableBindingException;
+import com.sreeram.algebraic.equation.exception.VariableNotFoundException;
+import com.sreeram.algebraic.equation.expression.ExpressionParser;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchEvaluatorTest {
+
+    private final List<BatchEvaluator> evaluators = List.of(new ScalarBatchEvaluator(), new VectorBatchEvaluator());
+
+    private ExpressionTreeNode node(String value, ExpressionTreeNode left, ExpressionTreeNode right) {
+        ExpressionTreeNode node = new ExpressionTreeNode(value);
+        node.setLeft(left);
+        node.setRight(right);
+        return node;
+    }
+
+    private ExpressionTreeNode leaf(String value) {
+        return new ExpressionTreeNode(value);
+    }
+
+    @Test
+    void testEvaluate_MatchesRowByRowEvaluation() {
+        ExpressionTreeNode tree = node("-",
+                node("+", node("*", leaf("3"), node("^", leaf("x"), leaf("2"))), node("/", leaf("y"), leaf("4"))),
+                leaf("x"));
+        EquationProgram program = EquationCompiler.compile(tree);
+
+        int rows = BlockBatchEvaluator.BLOCK_SIZE * 2 + 17;
+        double[] x = new double[rows];
+        double[] y = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = i * 0.5 - 100;
+            y[i] = i * 1.25;
+        }
+        Map<String, double[]> columns = new HashMap<>();
+        columns.put("x", x);
+        columns.put("y", y);
+
+        for (BatchEvaluator evaluator : evaluators) {
+            double[] results = evaluator.evaluate(program, program.bindColumns(columns, rows), rows);
+
+            assertEquals(rows, results.length);
+            for (int i = 0; i < rows; i++) {
+                assertEquals(program.evaluate(new double[]{x[i], y[i]}), results[i], evaluator.name() + " row " + i);
+            }
+        }
+    }
+
+    @Test
+    void testEvaluate_PowerMatchesMathPowExactly() {
+        EquationProgram program = EquationCompiler.compile(ExpressionParser.parse("x^y + x^2.5 - y^0.1"));
+
+        int rows = BlockBatchEvaluator.BLOCK_SIZE + 13;
+        double[] x = new double[rows];
+        double[] y = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = i * 0.37 + 0.001;
+            y[i] = i * 0.013 - 3.7;
+        }
+        Map<String, double[]> columns = new HashMap<>();
+        columns.put("x", x);
+        columns.put("y", y);
+
+        for (BatchEvaluator evaluator : evaluators) {
+            double[] results = evaluator.evaluate(program, program.bindColumns(columns, rows), rows);
+
+            for (int i = 0; i < rows; i++) {
+                assertEquals(program.evaluate(new double[]{x[i], y[i]}), results[i], evaluator.name() + " row " + i);
+            }
+        }
+    }
+
+    @Test
+    void testEvaluate_LoweredProgramMatchesInterpreter() {
+        EquationProgram program = EquationCompiler.compileOptimized(ExpressionParser.parse("3x^3 + 2x^2y + y/4 + x^7"), true);
+
+        int rows = BlockBatchEvaluator.BLOCK_SIZE + 5;
+        double[] x = new double[rows];
+        double[] y = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = i * 0.01 - 5;
+            y[i] = i * 0.75;
+        }
+        Map<String, double[]> columns = new HashMap<>();
+        columns.put("x", x);
+        columns.put("y", y);
+
+        for (BatchEvaluator evaluator : evaluators) {
+            double[] results = evaluator.evaluate(program, program.bindColumns(columns, rows), rows);
+
+            for (int i = 0; i < rows; i++) {
+                assertEquals(program.evaluate(new double[]{x[i], y[i]}), results[i], evaluator.name() + " row " + i);
+            }
+        }
+    }
+
+    @Test
+    void testEvaluate_EmptyBatch() {
+        EquationProgram program = EquationCompiler.compile(node("+", leaf("x"), leaf("1")));
+        Map<String, double[]> columns = new HashMap<>();
+        columns.put("x", new double[0]);
+
+        for (BatchEvaluator evaluator : evaluators) {
+            assertEquals(0, evaluator.evaluate(program, program.bindColumns(columns, 0), 0).length);
+        }
+    }
+
+    @Test
+    void testEvaluate_DivisionByZeroReportsRow() {
+        EquationProgram program = EquationCompiler.compile(node("/", leaf("1"), leaf("x")));
+        Map<String, double[]> columns = new HashMap<>();
+        double[] x = new double[100];
+        Arrays.fill(x, 1.0);
+        x[37] = 0.0;
+        columns.put("x", x);
+
+        for (BatchEvaluator evaluator : evaluators) {
+            DivisionByZeroException exception = assertThrows(DivisionByZeroException.class, () -> {
+                evaluator.evaluate(program, program.bindColumns(columns, 100), 100);
+            });
+
+            assertTrue(exception.getMessage().contains("row 37"));
+        }
+    }
+
+    @Test
+    void testSelect_FallsBackToScalar() {
+        assertEquals("scalar", BatchEvaluators.select("scalar").name());
+        assertEquals(BatchEvaluators.vectorAvailable() ? "vector" : "scalar", BatchEvaluators.select("auto").name());
+        assertThrows(IllegalArgumentException.class, () -> BatchEvaluators.select("gpu"));
+    }
+
+    @Test
+    void testBindColumns_MissingColumn() {
+        EquationProgram program = EquationCompiler.compile(node("+", leaf("x"), leaf("y")));
+        Map<String, double[]> columns = new HashMap<>();
+        columns.put("x", new double[]{1.0});
+
+        assertThrows(VariableNotFoundException.class, () -> program.bindColumns(columns, 1));
+    }
+
+    @Test
+    void testBindColumns_RaggedColumns() {
+        EquationProgram program = EquationCompiler.compile(node("+", leaf("x"), leaf("y")));
+        Map<String, double[]> columns = new HashMap<>();
+        columns.put("x", new double[]{1.0, 2.0});
+        columns.put("y", new double[]{1.0});
+
+        assertThrows(InvalidVariableBindingException.class, () -> program.bindColumns(columns, 2));
+    }
+}
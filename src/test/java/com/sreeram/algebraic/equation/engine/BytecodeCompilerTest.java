@@ -0,0 +1,80 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.exception.DivisionByZeroException;
+import com.sreeram.algebraic.equation.expression.ExpressionParser;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BytecodeCompilerTest {
+
+    private ExpressionTreeNode node(String value, ExpressionTreeNode left, ExpressionTreeNode right) {
+        ExpressionTreeNode node = new ExpressionTreeNode(value);
+        node.setLeft(left);
+        node.setRight(right);
+        return node;
+    }
+
+    private ExpressionTreeNode leaf(String value) {
+        return new ExpressionTreeNode(value);
+    }
+
+    @Test
+    void testCompile_MatchesInterpreter() {
+        ExpressionTreeNode tree = node("-",
+                node("+", node("*", leaf("2.5"), node("^", leaf("x"), leaf("3"))), node("/", leaf("y"), leaf("z"))),
+                leaf("x"));
+        EquationProgram program = EquationCompiler.compile(tree);
+
+        EquationFunction function = BytecodeCompiler.compile(program);
+
+        assertNotSame(program, function);
+        for (double x = -3; x <= 3; x += 0.5) {
+            double[] variables = {x, x * 7 + 1, 4.0};
+            assertEquals(program.evaluate(variables), function.evaluate(variables));
+        }
+    }
+
+    @Test
+    void testCompile_LoweredProgramMatchesInterpreter() {
+        ExpressionTreeNode tree = node("+",
+                node("*", leaf("3"), node("^", leaf("x"), leaf("2"))),
+                node("+", node("^", leaf("x"), leaf("5")), node("/", leaf("y"), leaf("8"))));
+        EquationProgram program = EquationCompiler.compileOptimized(tree, true);
+
+        EquationFunction function = BytecodeCompiler.compile(program);
+
+        for (double x = -3; x <= 3; x += 0.25) {
+            double[] variables = {x, x * 3 - 1};
+            assertEquals(program.evaluate(variables), function.evaluate(variables));
+        }
+    }
+
+    @Test
+    void testCompile_ConstantExpression() {
+        EquationFunction function = BytecodeCompiler.compile(EquationCompiler.compile(node("*", leaf("6"), leaf("7"))));
+
+        assertEquals(42.0, function.evaluate(new double[0]));
+    }
+
+    @Test
+    void testCompile_DivisionByZero() {
+        EquationFunction function = BytecodeCompiler.compile(EquationCompiler.compile(node("/", leaf("x"), leaf("y"))));
+
+        assertThrows(DivisionByZeroException.class, () -> function.evaluate(new double[]{1.0, 0.0}));
+    }
+
+    @Test
+    void testCompile_OversizedProgramFallsBackToInterpreter() {
+        // VAR x is aload_1, iconst_0, daload and each ADD one more byte, plus the final dreturn
+        EquationProgram largest = EquationCompiler.compile(ExpressionParser.parse("x" + "+x".repeat(1974)));
+        EquationProgram oversized = EquationCompiler.compile(ExpressionParser.parse("x" + "+x".repeat(1975)));
+
+        assertEquals(BytecodeCompiler.MAX_CODE_BYTES, BytecodeCompiler.codeBytes(largest));
+        assertTrue(BytecodeCompiler.canCompile(largest));
+        assertEquals(1975.0, BytecodeCompiler.compile(largest).evaluate(new double[]{1}));
+        assertFalse(BytecodeCompiler.canCompile(oversized));
+        assertSame(oversized, BytecodeCompiler.compile(oversized));
+    }
+}
@@ -0,0 +1,112 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.exception.DivisionByZeroException;
+import com.sreeram.algebraic.equation.expression.ExpressionParser;
+import com.sreeram.algebraic.equation.expression.InfixRenderer;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationCodecTest {
+
+    private static final List<String> EQUATIONS = List.of(
+            "3x^3 + 2x^2 - 5x + 7",
+            "3x + 2y - 7z + 1.5",
+            "(x + y)^2 - 4xy",
+            "x/(y - 2) + z^0.5",
+            "2x^5y + 17",
+            "x*y + z",
+            "6 * 7",
+            "(a+b)(c+d)/8");
+
+    private static double functionOf(EquationProgram program, double[] values) {
+        return program.normalForm() != null ? program.normalForm().evaluate(values) : program.evaluate(values);
+    }
+
+    private static double[] values(Random random, int count) {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextInt(9) - 4 + (random.nextBoolean() ? 0 : random.nextDouble());
+        }
+        return values;
+    }
+
+    @Test
+    void testRoundTrip_MatchesTreeForm() {
+        Random random = new Random(42);
+        for (String equation : EQUATIONS) {
+            ExpressionTreeNode tree = ExpressionParser.parse(equation);
+            EquationProgram program = EquationCompiler.compileOptimized(tree, true);
+            String canonical = InfixRenderer.render(tree);
+
+            EncodedEquation view = EquationCodec.view(ByteBuffer.wrap(EquationCodec.encode(program, canonical)));
+            EquationProgram decoded = view.toProgram();
+
+            assertEquals(canonical, view.canonicalText(), equation);
+            assertEquals(program.size(), decoded.size(), equation);
+            for (int pc = 0; pc < program.size(); pc++) {
+                assertEquals(program.opcode(pc), decoded.opcode(pc), equation);
+                assertEquals(program.operand(pc), decoded.operand(pc), equation);
+            }
+            assertEquals(program.variableCount(), decoded.variableCount(), equation);
+            for (int slot = 0; slot < program.variableCount(); slot++) {
+                assertEquals(program.variableName(slot), view.variableName(slot), equation);
+            }
+            assertEquals(program.normalForm() == null ? null : program.normalForm().kind(), view.normalFormKind());
+            assertEquals(program.integerProgram() == null, decoded.integerProgram() == null, equation);
+
+            for (int trial = 0; trial < 200; trial++) {
+                double[] values = values(random, program.variableCount());
+                double expected;
+                try {
+                    expected = functionOf(program, values);
+                } catch (DivisionByZeroException e) {
+                    assertThrows(DivisionByZeroException.class, () -> view.evaluate(values));
+                    continue;
+                }
+                assertEquals(expected, view.evaluate(values), equation);
+                assertEquals(expected, functionOf(decoded, values), equation);
+                assertEquals(program.evaluate(values), decoded.evaluate(values), equation);
+                if (program.integerProgram() != null) {
+                    assertEquals(program.integerProgram().evaluate(values, true),
+                            decoded.integerProgram().evaluate(values, true), equation);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testView_ReadsInPlaceAtBufferPosition() {
+        EquationProgram program = EquationCompiler.compileOptimized(ExpressionParser.parse("2x + y"));
+        byte[] encoded = EquationCodec.encode(program, "2x+y");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(encoded.length + 10);
+        buffer.position(7).put(encoded).position(7);
+
+        EncodedEquation view = EquationCodec.view(buffer);
+
+        assertEquals(encoded.length, view.encodedLength());
+        assertEquals(encoded.length, EquationCodec.encodedLength(buffer));
+        assertEquals(7, buffer.position());
+        assertEquals("2x+y", view.canonicalText());
+        assertEquals(7.0, view.evaluate(new double[]{2.0, 3.0}));
+    }
+
+    @Test
+    void testView_RejectsForeignOrTruncatedInput() {
+        byte[] encoded = EquationCodec.encode(EquationCompiler.compileOptimized(ExpressionParser.parse("x+1")), "x+1");
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 1);
+        byte[] futureVersion = encoded.clone();
+        futureVersion[4] = EquationCodec.VERSION + 1;
+
+        assertThrows(IllegalArgumentException.class, () -> EquationCodec.view(ByteBuffer.wrap(new byte[64])));
+        assertThrows(IllegalArgumentException.class, () -> EquationCodec.view(ByteBuffer.wrap(truncated)));
+        assertThrows(IllegalArgumentException.class, () -> EquationCodec.view(ByteBuffer.wrap(futureVersion)));
+        assertThrows(IllegalArgumentException.class, () -> EquationCodec.view(ByteBuffer.wrap(new byte[3])));
+    }
+}
@@ -0,0 +1,157 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.exception.DivisionByZeroException;
+import com.sreeram.algebraic.equation.exception.VariableNotFoundException;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationCompilerTest {
+
+    private ExpressionTreeNode node(String value, ExpressionTreeNode left, ExpressionTreeNode right) {
+        ExpressionTreeNode node = new ExpressionTreeNode(value);
+        node.setLeft(left);
+        node.setRight(right);
+        return node;
+    }
+
+    private ExpressionTreeNode leaf(String value) {
+        return new ExpressionTreeNode(value);
+    }
+
+    @Test
+    void testCompile_PostfixLayout() {
+        ExpressionTreeNode tree = node("+", node("*", leaf("2"), leaf("x")), leaf("y"));
+
+        EquationProgram program = EquationCompiler.compile(tree);
+
+        assertEquals(5, program.size());
+        assertEquals(EquationProgram.CONST, program.opcode(0));
+        assertEquals(EquationProgram.VAR, program.opcode(1));
+        assertEquals(EquationProgram.MUL, program.opcode(2));
+        assertEquals(EquationProgram.VAR, program.opcode(3));
+        assertEquals(EquationProgram.ADD, program.opcode(4));
+        assertEquals(2.0, program.constant(program.operand(0)));
+        assertEquals(2, program.variableCount());
+        assertEquals("x", program.variableName(0));
+        assertEquals("y", program.variableName(1));
+        assertEquals(2, program.maxStackDepth());
+    }
+
+    @Test
+    void testCompile_RepeatedVariableSharesSlot() {
+        ExpressionTreeNode tree = node("*", leaf("x"), node("+", leaf("x"), leaf("1")));
+
+        EquationProgram program = EquationCompiler.compile(tree);
+
+        assertEquals(1, program.variableCount());
+        assertEquals(12.0, program.evaluate(new double[]{3.0}));
+    }
+
+    @Test
+    void testEvaluate_WithVariableMap() {
+        ExpressionTreeNode tree = node("-", node("^", leaf("x"), leaf("2")), node("/", leaf("y"), leaf("4")));
+        Map<String, Double> variables = new HashMap<>();
+        variables.put("x", 3.0);
+        variables.put("y", 2.0);
+
+        EquationProgram program = EquationCompiler.compile(tree);
+
+        assertEquals(8.5, program.evaluate(variables));
+    }
+
+    @Test
+    void testEvaluate_MissingVariable() {
+        EquationProgram program = EquationCompiler.compile(node("+", leaf("x"), leaf("z")));
+        Map<String, Double> variables = new HashMap<>();
+        variables.put("x", 1.0);
+
+        VariableNotFoundException exception = assertThrows(VariableNotFoundException.class, () -> {
+            program.evaluate(variables);
+        });
+
+        assertTrue(exception.getMessage().contains("z"));
+    }
+
+    @Test
+    void testEvaluate_DivisionByZero() {
+        EquationProgram program = EquationCompiler.compile(node("/", leaf("x"), leaf("y")));
+
+        assertThrows(DivisionByZeroException.class, () -> {
+            program.evaluate(new double[]{1.0, 0.0});
+        });
+    }
+
+    @Test
+    void testEvaluate_ConstantOnly() {
+        EquationProgram program = EquationCompiler.compile(leaf("2.5"));
+
+        assertEquals(0, program.variableCount());
+        assertEquals(2.5, program.evaluate(new HashMap<>()));
+    }
+
+    @Test
+    void testCompileOptimized_LowersIntegerPowersOnlyWhenRelaxed() {
+        EquationProgram program = EquationCompiler.compileOptimized(node("^", leaf("x"), leaf("3")), true);
+
+        assertEquals(2, program.size());
+        assertEquals(EquationProgram.POWI, program.opcode(1));
+        assertEquals(3, program.operand(1));
+        assertEquals(15.625, program.evaluate(new double[]{2.5}));
+    }
+
+    @Test
+    void testCompileOptimized_HigherPowersMatchMathPowByDefault() {
+        EquationProgram program = EquationCompiler.compileOptimized(node("^", leaf("x"), leaf("3")));
+
+        assertEquals(EquationProgram.POW, program.opcode(2));
+        for (double x : new double[]{0.1, 1.1, -7.3, 1e100, 3.3}) {
+            assertEquals(Math.pow(x, 3), program.evaluate(new double[]{x}));
+        }
+    }
+
+    @Test
+    void testCompileOptimized_KeepsNonIntegerPowers() {
+        EquationProgram program = EquationCompiler.compileOptimized(node("^", leaf("x"), leaf("2.5")));
+
+        assertEquals(EquationProgram.POW, program.opcode(2));
+    }
+
+    @Test
+    void testCompileOptimized_SquareIsExact() {
+        EquationProgram program = EquationCompiler.compileOptimized(node("^", leaf("x"), leaf("2")));
+
+        for (double x : new double[]{0.1, -0.0, 1e200, Double.NaN, Double.NEGATIVE_INFINITY, 3.3}) {
+            assertEquals(Math.pow(x, 2), program.evaluate(new double[]{x}));
+        }
+    }
+
+    @Test
+    void testCompileOptimized_DivisionByPowerOfTwoBecomesMultiplication() {
+        EquationProgram halved = EquationCompiler.compileOptimized(node("/", leaf("x"), leaf("8")));
+        EquationProgram divided = EquationCompiler.compileOptimized(node("/", leaf("x"), leaf("3")));
+
+        assertEquals(EquationProgram.MUL, halved.opcode(2));
+        assertEquals(0.125, halved.constant(halved.operand(1)));
+        assertEquals(EquationProgram.DIV, divided.opcode(2));
+        assertEquals(1.0 / 8, halved.evaluate(new double[]{1.0}));
+    }
+
+    @Test
+    void testCompileOptimized_FusedMultiplyAddOnlyWhenRelaxed() {
+        ExpressionTreeNode tree = node("+", leaf("z"), node("*", leaf("x"), leaf("y")));
+
+        EquationProgram plain = EquationCompiler.compileOptimized(tree);
+        EquationProgram fused = EquationCompiler.compileOptimized(tree, true);
+
+        assertEquals(EquationProgram.ADD, plain.opcode(plain.size() - 1));
+        assertEquals(EquationProgram.FMA, fused.opcode(fused.size() - 1));
+        assertEquals(3, fused.maxStackDepth());
+        double[] values = {1.0, 0.1, 0.1};
+        assertEquals(Math.fma(0.1, 0.1, 1.0), fused.evaluate(values));
+    }
+}
@@ -0,0 +1,150 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.exception.DivisionByZeroException;
+import com.sreeram.algebraic.equation.exception.VariableNotFoundException;
+import com.sreeram.algebraic.equation.expression.ExpressionParser;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpressionOptimizerTest {
+
+    private ExpressionTreeNode optimize(String equation) {
+        return ExpressionOptimizer.optimize(ExpressionParser.parse(equation));
+    }
+
+    @Test
+    void testOptimize_FoldsConstantSubtrees() {
+        ExpressionTreeNode tree = optimize("2*3*x + (4^2)y");
+
+        assertEquals("+", tree.getValue());
+        assertEquals("6.0", tree.getLeft().getLeft().getValue());
+        assertEquals("16.0", tree.getRight().getLeft().getValue());
+    }
+
+    @Test
+    void testOptimize_RemovesIdentities() {
+        assertEquals("x", optimize("x*1").getValue());
+        assertEquals("x", optimize("1*x").getValue());
+        assertEquals("x", optimize("x/1").getValue());
+        assertEquals("x", optimize("x^1").getValue());
+        assertEquals("x", optimize("x-0").getValue());
+        assertEquals("1.0", optimize("(x+y)^0").getValue());
+    }
+
+    @Test
+    void testOptimize_KeepsRewritesThatAreNotExact() {
+        assertEquals("+", optimize("x+0").getValue());
+        assertEquals("*", optimize("x*0").getValue());
+        assertEquals("-", optimize("x-x").getValue());
+    }
+
+    @Test
+    void testOptimize_ReassociatesPowersOfTwo() {
+        ExpressionTreeNode tree = optimize("x*2*4");
+
+        assertEquals("*", tree.getValue());
+        assertEquals("x", tree.getLeft().getValue());
+        assertEquals("8.0", tree.getRight().getValue());
+    }
+
+    @Test
+    void testOptimize_DoesNotReassociateInexactConstants() {
+        ExpressionTreeNode tree = optimize("x*3*5");
+
+        assertEquals("*", tree.getLeft().getValue());
+        assertEquals("5", tree.getRight().getValue());
+    }
+
+    @Test
+    void testOptimize_KeepsDivisionByZero() {
+        EquationProgram constant = EquationCompiler.compileOptimized(ExpressionParser.parse("1/0"));
+        EquationProgram powered = EquationCompiler.compileOptimized(ExpressionParser.parse("(1/y)^0"));
+
+        assertThrows(DivisionByZeroException.class, () -> constant.evaluate(new double[0]));
+        assertThrows(DivisionByZeroException.class, () -> powered.evaluate(new double[]{0.0}));
+    }
+
+    @Test
+    void testCompileOptimized_EliminatedVariableStillRequired() {
+        EquationProgram program = EquationCompiler.compileOptimized(ExpressionParser.parse("x^0 + y"));
+        Map<String, Double> variables = new HashMap<>();
+        variables.put("y", 2.0);
+
+        assertEquals(3, program.size());
+        assertEquals(2, program.variableCount());
+        assertThrows(VariableNotFoundException.class, () -> program.evaluate(variables));
+
+        variables.put("x", Double.NaN);
+        assertEquals(3.0, program.evaluate(variables));
+    }
+
+    @Test
+    void testOptimize_DoesNotModifyInput() {
+        ExpressionTreeNode tree = ExpressionParser.parse("2*3*x");
+
+        ExpressionOptimizer.optimize(tree);
+
+        assertEquals("*", tree.getLeft().getValue());
+        assertEquals("2", tree.getLeft().getLeft().getValue());
+    }
+
+    @Test
+    void testOptimize_MatchesUnoptimizedBitForBit() {
+        Random random = new Random(11);
+        double[] samples = {0.0, -0.0, 1.0, -1.0, 0.5, 3.0, 1e308, -1e308, Double.MIN_VALUE,
+                Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+        for (int i = 0; i < 2000; i++) {
+            ExpressionTreeNode tree = randomTree(random, 4);
+            EquationProgram plain = EquationCompiler.compile(tree);
+            EquationProgram optimized = EquationCompiler.compile(ExpressionOptimizer.optimize(tree))
+                    .withVariableOrder(List.of(plainVariables(plain)));
+
+            for (int j = 0; j < 20; j++) {
+                double[] values = new double[plain.variableCount()];
+                for (int k = 0; k < values.length; k++) {
+                    values[k] = samples[random.nextInt(samples.length)];
+                }
+                assertSameOutcome(plain, optimized, values);
+            }
+        }
+    }
+
+    private void assertSameOutcome(EquationProgram plain, EquationProgram optimized, double[] values) {
+        double expected;
+        try {
+            expected = plain.evaluate(values);
+        } catch (DivisionByZeroException e) {
+            assertThrows(DivisionByZeroException.class, () -> optimized.evaluate(values));
+            return;
+        }
+        assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(optimized.evaluate(values)));
+    }
+
+    private String[] plainVariables(EquationProgram program) {
+        String[] names = new String[program.variableCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = program.variableName(i);
+        }
+        return names;
+    }
+
+    private ExpressionTreeNode randomTree(Random random, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            String[] leaves = {"x", "y", "0", "1", "2", "4", "3", "0.5"};
+            return new ExpressionTreeNode(leaves[random.nextInt(leaves.length)]);
+        }
+        String[] operators = {"+", "-", "*", "/", "^"};
+        ExpressionTreeNode node = new ExpressionTreeNode(operators[random.nextInt(operators.length)]);
+        node.setLeft(randomTree(random, depth - 1));
+        node.setRight(randomTree(random, depth - 1));
+        return node;
+    }
+}
@@ -0,0 +1,96 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.expression.ExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntegerProgramTest {
+
+    private IntegerProgram compile(String equation) {
+        return EquationCompiler.compileOptimized(ExpressionParser.parse(equation)).integerProgram();
+    }
+
+    @Test
+    void testCompile_OnlyForIntegerOnlyEquations() {
+        assertNotNull(compile("3x^2 + 2y - 7"));
+        assertNull(compile("x/2"));
+        assertNull(compile("2.5x"));
+        assertNull(compile("x + 99999999999999999999"));
+    }
+
+    @Test
+    void testEvaluate_ExactAbovePrecisionOfDouble() {
+        IntegerProgram program = compile("x * 3 + 1");
+
+        assertEquals(27_021_597_764_222_977L, program.evaluate(new double[]{9_007_199_254_740_992.0}, false));
+    }
+
+    @Test
+    void testEvaluate_NonIntegralBindingFallsBack() {
+        assertNull(compile("x + 1").evaluate(new double[]{1.5}, false));
+        assertNull(compile("x + 1").evaluate(new double[]{Double.NaN}, false));
+        assertNull(compile("x + 1").evaluate(new double[]{1e19}, false));
+    }
+
+    @Test
+    void testEvaluate_OverflowFallsBackOrWidens() {
+        IntegerProgram program = compile("x^5");
+
+        assertNull(program.evaluate(new double[]{10_000_000}, false));
+        assertEquals(BigInteger.TEN.pow(35), program.evaluate(new double[]{10_000_000}, true));
+        assertEquals(100_000L, program.evaluate(new double[]{10}, true));
+    }
+
+    @Test
+    void testEvaluate_NegativeExponentFallsBack() {
+        IntegerProgram program = compile("2^x");
+
+        assertNull(program.evaluate(new double[]{-1}, true));
+        assertEquals(1L, program.evaluate(new double[]{0}, false));
+    }
+
+    @Test
+    void testEvaluate_UnitBasesWithLargeExponents() {
+        IntegerProgram program = compile("x^y + 0");
+
+        assertEquals(-1L, program.evaluate(new double[]{-1, 1e15 + 1}, false));
+        assertEquals(0L, program.evaluate(new double[]{0, 1e15}, false));
+    }
+
+    @Test
+    void testEvaluate_CapsBigIntegerSize() {
+        IntegerProgram power = compile("x^y + 0");
+        IntegerProgram product = compile("x^y * x^y");
+
+        assertEquals(BigInteger.TWO.pow(1000), power.evaluate(new double[]{2, 1000}, true));
+        assertNull(power.evaluate(new double[]{3, 200_000}, true));
+        // 3^100000 has about 158,500 bits, past the cap although 100000 * (bitLength - 1) is under it
+        assertNull(power.evaluate(new double[]{3, 100_000}, true));
+        assertEquals(BigInteger.valueOf(3).pow(65_536), power.evaluate(new double[]{3, 65_536}, true));
+        assertNull(power.evaluate(new double[]{-2, 200_000}, true));
+        assertNull(product.evaluate(new double[]{2, 100_000}, true));
+    }
+
+    @Test
+    void testEvaluate_OnlyChecksBoundSlots() {
+        assertEquals(3L, compile("x + 1").evaluate(new double[]{2, 1.5}, false));
+    }
+
+    @Test
+    void testWithVariableOrder_KeepsIntegerProgram() {
+        EquationProgram program = EquationCompiler.compileOptimized(ExpressionParser.parse("x*x - y*y"))
+                .withVariableOrder(List.of("y", "x"));
+
+        assertEquals(200_000_001L, program.integerProgram().evaluate(new double[]{100_000_000, 100_000_001}, false));
+    }
+
+    @Test
+    void testPowExact_Overflow() {
+        assertEquals(1L << 62, IntegerProgram.powExact(2, 62));
+        assertThrows(ArithmeticException.class, () -> IntegerProgram.powExact(2, 63));
+    }
+}
@@ -0,0 +1,137 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.expression.ExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NormalFormsTest {
+
+    private EquationProgram compile(String equation) {
+        return EquationCompiler.compileOptimized(ExpressionParser.parse(equation));
+    }
+
+    @Test
+    void testDetect_LinearForm() {
+        EquationProgram program = compile("3x + y/2 - 7z + 5");
+
+        LinearForm form = assertInstanceOf(LinearForm.class, program.normalForm());
+        assertEquals("linear", form.kind());
+        assertEquals(3, form.terms());
+        assertEquals(3.0, form.coefficient(0));
+        assertEquals(0.5, form.coefficient(1));
+        assertEquals(-7.0, form.coefficient(2));
+        assertEquals(5.0, form.constant());
+        assertEquals(program.evaluate(new double[]{1, 2, 3}), form.evaluate(new double[]{1, 2, 3}));
+    }
+
+    @Test
+    void testDetect_SingleScaledVariable() {
+        LinearForm form = assertInstanceOf(LinearForm.class, compile("x*4 - 1").normalForm());
+
+        assertEquals(1, form.terms());
+        assertEquals(4.0, form.coefficient(0));
+        assertEquals(-1.0, form.constant());
+    }
+
+    @Test
+    void testDetect_RejectsReorderedArithmetic() {
+        // Distributing, merging or moving terms changes rounding, overflow and cancellation
+        assertNull(compile("3(x - 1)").normalForm());
+        assertNull(compile("3(x + y)").normalForm());
+        assertNull(compile("2x(x + 1) - x^2/4").normalForm());
+        assertNull(compile("3x + 2y + (y - 1)/2").normalForm());
+        assertNull(compile("x + 1 + x").normalForm());
+        assertNull(compile("x + y + x").normalForm());
+        assertNull(compile("7 + 3x").normalForm());
+        assertNull(compile("x/3 + y").normalForm());
+        assertNull(compile("2(3x) + y").normalForm());
+        assertNull(compile("x + 0.0").normalForm());
+    }
+
+    @Test
+    void testEvaluate_BitIdenticalToProgram() {
+        String[] equations = {"3x - 3", "x/8 + 0.1", "3x + 3y", "0.1x + 0.2y - 0.3z + 0.7", "x + y + z",
+                "y*4 - x/4"};
+        double[] samples = {1 + Math.ulp(1.0), 1e308, -1e308, 0.1, -0.0, 3.3, 1e-300, Double.NaN,
+                Double.POSITIVE_INFINITY, -7.25, 123456789.125};
+        for (String equation : equations) {
+            EquationProgram program = compile(equation);
+            NormalForm form = assertInstanceOf(NormalForm.class, program.normalForm());
+            for (double x : samples) {
+                for (double y : samples) {
+                    double[] values = {x, y, -x * 0.5};
+                    assertEquals(Double.doubleToLongBits(program.evaluate(values)),
+                            Double.doubleToLongBits(form.evaluate(values)), equation + " at " + x + ", " + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDetect_RejectsOtherShapes() {
+        assertNull(compile("3x^3 + 2x^2 - 5x + 7").normalForm());
+        assertNull(compile("x^2 + y").normalForm());
+        assertNull(compile("(x + 1)^2").normalForm());
+        assertNull(compile("(x + 1)(x - 1)").normalForm());
+        assertNull(compile("xy + 1").normalForm());
+        assertNull(compile("x/y").normalForm());
+        assertNull(compile("1/x").normalForm());
+        assertNull(compile("x^2.5").normalForm());
+        assertNull(compile("2^3").normalForm());
+    }
+
+    @Test
+    void testDetect_PlainCompileHasNoForm() {
+        assertNull(EquationCompiler.compile(ExpressionParser.parse("3x + 1")).normalForm());
+        assertNull(EquationCompiler.compileOptimized(ExpressionParser.parse("3x + 1"), true).normalForm());
+    }
+
+    @Test
+    void testEvaluateColumns_MatchesRowEvaluation() {
+        EquationProgram linear = compile("4x - y + 0.5z + 3");
+        int rows = 257;
+        double[] x = new double[rows];
+        double[] y = new double[rows];
+        double[] z = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = i * 0.1 - 12;
+            y[i] = i * 3.0;
+            z[i] = -i;
+        }
+
+        double[] columnResults = linear.normalForm().evaluateColumns(new double[][]{x, y, z}, rows);
+        double[] batchResults = new ScalarBatchEvaluator().evaluate(linear, new double[][]{x, y, z}, rows);
+
+        for (int i = 0; i < rows; i++) {
+            assertEquals(linear.normalForm().evaluate(new double[]{x[i], y[i], z[i]}), columnResults[i]);
+            assertEquals(columnResults[i], batchResults[i]);
+        }
+    }
+
+    @Test
+    void testWithVariableOrder_RemapsForm() {
+        EquationProgram program = compile("3x + 2y").withVariableOrder(List.of("y", "x"));
+
+        assertEquals(13.0, program.normalForm().evaluate(new double[]{2, 3}));
+    }
+
+    @Test
+    void testDetect_EliminatedVariableKeepsSlot() {
+        EquationProgram program = compile("2y + x^0");
+
+        assertEquals(2, program.variableCount());
+        assertEquals(7.0, program.normalForm().evaluate(new double[]{3, Double.NaN}));
+    }
+
+    @Test
+    void testFunctionFor_UsesNormalForm() {
+        EquationProgram program = compile("2x + 3y");
+
+        try (TieredCompilation tiering = new TieredCompilation(TieredCompilation.Mode.TIERED, 1000)) {
+            assertSame(program.normalForm(), tiering.functionFor(1L, program));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.sreeram.algebraic.equation.engine;
+
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredCompilationTest {
+
+    private TieredCompilation tieredCompilation;
+
+    @AfterEach
+    void tearDown() {
+        if (tieredCompilation != null) {
+            tieredCompilation.close();
+        }
+    }
+
+    private EquationProgram program() {
+        ExpressionTreeNode tree = new ExpressionTreeNode("*");
+        tree.setLeft(new ExpressionTreeNode("x"));
+        tree.setRight(new ExpressionTreeNode("3"));
+        return EquationCompiler.compile(tree);
+    }
+
+    private void awaitTier(TieredFunction function, TieredFunction.Tier tier) throws InterruptedException {
+        for (int i = 0; i < 500 && function.tier() != tier; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(tier, function.tier());
+    }
+
+    @Test
+    void testTiered_PromotesAfterThreshold() throws InterruptedException {
+        tieredCompilation = new TieredCompilation(TieredCompilation.Mode.TIERED, 3);
+        TieredFunction function = (TieredFunction) tieredCompilation.functionFor(1L, program());
+
+        assertEquals(6.0, function.evaluate(new double[]{2.0}));
+        assertEquals(6.0, function.evaluate(new double[]{2.0}));
+        assertEquals(TieredFunction.Tier.INTERPRETED, function.tier());
+
+        assertEquals(6.0, function.evaluate(new double[]{2.0}));
+        awaitTier(function, TieredFunction.Tier.COMPILED);
+
+        assertEquals(12.0, function.evaluate(new double[]{4.0}));
+        TieredCompilation.Snapshot snapshot = tieredCompilation.snapshot();
+        assertEquals(1, snapshot.compiled());
+        assertEquals(0, snapshot.interpreted());
+        assertEquals(1L, snapshot.recentPromotions().get(0).equationId());
+    }
+
+    @Test
+    void testTiered_ColdFunctionStaysInterpreted() {
+        tieredCompilation = new TieredCompilation(TieredCompilation.Mode.TIERED, 1000);
+        TieredFunction function = (TieredFunction) tieredCompilation.functionFor(1L, program());
+
+        for (int i = 0; i < 10; i++) {
+            function.evaluate(new double[]{1.0});
+        }
+
+        assertEquals(TieredFunction.Tier.INTERPRETED, function.tier());
+        assertEquals(1, tieredCompilation.snapshot().interpreted());
+    }
+
+    @Test
+    void testRelease_LeavesCountsAndSkipsPromotion() throws InterruptedException {
+        tieredCompilation = new TieredCompilation(TieredCompilation.Mode.TIERED, 1);
+        TieredFunction compiled = (TieredFunction) tieredCompilation.functionFor(1L, program());
+        TieredFunction cold = (TieredFunction) tieredCompilation.functionFor(2L, program());
+        compiled.evaluate(new double[]{1.0});
+        awaitTier(compiled, TieredFunction.Tier.COMPILED);
+
+        tieredCompilation.release(compiled);
+        tieredCompilation.release(cold);
+        tieredCompilation.release(cold);
+
+        assertEquals(TieredFunction.Tier.RELEASED, cold.tier());
+        assertEquals(6.0, cold.evaluate(new double[]{2.0}));
+        assertEquals(6.0, compiled.evaluate(new double[]{2.0}));
+        assertEquals(TieredFunction.Tier.RELEASED, cold.tier());
+        TieredCompilation.Snapshot snapshot = tieredCompilation.snapshot();
+        assertEquals(0, snapshot.compiled());
+        assertEquals(0, snapshot.interpreted());
+        assertEquals(2, snapshot.released());
+    }
+
+    @Test
+    void testSnapshot_CountsAddUpWhileFunctionsMove() throws InterruptedException {
+        tieredCompilation = new TieredCompilation(TieredCompilation.Mode.TIERED, 1);
+        int functions = 200;
+        Thread mover = new Thread(() -> {
+            for (long id = 1; id <= functions; id++) {
+                TieredFunction function = (TieredFunction) tieredCompilation.functionFor(id, program());
+                function.evaluate(new double[]{1.0});
+                if (id % 2 == 0) {
+                    tieredCompilation.release(function);
+                }
+            }
+        });
+        mover.start();
+
+        while (mover.isAlive()) {
+            TieredCompilation.Snapshot snapshot = tieredCompilation.snapshot();
+            assertTrue(snapshot.interpreted() >= 0);
+            assertTrue(snapshot.queued() >= 0);
+            assertTrue(snapshot.interpreted() + snapshot.queued() + snapshot.compiled() + snapshot.failed()
+                    + snapshot.released() <= functions);
+        }
+        mover.join();
+
+        TieredCompilation.Snapshot snapshot = tieredCompilation.snapshot();
+        assertEquals(functions / 2, snapshot.released());
+        assertEquals(functions / 2, snapshot.interpreted() + snapshot.queued() + snapshot.compiled()
+                + snapshot.failed());
+    }
+
+    @Test
+    void testInterpreterMode_ReturnsProgram() {
+        tieredCompilation = new TieredCompilation(TieredCompilation.Mode.INTERPRETER, 1);
+        EquationProgram program = program();
+
+        assertSame(program, tieredCompilation.functionFor(1L, program));
+    }
+
+    @Test
+    void testThreshold_RejectsNonPositive() {
+        tieredCompilation = new TieredCompilation(TieredCompilation.Mode.TIERED, 10);
+
+        assertThrows(IllegalArgumentException.class, () -> tieredCompilation.setThreshold(0));
+        assertThrows(IllegalArgumentException.class, () -> TieredCompilation.Mode.of("jit"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.sreeram.algebraic.equation.expression;
+
+import com.sreeram.algebraic.equation.engine.EquationProgram;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactTreeTest {
+
+    private CompactTree compact(String equation) {
+        return CompactTree.of(ExpressionParser.parse(equation));
+    }
+
+    @Test
+    void testOf_PostOrderArrays() {
+        CompactTree tree = compact("2.5x - y");
+
+        assertEquals(5, tree.size());
+        assertEquals(4, tree.root());
+        assertEquals(EquationProgram.SUB, tree.opcode(tree.root()));
+        assertEquals(EquationProgram.CONST, tree.opcode(0));
+        assertEquals(2.5, tree.literal(0));
+        assertEquals(EquationProgram.VAR, tree.opcode(1));
+        assertTrue(Double.isNaN(tree.literal(1)));
+        assertEquals(EquationProgram.MUL, tree.opcode(2));
+        assertEquals(0, tree.left(2));
+        assertEquals(1, tree.right(2));
+        assertTrue(tree.isLeaf(3));
+        assertEquals("y", tree.text(3));
+        assertEquals("-", tree.text(4));
+    }
+
+    @Test
+    void testOf_KeepsLiteralText() {
+        CompactTree tree = compact("2.50 * 007");
+
+        assertEquals("2.50", tree.text(0));
+        assertEquals(7.0, tree.literal(1));
+        assertEquals("2.50*007", InfixRenderer.render(tree.view()));
+    }
+
+    @Test
+    void testOf_RepeatedLeavesAndSubtreesStoredOnce() {
+        CompactTree repeated = compact("x * x + x");
+        CompactTree shared = compact("(x + y) * (x + y)");
+
+        assertEquals(3, repeated.size());
+        assertEquals(repeated.left(1), repeated.right(1));
+        assertEquals(repeated.left(1), repeated.right(repeated.root()));
+        assertEquals("xx+x", InfixRenderer.render(repeated.view()));
+        assertEquals(4, shared.size());
+        assertEquals(shared.left(shared.root()), shared.right(shared.root()));
+    }
+
+    @Test
+    void testView_RendersLikeTheTree() {
+        String[] equations = {"3x^2 + 2x - 5", "(x + y)(x - y)/z", "x - (y - z)", "x^(y^z)", "2(x+1)^3 - 4/(y*z)", "7"};
+
+        for (String equation : equations) {
+            ExpressionTreeNode tree = ExpressionParser.parse(equation);
+            ExpressionTreeNode view = CompactTree.of(tree).view();
+
+            assertEquals(InfixRenderer.render(tree), InfixRenderer.render(view));
+            assertEquals(tree.isLeaf(), view.isLeaf());
+            assertEquals(tree.isOperator(), view.isOperator());
+        }
+    }
+
+    @Test
+    void testView_IsReadOnly() {
+        ExpressionTreeNode view = compact("x + 1").view();
+
+        assertEquals("+", view.getValue());
+        assertEquals("1", view.getRight().getValue());
+        assertNull(view.getLeft().getLeft());
+        assertThrows(IllegalStateException.class, () -> view.setValue("-"));
+        assertThrows(IllegalStateException.class, () -> view.getLeft().setLeft(null));
+    }
+
+    @Test
+    void testOf_LongChainWithoutRecursion() {
+        String equation = "x" + "+y".repeat(50_000);
+        ExpressionTreeNode tree = ExpressionParser.parse(equation);
+
+        CompactTree compact = CompactTree.of(tree);
+
+        assertEquals(50_002, compact.size());
+        assertEquals(InfixRenderer.render(tree), InfixRenderer.render(compact.view()));
+        assertTrue(compact.estimatedBytes() < 10L * compact.size());
+    }
+}
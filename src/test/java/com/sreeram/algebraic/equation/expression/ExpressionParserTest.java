@@ -0,0 +1,164 @@
+package com.sreeram.algebraic.equation.expression;
+
+import com.sreeram.algebraic.equation.exception.InvalidEquationException;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpressionParserTest {
+
+    private String postfix(ExpressionTreeNode node) {
+        if (node.isLeaf()) {
+            return node.getValue();
+        }
+        return postfix(node.getLeft()) + " " + postfix(node.getRight()) + " " + node.getValue();
+    }
+
+    private String parse(String equation) {
+        return postfix(ExpressionParser.parse(equation));
+    }
+
+    @Test
+    void testParse_Precedence() {
+        assertEquals("x y z * +", parse("x + y * z"));
+        assertEquals("x y + z *", parse("(x + y) * z"));
+        assertEquals("x 2 ^ 3 *", parse("x ^ 2 * 3"));
+    }
+
+    @Test
+    void testParse_Associativity() {
+        assertEquals("x y - z -", parse("x - y - z"));
+        assertEquals("x y / z /", parse("x / y / z"));
+        assertEquals("x y z ^ ^", parse("x ^ y ^ z"));
+    }
+
+    @Test
+    void testParse_ImplicitMultiplication() {
+        assertEquals("2 x *", parse("2x"));
+        assertEquals("x y *", parse("xy"));
+        assertEquals("x 2 *", parse("x2"));
+        assertEquals("3 x y + *", parse("3(x + y)"));
+        assertEquals("x 1 + y 2 + *", parse("(x + 1)(y + 2)"));
+        assertEquals("x y + z *", parse("(x + y)z"));
+        assertEquals("2 x 2 ^ *", parse("2x^2"));
+        assertEquals("x 2 ^ y *", parse("x^2y"));
+        assertEquals("2.5 x *", parse("2.5x"));
+    }
+
+    @Test
+    void testParse_WhitespaceIsIgnoredAroundOperators() {
+        assertEquals(parse("2*x+3*y"), parse("  2 * x   +  3 * y "));
+    }
+
+    @Test
+    void testParse_WhitespaceSeparatedOperandsRejected() {
+        InvalidEquationException exception = assertThrows(InvalidEquationException.class, () -> parse("2 x"));
+
+        assertTrue(exception.getMessage().contains("position 2"));
+    }
+
+    @Test
+    void testParse_UnclosedParenthesis() {
+        InvalidEquationException exception = assertThrows(InvalidEquationException.class, () -> parse("3 + (x + y"));
+
+        assertTrue(exception.getMessage().contains("Unclosed '(' at position 4"));
+    }
+
+    @Test
+    void testParse_UnexpectedCharacter() {
+        InvalidEquationException exception = assertThrows(InvalidEquationException.class, () -> parse("x + $"));
+
+        assertEquals("Unexpected '$' at position 4", exception.getMessage());
+    }
+
+    @Test
+    void testParse_DanglingOperator() {
+        InvalidEquationException exception = assertThrows(InvalidEquationException.class, () -> parse("x +"));
+
+        assertTrue(exception.getMessage().contains("end of equation"));
+    }
+
+    @Test
+    void testParse_InvalidNumber() {
+        InvalidEquationException exception = assertThrows(InvalidEquationException.class, () -> parse("1.2.3x"));
+
+        assertTrue(exception.getMessage().contains("'1.2.3' at position 0"));
+    }
+
+    @Test
+    void testParse_UnaryMinusRejected() {
+        assertThrows(InvalidEquationException.class, () -> parse("-x"));
+    }
+
+    @Test
+    void testParse_LongChainWithoutRecursion() throws Throwable {
+        String equation = "x" + "+x".repeat(50_000);
+
+        onSmallStack(() -> {
+            ExpressionTreeNode node = ExpressionParser.parse(equation);
+            int depth = 0;
+            while (!node.isLeaf()) {
+                assertEquals("+", node.getValue());
+                node = node.getLeft();
+                depth++;
+            }
+            assertEquals(50_000, depth);
+        });
+    }
+
+    @Test
+    void testParse_LongPowerChainIsRightAssociative() throws Throwable {
+        String equation = "x" + "^x".repeat(50_000);
+
+        onSmallStack(() -> {
+            ExpressionTreeNode node = ExpressionParser.parse(equation);
+            int depth = 0;
+            while (!node.isLeaf()) {
+                assertEquals("x", node.getLeft().getValue());
+                node = node.getRight();
+                depth++;
+            }
+            assertEquals(50_000, depth);
+        });
+    }
+
+    @Test
+    void testParse_DeeplyNestedParentheses() throws Throwable {
+        String equation = "(".repeat(100_000) + "x" + ")".repeat(100_000);
+
+        onSmallStack(() -> assertEquals("x", ExpressionParser.parse(equation).getValue()));
+        InvalidEquationException exception = assertThrows(InvalidEquationException.class,
+                () -> parse("(".repeat(1000) + "x" + ")".repeat(999)));
+        assertEquals("Unclosed '(' at position 0", exception.getMessage());
+    }
+
+    @Test
+    void testValidate_ReportsWhatParseReports() {
+        for (String equation : new String[]{"2 x", "3 + (x + y", "x + $", "x +", "1.2.3x", "-x", "(x))", "x(", "()", ""}) {
+            InvalidEquationException parsed = assertThrows(InvalidEquationException.class, () -> parse(equation));
+            InvalidEquationException validated = assertThrows(InvalidEquationException.class,
+                    () -> ExpressionParser.validate(equation));
+            assertEquals(parsed.getMessage(), validated.getMessage(), equation);
+        }
+
+        assertDoesNotThrow(() -> ExpressionParser.validate("3x^2 + (x + 1)(y - 2) / z"));
+        assertDoesNotThrow(() -> ExpressionParser.validate("(".repeat(100_000) + "x" + ")".repeat(100_000)));
+    }
+
+    private static void onSmallStack(Runnable task) throws Throwable {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        }, "small-stack", 256 * 1024);
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+}
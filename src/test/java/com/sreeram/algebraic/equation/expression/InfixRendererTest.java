@@ -0,0 +1,68 @@
+package com.sreeram.algebraic.equation.expression;
+
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InfixRendererTest {
+
+    private String roundTrip(String equation) {
+        return InfixRenderer.render(ExpressionParser.parse(equation));
+    }
+
+    @Test
+    void testRender_ImplicitMultiplication() {
+        assertEquals("2x+3y", roundTrip("2 * x + 3 * y"));
+        assertEquals("(x+y)z", roundTrip("(x + y) * z"));
+        assertEquals("3(x+y)", roundTrip("3 * (x + y)"));
+        assertEquals("(x+1)(y+1)", roundTrip("(x+1)*(y+1)"));
+        assertEquals("x*2", roundTrip("x * 2"));
+        assertEquals("2*3", roundTrip("2 * 3"));
+    }
+
+    @Test
+    void testRender_ParenthesesOnlyWhereNeeded() {
+        assertEquals("x-(y-z)", roundTrip("x - (y - z)"));
+        assertEquals("x-y-z", roundTrip("(x - y) - z"));
+        assertEquals("x/(yz)", roundTrip("x / (y * z)"));
+        assertEquals("x^(y^z)", roundTrip("x ^ (y ^ z)"));
+        assertEquals("x^2y", roundTrip("x^2 * y"));
+    }
+
+    @Test
+    void testRender_ImplicitMultiplicationLooksThroughLeftSpine() {
+        assertEquals("2x^2", roundTrip("2 * x^2"));
+        assertEquals("2(x+1)^2", roundTrip("2 * (x+1)^2"));
+        assertEquals("x*2y", roundTrip("x * (2 * y)"));
+    }
+
+    @Test
+    void testRender_Null() {
+        assertEquals("", InfixRenderer.render(null));
+    }
+
+    @Test
+    void testRenderTo_StreamsToWriter() throws IOException {
+        StringWriter writer = new StringWriter();
+
+        InfixRenderer.renderTo(ExpressionParser.parse("3x + 2y - z"), writer);
+
+        assertEquals("3x+2y-z", writer.toString());
+    }
+
+    @Test
+    void testRender_LargeTreeInLinearTime() {
+        String equation = "x" + "+2y".repeat(500_000);
+        ExpressionTreeNode tree = ExpressionParser.parse(equation);
+
+        long start = System.nanoTime();
+        String rendered = InfixRenderer.render(tree);
+
+        assertEquals(equation, rendered);
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+    }
+}
@@ -0,0 +1,85 @@
+package com.sreeram.algebraic.equation.expression;
+
+import com.sreeram.algebraic.equation.engine.EquationCompiler;
+import com.sreeram.algebraic.equation.exception.InvalidEquationException;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParseCacheTest {
+
+    private final AtomicInteger parses = new AtomicInteger();
+
+    private ParsedEquation parse(String equation) {
+        parses.incrementAndGet();
+        ExpressionTreeNode tree = ExpressionParser.parse(equation);
+        return new ParsedEquation(tree, equation, EquationCompiler.compile(tree));
+    }
+
+    @Test
+    void testGet_HitSkipsParsing() {
+        ParseCache cache = new ParseCache(100, 1_000_000);
+
+        ParsedEquation first = cache.get("x+y", this::parse);
+        ParsedEquation second = cache.get("x+y", this::parse);
+
+        assertSame(first, second);
+        assertEquals(1, parses.get());
+        ParseCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.entries());
+        assertTrue(stats.estimatedBytes() > 0);
+    }
+
+    @Test
+    void testGet_EvictsBeyondEntryBudget() {
+        ParseCache cache = new ParseCache(16, 1_000_000);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.get("x+" + i, this::parse);
+        }
+
+        ParseCache.Stats stats = cache.stats();
+        assertTrue(stats.entries() <= 16);
+        assertEquals(1000 - stats.entries(), stats.evictions());
+    }
+
+    @Test
+    void testGet_EvictsBeyondMemoryBudget() {
+        ParseCache cache = new ParseCache(1_000_000, 16 * 2_000);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.get("x*y+z-" + i, this::parse);
+        }
+
+        ParseCache.Stats stats = cache.stats();
+        assertTrue(stats.estimatedBytes() <= stats.maxBytes());
+        assertTrue(stats.evictions() > 0);
+    }
+
+    @Test
+    void testGet_FailuresAreNotCached() {
+        ParseCache cache = new ParseCache(100, 1_000_000);
+
+        assertThrows(InvalidEquationException.class, () -> cache.get("x+", this::parse));
+        assertThrows(InvalidEquationException.class, () -> cache.get("x+", this::parse));
+
+        assertEquals(2, parses.get());
+        assertEquals(0, cache.stats().entries());
+    }
+
+    @Test
+    void testGet_DisabledCacheAlwaysParses() {
+        ParseCache cache = new ParseCache(0, 1_000_000);
+
+        cache.get("x+y", this::parse);
+        cache.get("x+y", this::parse);
+
+        assertEquals(2, parses.get());
+        assertFalse(cache.stats().enabled());
+    }
+}
@@ -0,0 +1,61 @@
+package com.sreeram.algebraic.equation.expression;
+
+import com.sreeram.algebraic.equation.exception.InvalidEquationException;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostOrderTest {
+
+    private final PostOrder.Fold<String> postfix = new PostOrder.Fold<>() {
+        @Override
+        public String leaf(ExpressionTreeNode leaf) {
+            return leaf.getValue();
+        }
+
+        @Override
+        public String node(ExpressionTreeNode node, String left, String right) {
+            return left + " " + right + " " + node.getValue();
+        }
+    };
+
+    @Test
+    void testFold_VisitsInPostfixOrder() {
+        ExpressionTreeNode tree = ExpressionParser.parse("(a+b)*c-d^e");
+
+        assertEquals("a b + c * d e ^ -", PostOrder.fold(tree, postfix));
+    }
+
+    @Test
+    void testFold_SingleLeaf() {
+        assertEquals("x", PostOrder.fold(new ExpressionTreeNode("x"), postfix));
+    }
+
+    @Test
+    void testFold_MissingChild() {
+        ExpressionTreeNode tree = new ExpressionTreeNode("+");
+        tree.setLeft(new ExpressionTreeNode("x"));
+
+        assertThrows(InvalidEquationException.class, () -> PostOrder.fold(tree, postfix));
+    }
+
+    @Test
+    void testFold_DeepTree() {
+        ExpressionTreeNode tree = ExpressionParser.parse("x" + "*x".repeat(200_000));
+
+        int leaves = PostOrder.fold(tree, new PostOrder.Fold<Integer>() {
+            @Override
+            public Integer leaf(ExpressionTreeNode leaf) {
+                return 1;
+            }
+
+            @Override
+            public Integer node(ExpressionTreeNode node, Integer left, Integer right) {
+                return left + right;
+            }
+        });
+
+        assertEquals(200_001, leaves);
+    }
+}
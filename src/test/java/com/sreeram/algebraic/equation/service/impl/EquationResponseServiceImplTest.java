@@ -1,18 +1,40 @@
 package com.sreeram.algebraic.equation.service.impl;
 
+import com.sreeram.algebraic.equation.config.EngineConfiguration;
+import com.sreeram.algebraic.equation.config.EquationProperties;
+import com.sreeram.algebraic.equation.engine.TieredCompilation;
 import com.sreeram.algebraic.equation.exception.DivisionByZeroException;
 import com.sreeram.algebraic.equation.exception.EquationNotFoundException;
 import com.sreeram.algebraic.equation.exception.InvalidEquationException;
+import com.sreeram.algebraic.equation.exception.InvalidPageRequestException;
+import com.sreeram.algebraic.equation.exception.InvalidVariableBindingException;
 import com.sreeram.algebraic.equation.exception.VariableNotFoundException;
+import com.sreeram.algebraic.equation.expression.ParseCache;
+import com.sreeram.algebraic.equation.model.BatchEvaluationRequest;
+import com.sreeram.algebraic.equation.model.BatchEvaluationResponse;
+import com.sreeram.algebraic.equation.model.EquationChanges;
+import com.sreeram.algebraic.equation.model.EquationPage;
 import com.sreeram.algebraic.equation.model.EquationResponse;
 import com.sreeram.algebraic.equation.model.EvaluationRequest;
 import com.sreeram.algebraic.equation.model.EvaluationResponse;
+import com.sreeram.algebraic.equation.model.PreparedEquationResponse;
+import com.sreeram.algebraic.equation.model.PreparedEvaluationResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +42,9 @@ class EquationResponseServiceImplTest {
 
     private EquationServiceImpl equationService;
 
+    @TempDir
+    Path storageDirectory;
+
     @BeforeEach
     void setUp() {
         equationService = new EquationServiceImpl();
@@ -87,6 +112,122 @@ class EquationResponseServiceImplTest {
         assertNotEquals(result1.getEquationId(), result2.getEquationId());
     }
 
+    @Test
+    void testStoreEquation_ReturnedResponseIsNotStoredState() {
+        EquationResponse stored = equationService.storeEquation("x + y");
+        stored.setEquation("tampered");
+        stored.setEquationId(42L);
+
+        List<EquationResponse> result = equationService.getAllEquations();
+
+        assertEquals(1L, result.get(0).getEquationId());
+        assertEquals("x+y", result.get(0).getEquation());
+    }
+
+    @Test
+    void testStoreEquation_RepeatedTextReusesParse() {
+        EquationProperties properties = new EquationProperties();
+        TieredCompilation tieredCompilation = EngineConfiguration.tieredCompilation(properties.getEvaluation());
+        ParseCache parseCache = EngineConfiguration.parseCache(properties.getParseCache());
+        EquationServiceImpl service = new EquationServiceImpl(properties, tieredCompilation, parseCache,
+                EngineConfiguration.equationStorage(properties.getStorage()),
+                EngineConfiguration.equationTable(properties.getRegistry(), tieredCompilation),
+                EngineConfiguration.equationExpiry(properties.getRegistry()));
+
+        try {
+            EquationResponse first = service.storeEquation("2x + 3y");
+            EquationResponse second = service.storeEquation("  2x + 3y ");
+
+            assertNotEquals(first.getEquationId(), second.getEquationId());
+            assertEquals(first.getEquation(), second.getEquation());
+            assertEquals(1, parseCache.stats().hits());
+            // The parse is shared, so the tree handed out must not let one caller change it for the next
+            assertThrows(IllegalStateException.class, () -> first.getExpressionTree().getLeft().setValue("-"));
+            assertEquals("2x+3y", service.storeEquation("2x + 3y").getEquation());
+            assertEquals("+", second.getExpressionTree().getValue());
+        } finally {
+            tieredCompilation.close();
+        }
+    }
+
+    @Test
+    void testEvaluateEquation_IntegerArithmetic() {
+        equationService.storeEquation("x * 3 + 1");
+        Map<String, Double> variables = new HashMap<>();
+        variables.put("x", 9_007_199_254_740_992.0);
+
+        EvaluationResponse response = equationService.evaluateEquation(1L, new EvaluationRequest(variables));
+
+        assertEquals("long", response.getArithmetic());
+        assertEquals(new BigInteger("27021597764222977"), response.getExactResult());
+    }
+
+    @Test
+    void testEvaluateEquation_DoubleArithmeticForFractions() {
+        equationService.storeEquation("x * 3 + 1");
+        Map<String, Double> variables = new HashMap<>();
+        variables.put("x", 0.5);
+
+        EvaluationResponse response = equationService.evaluateEquation(1L, new EvaluationRequest(variables));
+
+        assertEquals("double", response.getArithmetic());
+        assertNull(response.getExactResult());
+        assertEquals(2.5, response.getResult());
+    }
+
+    @Test
+    void testEvaluateEquation_OverflowToBigInteger() {
+        equationService.storeEquation("x^3");
+        Map<String, Double> variables = new HashMap<>();
+        variables.put("x", 10_000_000.0);
+        EvaluationRequest request = new EvaluationRequest(variables);
+
+        assertEquals("double", equationService.evaluateEquation(1L, request).getArithmetic());
+
+        request.setOverflow("big-integer");
+        EvaluationResponse response = equationService.evaluateEquation(1L, request);
+
+        assertEquals("big-integer", response.getArithmetic());
+        assertEquals(BigInteger.TEN.pow(21), response.getExactResult());
+    }
+
+    @Test
+    void testEvaluateEquation_UnknownOverflowMode() {
+        equationService.storeEquation("x + 1");
+        Map<String, Double> variables = new HashMap<>();
+        variables.put("x", 1.0);
+        EvaluationRequest request = new EvaluationRequest(variables);
+        request.setOverflow("wrap");
+
+        assertThrows(InvalidVariableBindingException.class, () -> equationService.evaluateEquation(1L, request));
+    }
+
+    @Test
+    void testStoreEquation_DeepChainWithoutRecursion() throws Throwable {
+        String equation = "x" + "+x".repeat(20_000) + "-y";
+        Map<String, Double> variables = new HashMap<>();
+        variables.put("x", 1.0);
+        variables.put("y", 0.5);
+
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                EquationResponse stored = equationService.storeEquation(equation);
+                assertEquals(equation, stored.getEquation());
+                assertEquals(20_000.5, equationService.evaluateEquation(stored.getEquationId(),
+                        new EvaluationRequest(variables)).getResult());
+                assertEquals(equation, equationService.getAllEquations().get(0).getEquation());
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        }, "small-stack", 256 * 1024);
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
     @Test
     void testGetAllEquations_EmptyList() {
         List<EquationResponse> result = equationService.getAllEquations();
@@ -108,6 +249,316 @@ class EquationResponseServiceImplTest {
         assertEquals("2x+3y+z", result.get(0).getEquation());
     }
 
+    @Test
+    void testGetAllEquations_ReusesInfixRenderedAtStore() {
+        EquationResponse stored = equationService.storeEquation("2*x + 3*y + z");
+        Map<String, Double> variables = new HashMap<>();
+        variables.put("x", 1.0);
+        variables.put("y", 1.0);
+        variables.put("z", 1.0);
+
+        assertSame(stored.getEquation(), equationService.getAllEquations().get(0).getEquation());
+        assertSame(stored.getEquation(), equationService.evaluateEquation(stored.getEquationId(),
+                new EvaluationRequest(variables)).getEquation());
+    }
+
+    @Test
+    void testGetEquations_PagesInIdOrder() {
+        for (String equation : List.of("x", "2y", "x+y", "xy", "z")) {
+            equationService.storeEquation(equation);
+        }
+
+        EquationPage first = equationService.getEquations(null, 2);
+        EquationPage second = equationService.getEquations(first.getNextCursor(), 2);
+        EquationPage last = equationService.getEquations(second.getNextCursor(), 2);
+
+        assertEquals(List.of(1L, 2L), first.getEquations().stream().map(EquationResponse::getEquationId).toList());
+        assertEquals(2L, first.getNextCursor());
+        assertEquals(List.of(3L, 4L), second.getEquations().stream().map(EquationResponse::getEquationId).toList());
+        assertEquals(List.of(5L), last.getEquations().stream().map(EquationResponse::getEquationId).toList());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void testGetEquations_LimitIsCappedAtMaxPageSize() {
+        EquationProperties properties = new EquationProperties();
+        properties.getListing().setMaxPageSize(2);
+        EquationServiceImpl service = new EquationServiceImpl(properties);
+        for (int i = 0; i < 3; i++) {
+            service.storeEquation("x+" + i);
+        }
+
+        EquationPage page = service.getEquations(null, 50);
+
+        assertEquals(2, page.getEquations().size());
+        assertEquals(2L, page.getNextCursor());
+    }
+
+    @Test
+    void testGetEquations_InvalidLimitOrCursor() {
+        assertThrows(InvalidPageRequestException.class, () -> equationService.getEquations(null, 0));
+        assertThrows(InvalidPageRequestException.class, () -> equationService.getEquations(-1L, 10));
+    }
+
+    @Test
+    void testGetChangesSince_OnlyNewEquations() {
+        equationService.storeEquation("x + y");
+        long seen = equationService.getVersion();
+        EquationResponse added = equationService.storeEquation("2*z");
+
+        EquationChanges changes = equationService.getChangesSince(seen);
+
+        assertFalse(changes.isReset());
+        assertEquals(equationService.getVersion(), changes.getVersion());
+        assertEquals(1, changes.getAdded().size());
+        assertEquals(added.getEquationId(), changes.getAdded().get(0).getEquationId());
+        assertEquals("2z", changes.getAdded().get(0).getEquation());
+        assertTrue(changes.getRemoved().isEmpty());
+    }
+
+    @Test
+    void testGetChangesSince_NegativeVersion() {
+        assertThrows(InvalidPageRequestException.class, () -> equationService.getChangesSince(-1L));
+    }
+
+    @Test
+    void testStorage_EquationsSurviveRestart() {
+        EquationProperties properties = new EquationProperties();
+        properties.getStorage().setDirectory(storageDirectory.toString());
+        EquationServiceImpl first = new EquationServiceImpl(properties);
+        first.storeEquation("2*x + 3*y");
+        EquationResponse second = first.storeEquation("(x + y) * z");
+        long versionBeforeRestart = first.getVersion();
+
+        EquationServiceImpl restarted = new EquationServiceImpl(properties);
+        Map<String, Double> variables = new HashMap<>();
+        variables.put("x", 1.0);
+        variables.put("y", 2.0);
+        variables.put("z", 3.0);
+
+        assertEquals(2, restarted.getAllEquations().size());
+        assertEquals("(x+y)z", restarted.getAllEquations().get(1).getEquation());
+        assertEquals(9.0, restarted.evaluateEquation(second.getEquationId(), new EvaluationRequest(variables)).getResult());
+        assertEquals(3L, restarted.storeEquation("z").getEquationId());
+        assertTrue(restarted.getVersion() > versionBeforeRestart);
+        assertTrue(restarted.getChangesSince(versionBeforeRestart - 1).isReset());
+    }
+
+    @Test
+    void testMappedRegistry_StoresListsAndEvaluates() {
+        EquationProperties properties = new EquationProperties();
+        properties.getStorage().setDirectory(storageDirectory.toString());
+        properties.getRegistry().setBackend("mapped");
+        EquationServiceImpl service = new EquationServiceImpl(properties);
+        service.storeEquation("2*x + 3*y");
+        EquationResponse second = service.storeEquation("(x + y) * z");
+        Map<String, Double> variables = new HashMap<>();
+        variables.put("x", 1.0);
+        variables.put("y", 2.0);
+        variables.put("z", 3.0);
+
+        EvaluationResponse result = service.evaluateEquation(second.getEquationId(), new EvaluationRequest(variables));
+        PreparedEquationResponse prepared = service.prepareEquation(second.getEquationId(), List.of("z", "y", "x"));
+
+        assertEquals(9.0, result.getResult());
+        assertEquals("long", result.getArithmetic());
+        assertEquals("(x+y)z", result.getEquation());
+        assertEquals(List.of("2x+3y", "(x+y)z"),
+                service.getAllEquations().stream().map(EquationResponse::getEquation).toList());
+        assertEquals(9.0, service.evaluatePrepared(prepared.getHandleId(), new double[]{3, 2, 1}).getResult());
+
+        EquationServiceImpl restarted = new EquationServiceImpl(properties);
+        assertEquals(8.0, restarted.evaluateEquation(1L, new EvaluationRequest(variables)).getResult());
+        assertEquals(1L, restarted.getEquations(null, 1).getNextCursor());
+    }
+
+    @Test
+    void testDeleteEquation_RemovesEntryAndPreparedHandles() {
+        EquationResponse stored = equationService.storeEquation("x + y");
+        EquationResponse kept = equationService.storeEquation("x - y");
+        PreparedEquationResponse prepared = equationService.prepareEquation(stored.getEquationId(), List.of("x", "y"));
+        PreparedEquationResponse other = equationService.prepareEquation(kept.getEquationId(), List.of("x", "y"));
+        long version = equationService.getVersion();
+
+        equationService.deleteEquation(stored.getEquationId());
+
+        assertThrows(EquationNotFoundException.class,
+                () -> equationService.evaluateEquation(stored.getEquationId(), new EvaluationRequest(Map.of("x", 1.0, "y", 2.0))));
+        assertThrows(EquationNotFoundException.class,
+                () -> equationService.evaluatePrepared(prepared.getHandleId(), new double[]{1, 2}));
+        assertEquals(-1.0, equationService.evaluatePrepared(other.getHandleId(), new double[]{1, 2}).getResult());
+        assertEquals(List.of("x-y"), equationService.getAllEquations().stream().map(EquationResponse::getEquation).toList());
+        assertEquals(List.of(stored.getEquationId()), equationService.getChangesSince(version).getRemoved());
+        assertThrows(EquationNotFoundException.class, () -> equationService.deleteEquation(stored.getEquationId()));
+    }
+
+    @Test
+    void testDeleteEquation_SurvivesRestart() {
+        EquationProperties properties = new EquationProperties();
+        properties.getStorage().setDirectory(storageDirectory.toString());
+        EquationServiceImpl first = new EquationServiceImpl(properties);
+        first.storeEquation("x");
+        first.storeEquation("y");
+        first.deleteEquation(1L);
+
+        EquationServiceImpl restarted = new EquationServiceImpl(properties);
+
+        assertEquals(List.of("y"), restarted.getAllEquations().stream().map(EquationResponse::getEquation).toList());
+        assertEquals(3L, restarted.storeEquation("z").getEquationId());
+    }
+
+    @Test
+    void testStoreEquation_ExpiresAfterTtl() throws InterruptedException {
+        EquationProperties properties = new EquationProperties();
+        properties.getStorage().setDirectory(storageDirectory.toString());
+        properties.getRegistry().setExpirySweepMillis(20);
+        EquationServiceImpl service = new EquationServiceImpl(properties);
+        EquationResponse expiring = service.storeEquation("x + 1", 1L);
+        service.storeEquation("x + 2");
+        PreparedEquationResponse prepared = service.prepareEquation(expiring.getEquationId(), List.of("x"));
+        long version = service.getVersion();
+
+        assertNotNull(expiring.getExpiresAt());
+        assertEquals(2.0, service.evaluatePrepared(prepared.getHandleId(), new double[]{1}).getResult());
+        Thread.sleep(Math.max(0, expiring.getExpiresAt() - System.currentTimeMillis()) + 10);
+        assertThrows(EquationNotFoundException.class,
+                () -> service.evaluateEquation(expiring.getEquationId(), new EvaluationRequest(Map.of("x", 1.0))));
+        assertEquals(1, service.getAllEquations().size());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.getVersion() == version && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(expiring.getEquationId()), service.getChangesSince(version).getRemoved());
+        assertThrows(EquationNotFoundException.class,
+                () -> service.evaluatePrepared(prepared.getHandleId(), new double[]{1}));
+        assertEquals(List.of("x+2"), new EquationServiceImpl(properties).getAllEquations().stream()
+                .map(EquationResponse::getEquation).toList());
+    }
+
+    @Test
+    void testStoreEquation_TtlSurvivesRestart() {
+        EquationProperties properties = new EquationProperties();
+        properties.getStorage().setDirectory(storageDirectory.toString());
+        EquationResponse stored = new EquationServiceImpl(properties).storeEquation("x", 3600L);
+
+        List<EquationResponse> restored = new EquationServiceImpl(properties).getAllEquations();
+
+        assertEquals(1, restored.size());
+        assertEquals(stored.getExpiresAt(), restored.get(0).getExpiresAt());
+    }
+
+    @Test
+    void testStoreEquation_RejectsInvalidTtl() {
+        assertThrows(InvalidEquationException.class, () -> equationService.storeEquation("x", 0L));
+        assertThrows(InvalidEquationException.class, () -> equationService.storeEquation("x", Long.MAX_VALUE));
+        assertEquals(0, equationService.getAllEquations().size());
+    }
+
+    @Test
+    void testLazyIngestion_CompilesOnFirstEvaluation() {
+        EquationProperties properties = new EquationProperties();
+        properties.getIngestion().setMode("lazy");
+        EquationServiceImpl service = new EquationServiceImpl(properties);
+
+        EquationResponse stored = service.storeEquation("  2*x + 3*y ");
+        InvalidEquationException invalid = assertThrows(InvalidEquationException.class, () -> service.storeEquation("x + $"));
+        EvaluationResponse result = service.evaluateEquation(stored.getEquationId(), new EvaluationRequest(Map.of("x", 1.0, "y", 2.0)));
+
+        assertNull(stored.getExpressionTree());
+        assertEquals("2*x + 3*y", stored.getEquation());
+        assertEquals("Unexpected '$' at position 4", invalid.getMessage());
+        assertEquals(8.0, result.getResult());
+        assertEquals("2x+3y", result.getEquation());
+        assertEquals(List.of("2x+3y"), service.getAllEquations().stream().map(EquationResponse::getEquation).toList());
+        assertEquals(2L, service.storeEquation("z").getEquationId());
+    }
+
+    @Test
+    void testLazyIngestion_RacingFirstCallsCompileOnce() throws Exception {
+        EquationProperties properties = new EquationProperties();
+        properties.getIngestion().setMode("lazy");
+        TieredCompilation tieredCompilation = EngineConfiguration.tieredCompilation(properties.getEvaluation());
+        EquationServiceImpl service = new EquationServiceImpl(properties, tieredCompilation,
+                EngineConfiguration.parseCache(properties.getParseCache()),
+                EngineConfiguration.equationStorage(properties.getStorage()),
+                EngineConfiguration.equationTable(properties.getRegistry(), tieredCompilation),
+                EngineConfiguration.equationExpiry(properties.getRegistry()));
+        Long equationId = service.storeEquation("x / y + z").getEquationId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Double>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return service.evaluateEquation(equationId,
+                            new EvaluationRequest(Map.of("x", 6.0, "y", 4.0, "z", 1.0))).getResult();
+                }));
+            }
+            start.countDown();
+            for (Future<Double> result : results) {
+                assertEquals(2.5, result.get());
+            }
+        } finally {
+            executor.shutdown();
+            tieredCompilation.close();
+        }
+
+        assertEquals(1, tieredCompilation.snapshot().interpreted());
+    }
+
+    @Test
+    void testLazyIngestion_MappedRegistrySurvivesRestart() {
+        EquationProperties properties = new EquationProperties();
+        properties.getStorage().setDirectory(storageDirectory.toString());
+        properties.getRegistry().setBackend("mapped");
+        properties.getIngestion().setMode("lazy");
+        EquationServiceImpl first = new EquationServiceImpl(properties);
+        first.storeEquation("x^2 + 1");
+        first.storeEquation("(x + 1)(x - 1)");
+        assertEquals(10.0, first.evaluateEquation(1L, new EvaluationRequest(Map.of("x", 3.0))).getResult());
+
+        EquationServiceImpl restarted = new EquationServiceImpl(properties);
+
+        assertEquals(8.0, restarted.evaluateEquation(2L, new EvaluationRequest(Map.of("x", 3.0))).getResult());
+        assertEquals(List.of("x^2 + 1", "(x+1)(x-1)"),
+                restarted.getAllEquations().stream().map(EquationResponse::getEquation).toList());
+    }
+
+    @Test
+    void testIngestion_UnknownModeRejected() {
+        EquationProperties properties = new EquationProperties();
+        properties.getIngestion().setMode("deferred");
+
+        assertThrows(IllegalArgumentException.class, () -> new EquationServiceImpl(properties));
+    }
+
+    @Test
+    void testStreamEquations_NdjsonFromCursor() throws Exception {
+        equationService.storeEquation("2*x + 3*y");
+        equationService.storeEquation("(x + y) * z");
+        equationService.storeEquation("x - y");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        equationService.streamEquations(1L, 1, out);
+
+        assertEquals("{\"equationId\":2,\"equation\":\"(x+y)z\"}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testStreamEquations_WholeStore() throws Exception {
+        equationService.storeEquation("x");
+        equationService.storeEquation("y");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        equationService.streamEquations(null, null, out);
+
+        assertEquals("{\"equationId\":1,\"equation\":\"x\"}\n{\"equationId\":2,\"equation\":\"y\"}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
     @Test
     void testGetAllEquations_MultipleEquations() {
         String equation1 = "x + y + z";
@@ -564,5 +1015,181 @@ class EquationResponseServiceImplTest {
             equationService.evaluateEquation(stored.getEquationId(), request);
         });
     }
-}
 
+    @Test
+    void testPrepareEquation_EvaluatesWithPositionalValues() {
+        EquationResponse stored = equationService.storeEquation("2x + 3y - z");
+
+        PreparedEquationResponse prepared = equationService.prepareEquation(stored.getEquationId(), List.of("z", "y", "x"));
+        PreparedEvaluationResponse result = equationService.evaluatePrepared(prepared.getHandleId(), new double[]{4.0, 3.0, 2.0});
+
+        assertNotNull(prepared.getHandleId());
+        assertEquals(stored.getEquationId(), prepared.getEquationId());
+        assertEquals(List.of("z", "y", "x"), prepared.getVariables());
+        assertEquals(9.0, result.getResult());
+    }
+
+    @Test
+    void testPrepareEquation_ExtraVariablesAreIgnored() {
+        EquationResponse stored = equationService.storeEquation("x * y");
+
+        PreparedEquationResponse prepared = equationService.prepareEquation(stored.getEquationId(), List.of("w", "x", "y"));
+        PreparedEvaluationResponse result = equationService.evaluatePrepared(prepared.getHandleId(), new double[]{100.0, 3.0, 5.0});
+
+        assertEquals(15.0, result.getResult());
+    }
+
+    @Test
+    void testPrepareEquation_MissingVariable() {
+        EquationResponse stored = equationService.storeEquation("x + y");
+
+        VariableNotFoundException exception = assertThrows(VariableNotFoundException.class, () -> {
+            equationService.prepareEquation(stored.getEquationId(), List.of("x"));
+        });
+
+        assertTrue(exception.getMessage().contains("y"));
+    }
+
+    @Test
+    void testPrepareEquation_DuplicateVariable() {
+        EquationResponse stored = equationService.storeEquation("x + y");
+
+        assertThrows(InvalidVariableBindingException.class, () -> {
+            equationService.prepareEquation(stored.getEquationId(), List.of("x", "y", "x"));
+        });
+    }
+
+    @Test
+    void testPrepareEquation_EquationNotFound() {
+        assertThrows(EquationNotFoundException.class, () -> {
+            equationService.prepareEquation(999L, List.of("x"));
+        });
+    }
+
+    @Test
+    void testEvaluatePrepared_WrongArity() {
+        EquationResponse stored = equationService.storeEquation("x + y");
+        PreparedEquationResponse prepared = equationService.prepareEquation(stored.getEquationId(), List.of("x", "y"));
+
+        assertThrows(InvalidVariableBindingException.class, () -> {
+            equationService.evaluatePrepared(prepared.getHandleId(), new double[]{1.0});
+        });
+    }
+
+    @Test
+    void testReleasePrepared_RemovesHandle() {
+        EquationResponse stored = equationService.storeEquation("x + y");
+        PreparedEquationResponse prepared = equationService.prepareEquation(stored.getEquationId(), List.of("x", "y"));
+
+        equationService.releasePrepared(prepared.getHandleId());
+
+        assertThrows(EquationNotFoundException.class,
+                () -> equationService.evaluatePrepared(prepared.getHandleId(), new double[]{1, 2}));
+        assertThrows(EquationNotFoundException.class, () -> equationService.releasePrepared(prepared.getHandleId()));
+    }
+
+    @Test
+    void testPrepareEquation_EvictsOldestHandlesPastMaximum() {
+        EquationProperties properties = new EquationProperties();
+        properties.getEvaluation().setMaxPreparedHandles(2);
+        properties.getEvaluation().setTierThreshold(1_000_000);
+        EquationServiceImpl service = new EquationServiceImpl(properties);
+        EquationResponse stored = service.storeEquation("x * y + 1");
+
+        List<Long> handles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            handles.add(service.prepareEquation(stored.getEquationId(), List.of("x", "y")).getHandleId());
+        }
+
+        for (int i = 0; i < 3; i++) {
+            Long evicted = handles.get(i);
+            assertThrows(EquationNotFoundException.class, () -> service.evaluatePrepared(evicted, new double[]{2, 3}));
+        }
+        assertEquals(7.0, service.evaluatePrepared(handles.get(3), new double[]{2, 3}).getResult());
+        assertEquals(7.0, service.evaluatePrepared(handles.get(4), new double[]{2, 3}).getResult());
+    }
+
+    @Test
+    void testEvaluatePrepared_HandleNotFound() {
+        assertThrows(EquationNotFoundException.class, () -> {
+            equationService.evaluatePrepared(999L, new double[]{1.0});
+        });
+    }
+
+    @Test
+    void testEvaluateBatch_Success() {
+        EquationResponse stored = equationService.storeEquation("2x + 3y + z");
+
+        Map<String, double[]> columns = new HashMap<>();
+        columns.put("x", new double[]{2.0, 1.0, 0.0});
+        columns.put("y", new double[]{3.0, 1.0, 0.0});
+        columns.put("z", new double[]{4.0, 1.0, 5.0});
+
+        BatchEvaluationResponse result = equationService.evaluateBatch(stored.getEquationId(), new BatchEvaluationRequest(columns));
+
+        assertEquals(stored.getEquationId(), result.getEquationId());
+        assertEquals("2x+3y+z", result.getEquation());
+        assertEquals(3, result.getRowCount());
+        assertArrayEquals(new double[]{17.0, 6.0, 5.0}, result.getResults());
+    }
+
+    @Test
+    void testEvaluatePrepared_ExactLikeEvaluateButBatchIsDouble() {
+        EquationResponse stored = equationService.storeEquation("x*x - y*y");
+        double x = 100_000_001.0;
+        double y = 100_000_000.0;
+        Map<String, Double> variables = new HashMap<>();
+        variables.put("x", x);
+        variables.put("y", y);
+        Map<String, double[]> columns = new HashMap<>();
+        columns.put("x", new double[]{x});
+        columns.put("y", new double[]{y});
+
+        EvaluationResponse single = equationService.evaluateEquation(stored.getEquationId(), new EvaluationRequest(variables));
+        PreparedEquationResponse prepared = equationService.prepareEquation(stored.getEquationId(), List.of("y", "x"));
+        PreparedEvaluationResponse result = equationService.evaluatePrepared(prepared.getHandleId(), new double[]{y, x});
+        BatchEvaluationResponse batch = equationService.evaluateBatch(stored.getEquationId(), new BatchEvaluationRequest(columns));
+
+        assertEquals(200_000_001.0, single.getResult());
+        assertEquals(200_000_001.0, result.getResult());
+        assertEquals(x * x - y * y, batch.getResults()[0]);
+        assertNotEquals(200_000_001.0, batch.getResults()[0]);
+    }
+
+    @Test
+    void testEvaluateBatch_EquationNotFound() {
+        assertThrows(EquationNotFoundException.class, () -> {
+            equationService.evaluateBatch(999L, new BatchEvaluationRequest(new HashMap<>()));
+        });
+    }
+
+    @Test
+    void testEvaluateBatch_MissingVariable() {
+        EquationResponse stored = equationService.storeEquation("x + y");
+
+        Map<String, double[]> columns = new HashMap<>();
+        columns.put("x", new double[]{1.0});
+
+        assertThrows(VariableNotFoundException.class, () -> {
+            equationService.evaluateBatch(stored.getEquationId(), new BatchEvaluationRequest(columns));
+        });
+    }
+
+    @Test
+    void testEvaluateEquation_BytecodeMode() {
+        EquationProperties properties = new EquationProperties();
+        properties.getEvaluation().setMode("bytecode");
+        EquationServiceImpl bytecodeService = new EquationServiceImpl(properties);
+        EquationResponse stored = bytecodeService.storeEquation("2x^2 + 3y");
+
+        Map<String, Double> variables = new HashMap<>();
+        variables.put("x", 3.0);
+        variables.put("y", 2.0);
+
+        EvaluationResponse result = bytecodeService.evaluateEquation(stored.getEquationId(), new EvaluationRequest(variables));
+        PreparedEquationResponse prepared = bytecodeService.prepareEquation(stored.getEquationId(), List.of("x", "y"));
+
+        assertEquals(24.0, result.getResult());
+        assertEquals(24.0, bytecodeService.evaluatePrepared(prepared.getHandleId(), new double[]{3.0, 2.0}).getResult());
+    }
+}
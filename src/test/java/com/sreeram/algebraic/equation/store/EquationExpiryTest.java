@@ -0,0 +1,64 @@
+package com.sreeram.algebraic.equation.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationExpiryTest {
+
+    @Test
+    void testSweep_ExpiresDueEquationsInOrder() {
+        try (EquationExpiry expiry = new EquationExpiry(60_000)) {
+            List<Long> expired = new ArrayList<>();
+            expiry.start(expired::add);
+            expiry.schedule(3L, 300);
+            expiry.schedule(1L, 100);
+            expiry.schedule(2L, 200);
+            expiry.cancel(2L, 200);
+
+            expiry.sweep(250);
+            assertEquals(List.of(1L), expired);
+            assertEquals(1, expiry.pending());
+
+            expiry.sweep(300);
+            assertEquals(List.of(1L, 3L), expired);
+            assertEquals(0, expiry.pending());
+        }
+    }
+
+    @Test
+    void testSweep_FailedCallbackIsRetried() {
+        try (EquationExpiry expiry = new EquationExpiry(60_000)) {
+            List<Long> expired = new ArrayList<>();
+            boolean[] fail = {true};
+            expiry.start(equationId -> {
+                if (fail[0]) {
+                    throw new IllegalStateException("storage unavailable");
+                }
+                expired.add(equationId);
+            });
+            expiry.schedule(1L, 100);
+
+            expiry.sweep(100);
+            assertEquals(1, expiry.pending());
+
+            fail[0] = false;
+            expiry.sweep(100);
+            assertEquals(List.of(1L), expired);
+        }
+    }
+
+    @Test
+    void testSweep_NothingBeforeStart() {
+        try (EquationExpiry expiry = new EquationExpiry(60_000)) {
+            expiry.schedule(1L, 100);
+
+            expiry.sweep(100);
+
+            assertEquals(1, expiry.pending());
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.sreeram.algebraic.equation.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationRegistryTest {
+
+    private StoredEquation entry(long equationId) {
+        return new StoredEquation(equationId, "x", null, null, null);
+    }
+
+    @Test
+    void testRegister_AssignsSequentialIds() {
+        EquationRegistry registry = new EquationRegistry();
+
+        assertEquals(1L, registry.register(this::entry).getEquationId());
+        assertEquals(2L, registry.register(this::entry).getEquationId());
+        assertEquals(2, registry.size());
+        assertEquals("x", registry.get(2L).getEquation());
+        assertNull(registry.get(3L));
+        assertNull(registry.get(null));
+    }
+
+    @Test
+    void testGet_HidesExpiredEntries() {
+        EquationRegistry registry = new EquationRegistry();
+        long now = System.currentTimeMillis();
+        registry.register(equationId -> new StoredEquation(equationId, "x", null, null, null, now - 1));
+        registry.register(equationId -> new StoredEquation(equationId, "y", null, null, null, now + 60_000));
+
+        assertNull(registry.get(1L));
+        assertEquals("y", registry.get(2L).getEquation());
+        assertEquals(1L, registry.remove(1L).getEquationId());
+        assertEquals(List.of(1L), registry.changesSince(2).removed());
+    }
+
+    @Test
+    void testRegister_ConcurrentWritersGetUniqueIds() throws Exception {
+        EquationRegistry registry = new EquationRegistry();
+        int threads = 8;
+        int perThread = 2_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(registry.register(this::entry).getEquationId());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, ids.size());
+        assertEquals(threads * perThread, registry.size());
+        assertTrue(ids.contains(1L));
+        assertTrue(ids.contains((long) threads * perThread));
+    }
+
+    @Test
+    void testAfter_HoldsBackIdsPastOneStillRegistering() throws Exception {
+        EquationRegistry registry = new EquationRegistry();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<StoredEquation> slow = executor.submit(() -> registry.register(equationId -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return entry(equationId);
+            }));
+            started.await();
+            registry.register(this::entry);
+
+            assertEquals(2L, registry.get(2L).getEquationId());
+            assertTrue(registry.after(null).isEmpty());
+
+            release.countDown();
+            assertEquals(1L, slow.get().getEquationId());
+            assertEquals(List.of(1L, 2L), registry.after(null).stream().map(StoredEquation::getEquationId).toList());
+            assertEquals(2L, registry.version());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRegister_FailedFactoryDoesNotHoldBackLaterIds() {
+        EquationRegistry registry = new EquationRegistry();
+
+        assertThrows(IllegalStateException.class, () -> registry.register(equationId -> {
+            throw new IllegalStateException("not durable");
+        }));
+        registry.register(this::entry);
+
+        assertEquals(List.of(2L), registry.all().stream().map(StoredEquation::getEquationId).toList());
+        assertEquals(1L, registry.version());
+    }
+
+    @Test
+    void testRegister_FailedPutDoesNotHoldBackLaterChanges() {
+        HeapEquationTable heap = new HeapEquationTable();
+        EquationTable table = new EquationTable() {
+            @Override
+            public void put(StoredEquation stored) {
+                if (stored.getEquationId() == 2L) {
+                    throw new IllegalStateException("disk full");
+                }
+                heap.put(stored);
+            }
+
+            @Override
+            public boolean replace(StoredEquation stored) {
+                return heap.replace(stored);
+            }
+
+            @Override
+            public StoredEquation get(long equationId) {
+                return heap.get(equationId);
+            }
+
+            @Override
+            public StoredEquation remove(long equationId) {
+                return heap.remove(equationId);
+            }
+
+            @Override
+            public Collection<StoredEquation> after(Long cursor) {
+                return heap.after(cursor);
+            }
+
+            @Override
+            public int size() {
+                return heap.size();
+            }
+
+            @Override
+            public void clear() {
+                heap.clear();
+            }
+
+            @Override
+            public Stats stats() {
+                return heap.stats();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        EquationRegistry registry = new EquationRegistry(table, Long.MAX_VALUE);
+
+        registry.register(this::entry);
+        assertThrows(IllegalStateException.class, () -> registry.register(this::entry));
+        registry.register(this::entry);
+
+        assertEquals(List.of(1L, 3L), registry.all().stream().map(StoredEquation::getEquationId).toList());
+        assertEquals(3L, registry.version());
+        EquationRegistry.ChangeSet changes = registry.changesSince(1L);
+        assertTrue(changes.complete());
+        assertEquals(List.of(3L), changes.added().stream().map(StoredEquation::getEquationId).toList());
+    }
+
+    @Test
+    void testReplace_OnlyWhilePresent() {
+        EquationRegistry registry = new EquationRegistry();
+        registry.register(this::entry);
+
+        assertTrue(registry.replace(new StoredEquation(1L, "y", null, null, null)));
+        assertEquals("y", registry.get(1L).getEquation());
+        registry.remove(1L);
+        assertFalse(registry.replace(new StoredEquation(1L, "z", null, null, null)));
+        assertNull(registry.get(1L));
+    }
+
+    @Test
+    void testAll_OrderedById() {
+        EquationRegistry registry = new EquationRegistry();
+        for (int i = 0; i < 20; i++) {
+            registry.register(this::entry);
+        }
+
+        long previous = 0;
+        for (StoredEquation stored : registry.all()) {
+            assertTrue(stored.getEquationId() > previous);
+            previous = stored.getEquationId();
+        }
+    }
+
+    @Test
+    void testAfter_StartsPastCursor() {
+        EquationRegistry registry = new EquationRegistry();
+        for (int i = 0; i < 5; i++) {
+            registry.register(this::entry);
+        }
+
+        assertEquals(List.of(4L, 5L), registry.after(3L).stream().map(StoredEquation::getEquationId).toList());
+        assertEquals(5, registry.after(null).size());
+        assertTrue(registry.after(5L).isEmpty());
+    }
+
+    @Test
+    void testVersion_GrowsWithEveryChange() {
+        EquationRegistry registry = new EquationRegistry();
+        assertEquals(0L, registry.version());
+
+        registry.register(this::entry);
+        registry.register(this::entry);
+        registry.remove(1L);
+        registry.remove(1L);
+
+        assertEquals(3L, registry.version());
+    }
+
+    @Test
+    void testChangesSince_AddedAndRemoved() {
+        EquationRegistry registry = new EquationRegistry();
+        registry.register(this::entry);
+        registry.register(this::entry);
+        long seen = registry.version();
+        registry.register(this::entry);
+        registry.remove(1L);
+        registry.register(this::entry);
+        registry.remove(4L);
+
+        EquationRegistry.ChangeSet changes = registry.changesSince(seen);
+
+        assertTrue(changes.complete());
+        assertEquals(registry.version(), changes.version());
+        assertEquals(List.of(3L), changes.added().stream().map(StoredEquation::getEquationId).toList());
+        assertEquals(List.of(1L, 4L), changes.removed());
+        assertTrue(registry.changesSince(registry.version()).added().isEmpty());
+    }
+
+    @Test
+    void testChangesSince_UnknownVersionListsEverything() {
+        EquationRegistry registry = new EquationRegistry();
+        registry.register(this::entry);
+        long beforeClear = registry.version();
+        registry.clear();
+        registry.register(this::entry);
+        registry.register(this::entry);
+
+        EquationRegistry.ChangeSet stale = registry.changesSince(beforeClear);
+        EquationRegistry.ChangeSet future = registry.changesSince(registry.version() + 10);
+
+        assertFalse(stale.complete());
+        assertEquals(2, stale.added().size());
+        assertFalse(future.complete());
+        assertTrue(registry.version() > beforeClear);
+    }
+
+    @Test
+    void testClear_ResetsSequence() {
+        EquationRegistry registry = new EquationRegistry();
+        registry.register(this::entry);
+        registry.register(this::entry);
+
+        registry.clear();
+
+        assertEquals(0, registry.size());
+        assertEquals(1L, registry.register(this::entry).getEquationId());
+    }
+
+    @Test
+    void testChangesSince_HistoryIsBounded() {
+        EquationRegistry registry = new EquationRegistry(new HeapEquationTable(), 3);
+        registry.register(this::entry);
+        long trimmed = registry.version();
+        registry.register(this::entry);
+        long kept = registry.version();
+        registry.register(this::entry);
+        registry.register(this::entry);
+        registry.remove(2L);
+
+        assertFalse(registry.changesSince(trimmed).complete());
+        EquationRegistry.ChangeSet changes = registry.changesSince(kept);
+        assertTrue(changes.complete());
+        assertEquals(List.of(3L, 4L), changes.added().stream().map(StoredEquation::getEquationId).toList());
+        assertEquals(List.of(2L), changes.removed());
+    }
+}
@@ -0,0 +1,241 @@
+package com.sreeram.algebraic.equation.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationStorageTest {
+
+    @TempDir
+    Path directory;
+
+    private EquationStorage open(long snapshotInterval) {
+        return new EquationStorage(directory, true, snapshotInterval);
+    }
+
+    private List<String> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).filter(name -> name.startsWith(prefix)).toList();
+        }
+    }
+
+    private void awaitSnapshots(EquationStorage storage, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (storage.stats().snapshots() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(storage.stats().snapshots() >= count);
+    }
+
+    @Test
+    void testRecover_ReplaysLog() {
+        try (EquationStorage storage = open(1000)) {
+            assertTrue(storage.recover().equations().isEmpty());
+            storage.append(1L, "2x + 3y");
+            storage.append(2L, "(x+y)*z");
+        }
+
+        try (EquationStorage storage = open(1000)) {
+            EquationStorage.Recovery recovery = storage.recover();
+
+            assertEquals(2L, recovery.lastLsn());
+            assertEquals(2L, recovery.maxEquationId());
+            assertEquals("2x + 3y", recovery.equations().get(1L));
+            assertEquals("(x+y)*z", recovery.equations().get(2L));
+            storage.append(3L, "z");
+            assertEquals(3L, storage.stats().durableLsn());
+        }
+    }
+
+    @Test
+    void testRecover_TruncatesTornTail() throws IOException {
+        try (EquationStorage storage = open(1000)) {
+            storage.recover();
+            storage.append(1L, "x");
+            storage.append(2L, "y");
+        }
+        Path segment = WriteAheadLog.segmentPath(directory, 1);
+        long validBytes = Files.size(segment);
+        Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (EquationStorage storage = open(1000)) {
+            EquationStorage.Recovery recovery = storage.recover();
+
+            assertEquals(2, recovery.equations().size());
+            assertEquals(validBytes, Files.size(segment));
+        }
+    }
+
+    @Test
+    void testRecover_RejectsCorruptRecordBeforeNewestSegment() throws IOException {
+        try (EquationStorage storage = open(1000)) {
+            storage.recover();
+            storage.append(1L, "x");
+        }
+        try (EquationStorage storage = open(1000)) {
+            storage.recover();
+            storage.append(2L, "y");
+        }
+        Path first = WriteAheadLog.segmentPath(directory, 1);
+        byte[] bytes = Files.readAllBytes(first);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(first, bytes);
+
+        try (EquationStorage storage = open(1000)) {
+            assertThrows(RuntimeException.class, storage::recover);
+        }
+    }
+
+    @Test
+    void testSnapshot_CompactsClosedSegments() throws Exception {
+        try (EquationStorage storage = open(2)) {
+            storage.recover();
+            for (long id = 1; id <= 5; id++) {
+                storage.append(id, "x+" + id);
+            }
+            awaitSnapshots(storage, 2);
+        }
+
+        assertEquals(List.of("snapshot-00000000000000000004.dat"), files("snapshot-"));
+        assertEquals(List.of("wal-00000000000000000005.log"), files("wal-"));
+        try (EquationStorage storage = open(2)) {
+            EquationStorage.Recovery recovery = storage.recover();
+
+            assertEquals(5L, recovery.lastLsn());
+            assertEquals(5, recovery.equations().size());
+            assertEquals("x+4", recovery.equations().get(4L));
+        }
+    }
+
+    @Test
+    void testAppend_ConcurrentWritersShareGroupCommits() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        AtomicLong ids = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try (EquationStorage storage = open(1_000_000)) {
+            storage.recover();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        long id = ids.incrementAndGet();
+                        storage.append(id, "x^" + id);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            assertEquals(threads * perThread, storage.stats().durableLsn());
+            assertTrue(storage.stats().groupCommits() <= threads * perThread);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (EquationStorage storage = open(1_000_000)) {
+            EquationStorage.Recovery recovery = storage.recover();
+
+            assertEquals(threads * perThread, recovery.equations().size());
+            assertEquals("x^1600", recovery.equations().get(1600L));
+        }
+    }
+
+    @Test
+    void testRecover_AppliesRemovalsAndExpiries() {
+        long later = System.currentTimeMillis() + 3_600_000;
+        try (EquationStorage storage = open(1000)) {
+            storage.recover();
+            storage.append(1L, "x");
+            storage.append(2L, "y", later);
+            storage.append(3L, "z", System.currentTimeMillis() - 1);
+            storage.remove(1L);
+        }
+
+        try (EquationStorage storage = open(1000)) {
+            EquationStorage.Recovery recovery = storage.recover();
+
+            assertEquals(List.of(2L), List.copyOf(recovery.equations().keySet()));
+            assertEquals(later, recovery.expiries().get(2L));
+            assertEquals(1, recovery.expiries().size());
+            assertEquals(3L, recovery.maxEquationId());
+            assertEquals(4L, recovery.lastLsn());
+        }
+    }
+
+    @Test
+    void testSnapshot_KeepsExpiries() throws Exception {
+        long later = System.currentTimeMillis() + 3_600_000;
+        try (EquationStorage storage = open(4)) {
+            storage.recover();
+            storage.append(1L, "x", later);
+            storage.append(2L, "y");
+            storage.remove(2L);
+            storage.append(3L, "z");
+            awaitSnapshots(storage, 1);
+        }
+
+        try (EquationStorage storage = open(4)) {
+            EquationStorage.Recovery recovery = storage.recover();
+
+            assertEquals(List.of(1L, 3L), List.copyOf(recovery.equations().keySet()));
+            assertEquals(later, recovery.expiries().get(1L));
+            assertFalse(recovery.expiries().containsKey(3L));
+        }
+    }
+
+    @Test
+    void testClear_DropsEverythingButKeepsSequence() {
+        try (EquationStorage storage = open(1000)) {
+            storage.recover();
+            storage.append(1L, "x");
+            storage.clear();
+            storage.append(1L, "y");
+        }
+
+        try (EquationStorage storage = open(1000)) {
+            EquationStorage.Recovery recovery = storage.recover();
+
+            assertEquals(1, recovery.equations().size());
+            assertEquals("y", recovery.equations().get(1L));
+            assertEquals(2L, recovery.lastLsn());
+        }
+    }
+
+    @Test
+    void testDisabled_NoFiles() {
+        try (EquationStorage storage = new EquationStorage(null, true, 1000)) {
+            assertFalse(storage.isEnabled());
+            assertTrue(storage.recover().equations().isEmpty());
+            storage.append(1L, "x");
+            assertFalse(storage.stats().enabled());
+        }
+    }
+
+    @Test
+    void testAppend_BeforeRecoverFails() {
+        try (EquationStorage storage = open(1000)) {
+            assertThrows(IllegalStateException.class, () -> storage.append(1L, "x"));
+        }
+    }
+}
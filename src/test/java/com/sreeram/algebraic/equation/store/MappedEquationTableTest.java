@@ -0,0 +1,266 @@
+package com.sreeram.algebraic.equation.store;
+
+import com.sreeram.algebraic.equation.engine.EquationCompiler;
+import com.sreeram.algebraic.equation.engine.EquationFunction;
+import com.sreeram.algebraic.equation.engine.EquationProgram;
+import com.sreeram.algebraic.equation.expression.CompactTree;
+import com.sreeram.algebraic.equation.expression.ExpressionParser;
+import com.sreeram.algebraic.equation.expression.InfixRenderer;
+import com.sreeram.algebraic.equation.model.ExpressionTreeNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedEquationTableTest {
+
+    @TempDir
+    Path directory;
+
+    private MappedEquationTable open(long cacheEntries) {
+        return new MappedEquationTable(directory, 4096, cacheEntries, 1 << 20, (equationId, program) -> program);
+    }
+
+    private StoredEquation entry(long equationId, String equation) {
+        ExpressionTreeNode tree = ExpressionParser.parse(equation);
+        EquationProgram program = EquationCompiler.compileOptimized(tree);
+        return new StoredEquation(equationId, InfixRenderer.render(tree), CompactTree.of(tree), program, program);
+    }
+
+    private long files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testGet_DecodesWhatWasPut() {
+        try (MappedEquationTable table = open(100)) {
+            table.put(entry(1L, "3x^2 + 2x - 1"));
+            table.put(entry(2L, "(x + y)(x - y)/z"));
+
+            StoredEquation stored = table.get(2L);
+
+            assertEquals(2L, stored.getEquationId());
+            assertEquals("(x+y)(x-y)/z", stored.getEquation());
+            assertNull(stored.getExpressionTree());
+            assertEquals(entry(2L, "(x + y)(x - y)/z").getProgram().evaluate(new double[]{5, 3, 2}),
+                    stored.getFunction().evaluate(new double[]{5, 3, 2}));
+            assertEquals(32.0, table.get(1L).getFunction().evaluate(new double[]{3}));
+            assertNull(table.get(3L));
+            assertNull(table.get(-1L));
+            assertEquals(2, table.size());
+        }
+    }
+
+    @Test
+    void testGet_CachesHotEntries() {
+        try (MappedEquationTable table = open(1)) {
+            table.put(entry(1L, "x + 1"));
+            // Same cache segment as 1
+            table.put(entry(17L, "x + 17"));
+
+            StoredEquation first = table.get(1L);
+            assertSame(first, table.get(1L));
+            table.get(17L);
+            assertNotSame(first, table.get(1L));
+
+            EquationTable.Stats stats = table.stats();
+            assertEquals("mapped", stats.backend());
+            assertEquals(1, stats.cacheHits());
+            assertEquals(3, stats.cacheMisses());
+            assertEquals(2, stats.cacheEvictions());
+            assertEquals(1, stats.cachedEntries());
+        }
+    }
+
+    @Test
+    void testGet_EvictedFunctionsAreReleased() {
+        List<EquationFunction> released = new ArrayList<>();
+        try (MappedEquationTable table = new MappedEquationTable(directory, 4096, 1, 1 << 20,
+                (equationId, program) -> program, released::add)) {
+            table.put(entry(1L, "x + 1"));
+            table.put(entry(17L, "x + 17"));
+
+            EquationFunction first = table.get(1L).getFunction();
+            table.get(17L);
+            assertEquals(List.of(first), released);
+
+            EquationFunction second = table.get(17L).getFunction();
+            table.remove(17L);
+            assertEquals(List.of(first, second), released);
+        }
+    }
+
+    @Test
+    void testGet_KeepsExpiry() {
+        try (MappedEquationTable table = open(100)) {
+            StoredEquation stored = entry(1L, "x + 1");
+            table.put(new StoredEquation(1L, stored.getEquation(), null, stored.getProgram(), stored.getFunction(), 1234L));
+            table.put(entry(2L, "y"));
+
+            assertEquals(1234L, table.get(1L).getExpiresAt());
+            assertEquals(1234L, table.after(null).iterator().next().getExpiresAt());
+            assertEquals(0L, table.get(2L).getExpiresAt());
+        }
+    }
+
+    @Test
+    void testGet_PendingEntryUntilReplaced() {
+        try (MappedEquationTable table = open(100)) {
+            table.put(new StoredEquation(1L, "x + 1", null, null, null, 1234L));
+
+            StoredEquation pending = table.get(1L);
+            assertFalse(pending.isCompiled());
+            assertEquals("x + 1", pending.getEquation());
+            assertEquals(1234L, pending.getExpiresAt());
+            assertFalse(table.after(null).iterator().next().isCompiled());
+
+            table.put(entry(1L, "x + 1"));
+            assertTrue(table.get(1L).isCompiled());
+            assertEquals(1, table.size());
+        }
+    }
+
+    @Test
+    void testPut_ReplacesAndRemoves() {
+        try (MappedEquationTable table = open(100)) {
+            table.put(entry(1L, "x + 1"));
+            table.get(1L);
+            table.put(entry(1L, "x + 2"));
+
+            assertEquals("x+2", table.get(1L).getEquation());
+            assertEquals(1, table.size());
+            assertEquals("x+2", table.remove(1L).getEquation());
+            assertNull(table.get(1L));
+            assertNull(table.remove(1L));
+            assertEquals(0, table.size());
+        }
+    }
+
+    @Test
+    void testReplace_OnlyWhilePresent() {
+        try (MappedEquationTable table = open(100)) {
+            assertFalse(table.replace(entry(1L, "x + 1")));
+            assertNull(table.get(1L));
+
+            table.put(entry(1L, "x + 1"));
+            assertTrue(table.replace(entry(1L, "x + 2")));
+            assertEquals("x+2", table.get(1L).getEquation());
+            assertEquals(1, table.size());
+        }
+    }
+
+    @Test
+    void testAfter_InIdOrderSkippingGaps() {
+        try (MappedEquationTable table = open(100)) {
+            for (long id = 1; id <= 6; id++) {
+                table.put(entry(id, "x + " + id));
+            }
+            table.remove(3L);
+            table.put(entry(2_000_000L, "y"));
+
+            assertEquals(List.of(4L, 5L, 6L, 2_000_000L),
+                    table.after(2L).stream().map(StoredEquation::getEquationId).toList());
+            assertEquals(6, table.after(null).size());
+            assertTrue(table.after(2_000_000L).isEmpty());
+            assertEquals(0, table.stats().cacheMisses());
+        }
+    }
+
+    @Test
+    void testPut_RollsSegments() {
+        try (MappedEquationTable table = open(0)) {
+            String large = "x" + "+x".repeat(2_000);
+            for (long id = 1; id <= 200; id++) {
+                table.put(entry(id, id % 50 == 0 ? large : id + "x + y"));
+            }
+
+            assertTrue(table.stats().segments() > 1);
+            assertEquals(200, table.size());
+            assertEquals("137x+y", table.get(137L).getEquation());
+            assertEquals(2001.0, table.get(150L).getFunction().evaluate(new double[]{1}));
+        }
+    }
+
+    @Test
+    void testReplace_CachedEntryNeverOutlivesCompaction() {
+        try (MappedEquationTable table = open(100)) {
+            table.put(entry(1L, "x + 0"));
+            table.put(entry(2L, "y"));
+            for (int i = 1; table.compactions() < 3; i++) {
+                table.get(1L);
+                table.get(2L);
+                assertTrue(table.replace(entry(1L, "x + " + i)));
+
+                assertEquals("x+" + i, table.get(1L).getEquation());
+                assertEquals("y", table.get(2L).getEquation());
+            }
+        }
+    }
+
+    @Test
+    void testPut_CompactsUnderStoreDeleteChurn() throws IOException {
+        try (MappedEquationTable table = open(100)) {
+            table.put(entry(1L, "x + 1"));
+            StoredEquation cached = table.get(1L);
+            for (long id = 2; id <= 20_000; id++) {
+                table.put(entry(id, id + "x + y - z"));
+                if (id % 3 == 0) {
+                    table.put(entry(id, id + "x"));
+                }
+                table.remove(id - 1 == 1 ? 0 : id - 1);
+            }
+
+            long segmentBytes;
+            try (Stream<Path> files = Files.list(directory)) {
+                segmentBytes = files.filter(file -> file.getFileName().toString().startsWith("segment"))
+                        .mapToLong(file -> file.toFile().length()).sum();
+            }
+            assertTrue(table.compactions() > 0);
+            assertTrue(segmentBytes <= 4 * 4096, "segment files hold " + segmentBytes + " bytes");
+            assertEquals(2, table.size());
+            assertSame(cached, table.get(1L));
+            assertEquals("20000x+y-z", table.get(20_000L).getEquation());
+            assertEquals(List.of(1L, 20_000L), table.after(null).stream().map(StoredEquation::getEquationId).toList());
+        }
+    }
+
+    @Test
+    void testClear_StartsOverAndDeletesFiles() throws IOException {
+        MappedEquationTable table = open(100);
+        table.put(entry(1L, "x + 1"));
+        StoredEquation before = table.get(1L);
+        long filesBefore = files();
+
+        table.clear();
+        table.put(entry(1L, "y"));
+
+        assertTrue(filesBefore > 0);
+        assertEquals("x+1", before.getEquation());
+        assertEquals("y", table.get(1L).getEquation());
+        assertEquals(1, table.size());
+
+        table.close();
+        assertEquals(0, files());
+    }
+
+    @Test
+    void testOpen_DeletesStaleSegments() throws IOException {
+        Files.writeString(directory.resolve("segment-00000007.dat"), "stale");
+        Files.writeString(directory.resolve("notes.txt"), "kept");
+
+        try (MappedEquationTable table = open(100)) {
+            assertEquals(0, table.size());
+            assertFalse(Files.exists(directory.resolve("segment-00000007.dat")));
+            assertTrue(Files.exists(directory.resolve("notes.txt")));
+        }
+    }
+}
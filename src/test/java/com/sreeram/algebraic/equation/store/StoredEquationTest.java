@@ -0,0 +1,42 @@
+package com.sreeram.algebraic.equation.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoredEquationTest {
+
+    private String json(StoredEquation stored) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stored.writeJson(out);
+        assertEquals(out.size(), stored.jsonLength());
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testWriteJson_PreEncodedEntry() throws IOException {
+        StoredEquation stored = new StoredEquation(7L, "3x+2y-z", null, null, null);
+
+        assertEquals("{\"equationId\":7,\"equation\":\"3x+2y-z\"}", json(stored));
+    }
+
+    @Test
+    void testWriteJson_EscapesSpecialCharacters() throws IOException {
+        StoredEquation stored = new StoredEquation(1L, "a\"b\\c\n", null, null, null);
+
+        assertEquals("{\"equationId\":1,\"equation\":\"a\\\"b\\\\c\\u000a\"}", json(stored));
+    }
+
+    @Test
+    void testToResponse_SharesCanonicalInfix() {
+        String infix = "(x+y)z";
+        StoredEquation stored = new StoredEquation(2L, infix, null, null, null);
+
+        assertSame(infix, stored.toResponse().getEquation());
+        assertEquals(2L, stored.toResponse().getEquationId());
+    }
+}